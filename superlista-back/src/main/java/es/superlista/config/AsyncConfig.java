@@ -0,0 +1,58 @@
+package es.superlista.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Clase de configuración de los ejecutores de tareas en segundo plano.
+ * Los ejecutores están acotados en hilos y en cola, de modo que cuando se saturan rechazan nuevas tareas
+ * en lugar de acumularlas sin límite.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Ejecutor dedicado a la generación asíncrona de listas de la compra. Al estar separado de los hilos de
+     * Tomcat, las generaciones largas no ocupan hilos de petición; cuando su cola se llena, las nuevas tareas
+     * se rechazan con {@link org.springframework.core.task.TaskRejectedException}.
+     *
+     * @param hilos número de hilos del ejecutor
+     * @param cola  capacidad de la cola de tareas pendientes
+     * @return el ejecutor configurado
+     */
+    @Bean
+    public ThreadPoolTaskExecutor generacionListasExecutor(
+            @Value("${superlista.listacompra.asincrona.hilos:4}") int hilos,
+            @Value("${superlista.listacompra.asincrona.cola:100}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("generacion-listas-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Ejecutor dedicado al precálculo por lotes de las listas de la compra. Su número de hilos fija
+     * cuántos bloques de menús se procesan a la vez, acotando la presión sobre la base de datos.
+     *
+     * @param paralelismo número de bloques procesados en paralelo
+     * @return el ejecutor configurado
+     */
+    @Bean
+    public ThreadPoolTaskExecutor precalculoListasExecutor(
+            @Value("${superlista.batch.precalculo-listas.paralelismo:2}") int paralelismo) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(paralelismo);
+        executor.setMaxPoolSize(paralelismo);
+        executor.setQueueCapacity(paralelismo);
+        executor.setThreadNamePrefix("precalculo-listas-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,13 @@
+package es.superlista.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Clase de configuración que habilita la ejecución de tareas programadas ({@code @Scheduled}),
+ * como el volcado periódico de los cambios diferidos de las listas de la compra.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
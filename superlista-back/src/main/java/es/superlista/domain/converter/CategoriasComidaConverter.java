@@ -0,0 +1,50 @@
+package es.superlista.domain.converter;
+
+import es.superlista.domain.enumeration.CategoriaComida;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Conversor JPA que guarda un conjunto de {@link CategoriaComida} en una sola columna de texto,
+ * con los nombres de las categorías separados por comas. Un conjunto nulo se guarda como nulo.
+ */
+@Converter
+public class CategoriasComidaConverter implements AttributeConverter<Set<CategoriaComida>, String> {
+
+    private static final String SEPARADOR = ",";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String convertToDatabaseColumn(Set<CategoriaComida> categorias) {
+        if (categorias == null) {
+            return null;
+        }
+        return categorias.stream()
+                .sorted()
+                .map(CategoriaComida::name)
+                .collect(Collectors.joining(SEPARADOR));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<CategoriaComida> convertToEntityAttribute(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        Set<CategoriaComida> categorias = EnumSet.noneOf(CategoriaComida.class);
+        for (String nombre : valor.split(SEPARADOR)) {
+            if (!nombre.isBlank()) {
+                categorias.add(CategoriaComida.fromString(nombre.trim()));
+            }
+        }
+        return categorias;
+    }
+}
@@ -0,0 +1,64 @@
+package es.superlista.domain.converter;
+
+import es.superlista.domain.entity.menu_semanal.CuadriculaRecetas;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Conversor JPA que guarda una {@link CuadriculaRecetas} en una sola columna de texto compacto, con una
+ * entrada por celda ocupada: {@code DIA.CATEGORIA=id,id;DIA.CATEGORIA=id}. Una cuadrícula vacía
+ * o nula se guarda como nulo, de modo que un menú sin recetas no ocupa espacio.
+ */
+@Converter
+public class CuadriculaRecetasConverter implements AttributeConverter<CuadriculaRecetas, String> {
+
+    private static final String SEPARADOR_CELDAS = ";";
+    private static final String SEPARADOR_CLAVE = "=";
+    private static final String SEPARADOR_CELDA = ".";
+    private static final String SEPARADOR_RECETAS = ",";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String convertToDatabaseColumn(CuadriculaRecetas cuadricula) {
+        if (cuadricula == null || cuadricula.isVacia()) {
+            return null;
+        }
+        List<String> entradas = new ArrayList<>();
+        cuadricula.getCeldas().forEach((dia, categorias) -> categorias.forEach((categoria, recetas) ->
+                entradas.add(dia.name() + SEPARADOR_CELDA + categoria.name() + SEPARADOR_CLAVE
+                        + recetas.stream().map(String::valueOf).collect(Collectors.joining(SEPARADOR_RECETAS)))));
+        return String.join(SEPARADOR_CELDAS, entradas);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CuadriculaRecetas convertToEntityAttribute(String valor) {
+        CuadriculaRecetas cuadricula = new CuadriculaRecetas();
+        if (valor == null) {
+            return cuadricula;
+        }
+        for (String entrada : valor.split(SEPARADOR_CELDAS)) {
+            if (entrada.isBlank()) {
+                continue;
+            }
+            int clave = entrada.indexOf(SEPARADOR_CLAVE);
+            int celda = entrada.indexOf(SEPARADOR_CELDA);
+            DiaSemana dia = DiaSemana.fromString(entrada.substring(0, celda));
+            CategoriaComida categoria = CategoriaComida.fromString(entrada.substring(celda + 1, clave));
+            for (String id : entrada.substring(clave + 1).split(SEPARADOR_RECETAS)) {
+                cuadricula.agregar(dia, categoria, Long.valueOf(id.trim()));
+            }
+        }
+        return cuadricula;
+    }
+}
@@ -0,0 +1,24 @@
+package es.superlista.domain.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * DTO (Data Transfer Object) utilizado para consultar qué recetas se pueden cocinar
+ * con los ingredientes que el usuario tiene en casa.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DespensaDto {
+
+    /**
+     * Identificadores de los ingredientes disponibles en la despensa.
+     */
+    @NotEmpty(message = "La lista de IDs de ingredientes no puede estar vacía")
+    private Set<Long> ingredienteIds;
+}
@@ -0,0 +1,33 @@
+package es.superlista.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * DTO (Data Transfer Object) que describe un registro que no se pudo importar.
+ * Contiene la línea del fichero, el nombre de la receta (si se pudo leer) y el motivo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorImportacionDto implements Serializable {
+    private static final long serialVersionUID = 4127730958123665213L;
+
+    /**
+     * Número de línea del registro en el fichero (empezando en 1).
+     */
+    private long linea;
+
+    /**
+     * Nombre de la receta del registro, o nulo si la línea no se pudo interpretar.
+     */
+    private String receta;
+
+    /**
+     * Motivo por el que el registro no se importó.
+     */
+    private String mensaje;
+}
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 /**
  * DTO (Data Transfer Object) utilizado para generar una lista de la compra
  * a partir de un menú semanal existente.
- * Contiene únicamente el identificador del menú.
+ * Contiene el identificador del menú y si la lista debe quedar vinculada a él.
  */
 @Data
 @NoArgsConstructor
@@ -18,4 +18,10 @@ public class GenerarListaDto {
      * Identificador único del menú del cual se generará la lista de la compra.
      */
     private Long menuId;
+
+    /**
+     * Indica si la lista queda vinculada al menú, de modo que las ediciones posteriores del menú
+     * se apliquen sobre ella de forma incremental.
+     */
+    private boolean vinculada;
 }
@@ -0,0 +1,24 @@
+package es.superlista.domain.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * DTO (Data Transfer Object) utilizado para generar una única lista de la compra
+ * a partir de varios menús semanales existentes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerarListaMultipleDto {
+
+    /**
+     * Identificadores de los menús de los cuales se generará la lista de la compra.
+     */
+    @NotEmpty(message = "La lista de IDs de menús no puede estar vacía")
+    private Set<Long> menuIds;
+}
@@ -0,0 +1,35 @@
+package es.superlista.domain.dto;
+
+import es.superlista.domain.enumeration.CategoriaIngrediente;
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) que representa una lista de la compra con sus ingredientes agrupados por categoría.
+ * Las categorías se recorren en el orden de {@link CategoriaIngrediente#getId()} y solo aparecen las que tienen
+ * algún ingrediente; dentro de cada categoría se conserva la posición de los ingredientes en la lista.
+ */
+@Data
+@Builder
+public class ListaCompraAgrupadaDto implements Serializable {
+    private static final long serialVersionUID = -6192284337850183215L;
+
+    /**
+     * Identificador único de la lista de la compra.
+     */
+    private Long id;
+
+    /**
+     * Identificador del usuario propietario de la lista.
+     */
+    private Long usuarioId;
+
+    /**
+     * Ingredientes de la lista agrupados por categoría.
+     */
+    private EnumMap<CategoriaIngrediente, List<ListaCompraItemDto>> categorias;
+}
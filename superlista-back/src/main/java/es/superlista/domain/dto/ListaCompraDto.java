@@ -27,6 +27,6 @@ public class ListaCompraDto implements Serializable {
     /**
      * Lista de ingredientes incluidos en la lista de la compra.
      */
-    private List<IngredienteSimpleDto> items;
+    private List<ListaCompraItemDto> items;
 
 }
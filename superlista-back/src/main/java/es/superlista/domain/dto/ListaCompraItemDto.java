@@ -0,0 +1,42 @@
+package es.superlista.domain.dto;
+
+import es.superlista.domain.enumeration.CategoriaIngrediente;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * DTO (Data Transfer Object) que representa un ingrediente dentro de una lista de la compra.
+ * Contiene la información básica del ingrediente junto con su estado de compra y su posición en la lista.
+ */
+@Getter
+@Setter
+public class ListaCompraItemDto implements Serializable {
+    private static final long serialVersionUID = 4839103585771625390L;
+
+    /**
+     * Identificador único del ingrediente.
+     */
+    private Long id;
+
+    /**
+     * Nombre del ingrediente.
+     */
+    private String nombre;
+
+    /**
+     * Categoría a la que pertenece el ingrediente (por ejemplo, verduras, lácteos).
+     */
+    private CategoriaIngrediente categoria;
+
+    /**
+     * Indica si el ingrediente ya se ha comprado.
+     */
+    private boolean comprado;
+
+    /**
+     * Posición del ingrediente dentro de la lista.
+     */
+    private int posicion;
+}
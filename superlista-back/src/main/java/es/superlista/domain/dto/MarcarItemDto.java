@@ -0,0 +1,16 @@
+package es.superlista.domain.dto;
+
+import lombok.Data;
+
+/**
+ * DTO (Data Transfer Object) utilizado para marcar un ingrediente de una lista de la compra como comprado o pendiente.
+ * Si no se indica el estado, el ingrediente alterna su estado actual.
+ */
+@Data
+public class MarcarItemDto {
+
+    /**
+     * Estado de compra deseado (opcional; si es nulo se alterna el estado actual).
+     */
+    private Boolean comprado;
+}
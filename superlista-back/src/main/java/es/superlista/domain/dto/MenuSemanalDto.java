@@ -1,8 +1,10 @@
 package es.superlista.domain.dto;
 
+import es.superlista.domain.enumeration.CategoriaComida;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * DTO (Data Transfer Object) que representa un menú semanal completo.
@@ -21,7 +23,12 @@ public class MenuSemanalDto {
     private Long usuarioId;
 
     /**
-     * Lista de días con sus respectivas categorías de comida y recetas.
+     * Categorías de comida que forman el menú (si es nulo, todas).
+     */
+    private Set<CategoriaComida> categorias;
+
+    /**
+     * Cuadrícula completa de días con sus respectivas categorías de comida y recetas.
      */
     private List<DiaComidaDto> diasComidas;
 }
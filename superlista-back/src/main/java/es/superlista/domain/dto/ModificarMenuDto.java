@@ -0,0 +1,22 @@
+package es.superlista.domain.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) utilizado para modificar parcialmente un menú semanal.
+ * Contiene la lista ordenada de operaciones a aplicar sobre sus celdas.
+ */
+@Getter @Setter
+public class ModificarMenuDto {
+
+    /**
+     * Operaciones a aplicar, en orden, dentro de una misma transacción.
+     */
+    @NotEmpty(message = "La lista de operaciones no puede estar vacía")
+    private List<@Valid OperacionMenuDto> operaciones;
+}
@@ -0,0 +1,48 @@
+package es.superlista.domain.dto;
+
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.enumeration.TipoOperacionMenu;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * DTO (Data Transfer Object) que representa una operación parcial sobre una celda de un menú semanal.
+ * La receta es obligatoria salvo al vaciar la celda, y la celda destino solo se usa al mover.
+ */
+@Data
+public class OperacionMenuDto {
+
+    /**
+     * Tipo de operación a aplicar.
+     */
+    @NotNull(message = "La operación es obligatoria")
+    private TipoOperacionMenu op;
+
+    /**
+     * Día de la celda sobre la que se opera (origen al mover).
+     */
+    @NotNull
+    private DiaSemana dia;
+
+    /**
+     * Categoría de la celda sobre la que se opera (origen al mover).
+     */
+    @NotNull
+    private CategoriaComida categoria;
+
+    /**
+     * Identificador de la receta que se añade, quita o mueve.
+     */
+    private Long recetaId;
+
+    /**
+     * Día de la celda destino al mover una receta.
+     */
+    private DiaSemana diaDestino;
+
+    /**
+     * Categoría de la celda destino al mover una receta.
+     */
+    private CategoriaComida categoriaDestino;
+}
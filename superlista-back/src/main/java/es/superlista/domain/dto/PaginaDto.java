@@ -0,0 +1,30 @@
+package es.superlista.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) que representa una página de resultados paginados por clave (keyset).
+ * Los elementos se ordenan por identificador descendente; para obtener la página siguiente se envía
+ * {@code siguienteCursor} como cursor, que es nulo cuando no quedan más elementos.
+ *
+ * @param <T> tipo de los elementos de la página
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDto<T> {
+
+    /**
+     * Elementos de la página.
+     */
+    private List<T> elementos;
+
+    /**
+     * Cursor de la página siguiente (identificador del último elemento), o nulo si es la última.
+     */
+    private Long siguienteCursor;
+}
@@ -0,0 +1,39 @@
+package es.superlista.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) que representa una receta junto con su cobertura por los ingredientes
+ * de la despensa: cuántos tiene el usuario y cuáles le faltan para cocinarla.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecetaDisponibleDto implements Serializable {
+    private static final long serialVersionUID = 7719823024167450391L;
+
+    /**
+     * Receta con todos sus ingredientes.
+     */
+    private RecetaDto receta;
+
+    /**
+     * Número de ingredientes de la receta que están en la despensa.
+     */
+    private int disponibles;
+
+    /**
+     * Número de ingredientes de la receta que no están en la despensa (0 si se puede cocinar).
+     */
+    private int faltan;
+
+    /**
+     * Ingredientes de la receta que no están en la despensa.
+     */
+    private List<IngredienteSimpleDto> faltantes;
+}
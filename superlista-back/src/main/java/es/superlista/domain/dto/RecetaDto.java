@@ -1,5 +1,6 @@
 package es.superlista.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -28,8 +29,9 @@ public class RecetaDto implements Serializable {
     private String nombre;
 
     /**
-     * Lista de ingredientes incluidos en la receta.
+     * Lista de ingredientes incluidos en la receta. Se omite en las lecturas que no los solicitan.
      */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<IngredienteSimpleDto> ingredientes;
 
 }
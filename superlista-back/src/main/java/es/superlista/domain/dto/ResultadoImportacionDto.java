@@ -0,0 +1,52 @@
+package es.superlista.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) con el resultado de una importación masiva de recetas.
+ * Contiene los registros leídos, importados y fallidos, el detalle de los errores y el rendimiento obtenido.
+ */
+@Data
+@Builder
+public class ResultadoImportacionDto implements Serializable {
+    private static final long serialVersionUID = 2850412268530973311L;
+
+    /**
+     * Registros (líneas no vacías) leídos del fichero.
+     */
+    private long leidos;
+
+    /**
+     * Recetas importadas.
+     */
+    private long importadas;
+
+    /**
+     * Registros que no se pudieron importar.
+     */
+    private long fallidos;
+
+    /**
+     * Ingredientes creados durante la importación.
+     */
+    private long ingredientesCreados;
+
+    /**
+     * Detalle de los errores, limitado por configuración; si hay más fallidos que errores, el resto se omite.
+     */
+    private List<ErrorImportacionDto> errores;
+
+    /**
+     * Duración total de la importación en milisegundos.
+     */
+    private long duracionMs;
+
+    /**
+     * Registros leídos por segundo.
+     */
+    private double registrosPorSegundo;
+}
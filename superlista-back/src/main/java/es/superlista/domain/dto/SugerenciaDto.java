@@ -0,0 +1,34 @@
+package es.superlista.domain.dto;
+
+import es.superlista.domain.enumeration.TipoSugerencia;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * DTO (Data Transfer Object) que representa una sugerencia del autocompletado.
+ * Contiene el tipo de elemento (receta o ingrediente), su identificador y su nombre tal como se guardó.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaDto implements Serializable {
+    private static final long serialVersionUID = 3385170062415918844L;
+
+    /**
+     * Tipo de elemento sugerido.
+     */
+    private TipoSugerencia tipo;
+
+    /**
+     * Identificador de la receta o del ingrediente.
+     */
+    private Long id;
+
+    /**
+     * Nombre de la receta o del ingrediente, con sus tildes y mayúsculas.
+     */
+    private String nombre;
+}
@@ -0,0 +1,42 @@
+package es.superlista.domain.dto;
+
+import es.superlista.domain.enumeration.EstadoTrabajo;
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * DTO (Data Transfer Object) que representa un trabajo de generación asíncrona de una lista de la compra.
+ * Contiene el identificador del trabajo, su estado y, cuando termina, la lista generada o el motivo del error.
+ */
+@Data
+@Builder
+public class TrabajoGeneracionDto implements Serializable {
+    private static final long serialVersionUID = 7301840412285376618L;
+
+    /**
+     * Identificador único del trabajo.
+     */
+    private String id;
+
+    /**
+     * Identificador del menú a partir del cual se genera la lista.
+     */
+    private Long menuId;
+
+    /**
+     * Estado actual del trabajo.
+     */
+    private EstadoTrabajo estado;
+
+    /**
+     * Lista generada (solo cuando el trabajo se ha completado).
+     */
+    private ListaCompraDto resultado;
+
+    /**
+     * Mensaje de error (solo cuando el trabajo ha fallado).
+     */
+    private String error;
+}
@@ -27,7 +27,8 @@ public class Ingrediente {
      * Identificador único del ingrediente.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingrediente_seq")
+    @SequenceGenerator(name = "ingrediente_seq", sequenceName = BBDD.Secuencias.INGREDIENTE, allocationSize = Numeros.CINCUENTA)
     private Long id;
 
     /**
@@ -1,7 +1,10 @@
 package es.superlista.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import es.superlista.domain.entity.menu_semanal.MenuSemanal;
 import es.superlista.utils.BBDD;
+import es.superlista.utils.Numeros;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -13,6 +16,8 @@ import java.util.List;
 /**
  * Entidad que representa una lista de la compra.
  * Contiene el identificador de la lista, el usuario propietario y los ingredientes incluidos.
+ * Opcionalmente puede estar vinculada a un menú semanal, en cuyo caso se mantiene de forma incremental
+ * a partir de las referencias de cada ingrediente en las recetas del menú.
  */
 @Getter
 @Setter
@@ -26,7 +31,8 @@ public class ListaCompra {
      * Identificador único de la lista de la compra.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lista_compra_seq")
+    @SequenceGenerator(name = "lista_compra_seq", sequenceName = BBDD.Secuencias.LISTA_COMPRA, allocationSize = Numeros.CINCUENTA)
     private Long id;
 
     /**
@@ -38,13 +44,25 @@ public class ListaCompra {
     private Usuario usuario;
 
     /**
-     * Lista de ingredientes incluidos en esta lista de la compra.
+     * Ingredientes incluidos en esta lista de la compra, con su estado de compra, ordenados por posición.
      */
-    @ManyToMany
-    @JoinTable(
-            name = "lista_compra_ingredientes",
-            joinColumns = @JoinColumn(name = "lista_compra_id"),
-            inverseJoinColumns = @JoinColumn(name = "ingrediente_id")
-    )
-    private List<Ingrediente> items;
+    @OneToMany(mappedBy = "listaCompra", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("posicion")
+    private List<ListaCompraItem> items;
+
+    /**
+     * Menú semanal al que está vinculada la lista (opcional).
+     * Si está informado, las ediciones del menú se aplican sobre la lista como variaciones.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "menu_semanal_id")
+    @JsonIgnore
+    private MenuSemanal menuSemanal;
+
+    /**
+     * Contadores de referencias por ingrediente, solo presentes en listas vinculadas a un menú.
+     */
+    @OneToMany(mappedBy = "listaCompra", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    private List<ListaCompraReferencia> referencias;
 }
@@ -0,0 +1,69 @@
+package es.superlista.domain.entity;
+
+import es.superlista.utils.BBDD;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entidad que representa un ingrediente dentro de una lista de la compra.
+ * Además de la relación lista–ingrediente guarda si el ingrediente ya se ha comprado
+ * y la posición que ocupa en la lista.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BBDD.Tablas.LISTA_COMPRA_INGREDIENTES)
+@Entity
+public class ListaCompraItem {
+
+    /**
+     * Clave compuesta (lista, ingrediente).
+     */
+    @EmbeddedId
+    private ListaCompraItemId id = new ListaCompraItemId();
+
+    /**
+     * Lista de la compra a la que pertenece el ítem.
+     */
+    @MapsId("listaCompraId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lista_compra_id")
+    private ListaCompra listaCompra;
+
+    /**
+     * Ingrediente incluido en la lista.
+     */
+    @MapsId("ingredienteId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingrediente_id")
+    private Ingrediente ingrediente;
+
+    /**
+     * Indica si el ingrediente ya se ha comprado (marcado en la lista).
+     */
+    @Column(name = BBDD.Columnas.COMPRADO, nullable = false)
+    private boolean comprado;
+
+    /**
+     * Posición del ingrediente dentro de la lista.
+     */
+    @Column(name = BBDD.Columnas.POSICION, nullable = false)
+    private int posicion;
+
+    /**
+     * Crea un ítem pendiente de comprar para la lista e ingrediente indicados.
+     *
+     * @param listaCompra lista de la compra
+     * @param ingrediente ingrediente a incluir
+     * @param posicion    posición en la lista
+     */
+    public ListaCompraItem(ListaCompra listaCompra, Ingrediente ingrediente, int posicion) {
+        this.listaCompra = listaCompra;
+        this.ingrediente = ingrediente;
+        this.posicion = posicion;
+    }
+}
@@ -0,0 +1,37 @@
+package es.superlista.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Clave primaria compuesta de {@link ListaCompraItem}: identifica un ingrediente dentro de una lista de la compra.
+ * Al ser la clave de la tabla, cualquier operación sobre un ítem concreto se resuelve por índice.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+@Embeddable
+public class ListaCompraItemId implements Serializable {
+    private static final long serialVersionUID = -3620958406153373714L;
+
+    /**
+     * Identificador de la lista de la compra.
+     */
+    @Column(name = "lista_compra_id")
+    private Long listaCompraId;
+
+    /**
+     * Identificador del ingrediente.
+     */
+    @Column(name = "ingrediente_id")
+    private Long ingredienteId;
+}
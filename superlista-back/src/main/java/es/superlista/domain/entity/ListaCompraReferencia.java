@@ -0,0 +1,52 @@
+package es.superlista.domain.entity;
+
+import es.superlista.utils.BBDD;
+import es.superlista.utils.Numeros;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entidad que representa el contador de referencias de un ingrediente dentro de una lista de la compra
+ * vinculada a un menú semanal. Indica cuántas recetas asignadas en las celdas del menú usan el ingrediente;
+ * cuando llega a cero el ingrediente deja de formar parte de la lista.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BBDD.Tablas.LISTA_COMPRA_REFERENCIAS,
+        uniqueConstraints = @UniqueConstraint(columnNames = {"lista_compra_id", "ingrediente_id"}))
+@Entity
+public class ListaCompraReferencia {
+
+    /**
+     * Identificador único del contador.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lista_compra_referencias_seq")
+    @SequenceGenerator(name = "lista_compra_referencias_seq", sequenceName = BBDD.Secuencias.LISTA_COMPRA_REFERENCIAS, allocationSize = Numeros.CINCUENTA)
+    private Long id;
+
+    /**
+     * Lista de la compra vinculada a la que pertenece el contador.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lista_compra_id", nullable = false)
+    private ListaCompra listaCompra;
+
+    /**
+     * Ingrediente contabilizado.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingrediente_id", nullable = false)
+    private Ingrediente ingrediente;
+
+    /**
+     * Número de referencias (receta asignada a una celda) que aportan el ingrediente a la lista.
+     */
+    @Column(name = BBDD.Columnas.REFERENCIAS, nullable = false)
+    private int referencias;
+}
@@ -0,0 +1,49 @@
+package es.superlista.domain.entity;
+
+import es.superlista.utils.BBDD;
+import es.superlista.utils.Numeros;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa el punto de control de un proceso por lotes.
+ * Guarda el último identificador procesado, de modo que si el proceso se interrumpe
+ * la siguiente ejecución continúa desde ese punto en lugar de empezar de nuevo.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = BBDD.Tablas.PUNTO_CONTROL_BATCH)
+@Entity
+public class PuntoControlBatch {
+
+    /**
+     * Nombre único del proceso por lotes.
+     */
+    @Id
+    @Column(name = BBDD.Columnas.NOMBRE, length = Numeros.CINCUENTA)
+    private String nombre;
+
+    /**
+     * Último identificador procesado (0 si el proceso empieza desde el principio).
+     */
+    @Column(name = BBDD.Columnas.ULTIMO_ID, nullable = false)
+    private Long ultimoId;
+
+    /**
+     * Fecha y hora de la última actualización del punto de control.
+     */
+    @UpdateTimestamp
+    @Column(name = BBDD.Columnas.FECHA_ACTUALIZACION)
+    private LocalDateTime fechaActualizacion;
+}
@@ -24,7 +24,8 @@ public class Receta {
      * Identificador único de la receta.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "receta_seq")
+    @SequenceGenerator(name = "receta_seq", sequenceName = BBDD.Secuencias.RECETA, allocationSize = Numeros.CINCUENTA)
     private Long id;
 
     /**
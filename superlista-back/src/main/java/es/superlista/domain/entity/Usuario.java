@@ -33,7 +33,8 @@ public class Usuario {
      * Identificador único del usuario.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuario_seq")
+    @SequenceGenerator(name = "usuario_seq", sequenceName = BBDD.Secuencias.USUARIO, allocationSize = Numeros.CINCUENTA)
     private Long id;
 
     /**
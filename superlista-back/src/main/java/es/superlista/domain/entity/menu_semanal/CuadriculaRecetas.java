@@ -0,0 +1,139 @@
+package es.superlista.domain.entity.menu_semanal;
+
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Valor que representa la cuadrícula de un menú semanal guardada como documento: para cada día y
+ * categoría de comida, los identificadores de las recetas asignadas. Solo contiene las celdas con alguna receta.
+ * Es la alternativa, en el modo de almacenamiento {@code documento}, a las tablas DIA_COMIDA y DIA_COMIDA_RECETAS.
+ */
+@EqualsAndHashCode
+public class CuadriculaRecetas implements Serializable {
+
+    private static final long serialVersionUID = -3921458813076260471L;
+
+    private final Map<DiaSemana, Map<CategoriaComida, List<Long>>> celdas = new EnumMap<>(DiaSemana.class);
+
+    /**
+     * Crea una copia independiente de la cuadrícula.
+     *
+     * @return copia de la cuadrícula
+     */
+    public CuadriculaRecetas copia() {
+        CuadriculaRecetas copia = new CuadriculaRecetas();
+        celdas.forEach((dia, categorias) -> categorias.forEach(
+                (categoria, recetas) -> copia.poner(dia, categoria, recetas)));
+        return copia;
+    }
+
+    /**
+     * Devuelve las recetas de una celda.
+     *
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @return identificadores de las recetas de la celda (vacío si no tiene ninguna)
+     */
+    public List<Long> obtener(DiaSemana dia, CategoriaComida categoria) {
+        Map<CategoriaComida, List<Long>> categorias = celdas.get(dia);
+        List<Long> recetas = categorias == null ? null : categorias.get(categoria);
+        return recetas == null ? List.of() : Collections.unmodifiableList(recetas);
+    }
+
+    /**
+     * Sustituye las recetas de una celda; una lista vacía elimina la celda.
+     *
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @param recetas   identificadores de las recetas
+     */
+    public void poner(DiaSemana dia, CategoriaComida categoria, List<Long> recetas) {
+        if (recetas == null || recetas.isEmpty()) {
+            vaciar(dia, categoria);
+            return;
+        }
+        celdas.computeIfAbsent(dia, k -> new EnumMap<>(CategoriaComida.class)).put(categoria, new ArrayList<>(recetas));
+    }
+
+    /**
+     * Añade una receta a una celda.
+     *
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @param recetaId  identificador de la receta
+     */
+    public void agregar(DiaSemana dia, CategoriaComida categoria, Long recetaId) {
+        celdas.computeIfAbsent(dia, k -> new EnumMap<>(CategoriaComida.class))
+                .computeIfAbsent(categoria, k -> new ArrayList<>())
+                .add(recetaId);
+    }
+
+    /**
+     * Quita una aparición de una receta de una celda.
+     *
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @param recetaId  identificador de la receta
+     * @return {@code true} si la receta estaba en la celda
+     */
+    public boolean quitar(DiaSemana dia, CategoriaComida categoria, Long recetaId) {
+        List<Long> recetas = new ArrayList<>(obtener(dia, categoria));
+        if (!recetas.remove(recetaId)) {
+            return false;
+        }
+        poner(dia, categoria, recetas);
+        return true;
+    }
+
+    /**
+     * Quita todas las recetas de una celda.
+     *
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @return identificadores de las recetas que tenía la celda
+     */
+    public List<Long> vaciar(DiaSemana dia, CategoriaComida categoria) {
+        Map<CategoriaComida, List<Long>> categorias = celdas.get(dia);
+        if (categorias == null) {
+            return List.of();
+        }
+        List<Long> recetas = categorias.remove(categoria);
+        if (categorias.isEmpty()) {
+            celdas.remove(dia);
+        }
+        return recetas == null ? List.of() : recetas;
+    }
+
+    /**
+     * @return celdas con alguna receta, por día y categoría, en el orden de la semana (solo lectura)
+     */
+    public Map<DiaSemana, Map<CategoriaComida, List<Long>>> getCeldas() {
+        return Collections.unmodifiableMap(celdas);
+    }
+
+    /**
+     * @return identificadores distintos de todas las recetas de la cuadrícula
+     */
+    public Set<Long> recetaIds() {
+        Set<Long> ids = new LinkedHashSet<>();
+        celdas.values().forEach(categorias -> categorias.values().forEach(ids::addAll));
+        return ids;
+    }
+
+    /**
+     * @return {@code true} si ninguna celda tiene recetas
+     */
+    public boolean isVacia() {
+        return celdas.isEmpty();
+    }
+}
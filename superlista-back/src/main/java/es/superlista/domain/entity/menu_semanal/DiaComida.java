@@ -17,13 +17,15 @@ import java.util.List;
 /**
  * Entidad que representa un bloque de comidas para un día específico dentro de un menú semanal.
  * Contiene información sobre el día, la categoría de comida (desayuno, comida, cena), las recetas asignadas,
- * y la relación con el menú semanal al que pertenece.
+ * y la relación con el menú semanal al que pertenece. Cada par día–categoría es único dentro del menú.
  */
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = BBDD.Tablas.DIA_COMIDA)
+@Table(name = BBDD.Tablas.DIA_COMIDA,
+        uniqueConstraints = @UniqueConstraint(name = "UK_DIA_COMIDA_CELDA",
+                columnNames = {"menu_semanal_id", BBDD.Columnas.DIA, BBDD.Columnas.CATEGORIA}))
 @Entity
 public class DiaComida {
 
@@ -31,7 +33,8 @@ public class DiaComida {
      * Identificador único del día-comida.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dia_comida_seq")
+    @SequenceGenerator(name = "dia_comida_seq", sequenceName = BBDD.Secuencias.DIA_COMIDA, allocationSize = Numeros.CINCUENTA)
     private Long id;
 
     /**
@@ -1,8 +1,12 @@
 package es.superlista.domain.entity.menu_semanal;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import es.superlista.domain.converter.CategoriasComidaConverter;
+import es.superlista.domain.converter.CuadriculaRecetasConverter;
 import es.superlista.domain.entity.Usuario;
+import es.superlista.domain.enumeration.CategoriaComida;
 import es.superlista.utils.BBDD;
+import es.superlista.utils.Numeros;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -10,10 +14,12 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Entidad que representa un menú semanal.
  * Contiene la lista de días con sus respectivas comidas y la relación con el usuario propietario.
+ * Las celdas se guardan de forma dispersa: solo existen las que tienen o han tenido alguna receta.
  */
 @Getter
 @Setter
@@ -27,11 +33,12 @@ public class MenuSemanal {
      * Identificador único del menú semanal.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menu_semanal_seq")
+    @SequenceGenerator(name = "menu_semanal_seq", sequenceName = BBDD.Secuencias.MENU_SEMANAL, allocationSize = Numeros.CINCUENTA)
     private Long id;
 
     /**
-     * Lista de días con sus respectivas comidas que componen el menú semanal.
+     * Celdas guardadas (día y categoría con alguna receta) que componen el menú semanal.
      */
     @OneToMany(mappedBy = "menuSemanal", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
@@ -44,5 +51,21 @@ public class MenuSemanal {
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
 
+    /**
+     * Categorías de comida que forman el menú (si es nulo, todas).
+     */
+    @Convert(converter = CategoriasComidaConverter.class)
+    @Column(name = BBDD.Columnas.CATEGORIAS, length = Numeros.CIEN)
+    private Set<CategoriaComida> categorias;
+
+    /**
+     * Cuadrícula de recetas guardada como documento en una sola columna. Solo se usa en el modo de
+     * almacenamiento {@code documento}; en el modo relacional las recetas están en las celdas {@link #diasComidas}.
+     */
+    @Lob
+    @Convert(converter = CuadriculaRecetasConverter.class)
+    @Column(name = BBDD.Columnas.CUADRICULA)
+    private CuadriculaRecetas cuadricula;
+
 
 }
@@ -0,0 +1,48 @@
+package es.superlista.domain.enumeration;
+
+import lombok.Getter;
+
+/**
+ * Enumeración que representa los estados posibles de un trabajo asíncrono,
+ * como la generación en segundo plano de una lista de la compra.
+ */
+@Getter
+public enum EstadoTrabajo {
+
+    /**
+     * El trabajo está en cola, a la espera de un hilo libre.
+     */
+    PENDIENTE(0, "PENDIENTE"),
+    /**
+     * El trabajo se está ejecutando.
+     */
+    EN_CURSO(1, "EN CURSO"),
+    /**
+     * El trabajo terminó correctamente y su resultado está disponible.
+     */
+    COMPLETADO(2, "COMPLETADO"),
+    /**
+     * El trabajo terminó con un error.
+     */
+    ERROR(3, "ERROR");
+
+    /**
+     * Identificador numérico del estado.
+     */
+    private final int id;
+    /**
+     * Descripción textual del estado.
+     */
+    private final String descripcion;
+
+    /**
+     * Constructor del enum.
+     *
+     * @param id          identificador numérico
+     * @param descripcion descripción textual del estado
+     */
+    EstadoTrabajo(int id, String descripcion) {
+        this.id = id;
+        this.descripcion = descripcion;
+    }
+}
@@ -0,0 +1,48 @@
+package es.superlista.domain.enumeration;
+
+import lombok.Getter;
+
+/**
+ * Enumeración que representa las operaciones parciales que se pueden aplicar sobre las celdas
+ * de un menú semanal sin enviar la cuadrícula completa.
+ */
+@Getter
+public enum TipoOperacionMenu {
+
+    /**
+     * Añade una receta a una celda.
+     */
+    AGREGAR(0, "AGREGAR"),
+    /**
+     * Quita una receta de una celda.
+     */
+    QUITAR(1, "QUITAR"),
+    /**
+     * Mueve una receta de una celda a otra.
+     */
+    MOVER(2, "MOVER"),
+    /**
+     * Quita todas las recetas de una celda.
+     */
+    VACIAR(3, "VACIAR");
+
+    /**
+     * Identificador numérico de la operación.
+     */
+    private final int id;
+    /**
+     * Descripción textual de la operación.
+     */
+    private final String descripcion;
+
+    /**
+     * Constructor del enum.
+     *
+     * @param id          identificador numérico
+     * @param descripcion descripción textual de la operación
+     */
+    TipoOperacionMenu(int id, String descripcion) {
+        this.id = id;
+        this.descripcion = descripcion;
+    }
+}
@@ -0,0 +1,39 @@
+package es.superlista.domain.enumeration;
+
+import lombok.Getter;
+
+/**
+ * Enumeración que representa el tipo de elemento sugerido por el autocompletado.
+ */
+@Getter
+public enum TipoSugerencia {
+
+    /**
+     * La sugerencia es una receta.
+     */
+    RECETA(0, "RECETA"),
+    /**
+     * La sugerencia es un ingrediente.
+     */
+    INGREDIENTE(1, "INGREDIENTE");
+
+    /**
+     * Identificador numérico del tipo.
+     */
+    private final int id;
+    /**
+     * Descripción textual del tipo.
+     */
+    private final String descripcion;
+
+    /**
+     * Constructor del enum.
+     *
+     * @param id          identificador numérico
+     * @param descripcion descripción textual del tipo
+     */
+    TipoSugerencia(int id, String descripcion) {
+        this.id = id;
+        this.descripcion = descripcion;
+    }
+}
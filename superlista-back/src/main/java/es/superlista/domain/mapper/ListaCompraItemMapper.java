@@ -0,0 +1,36 @@
+package es.superlista.domain.mapper;
+
+import es.superlista.domain.dto.ListaCompraItemDto;
+import es.superlista.domain.entity.ListaCompraItem;
+import org.mapstruct.*;
+
+/**
+ * Mapper MapStruct para convertir entre la entidad {@link ListaCompraItem} y su DTO {@link ListaCompraItemDto}.
+ * Aplana el ingrediente del ítem junto con su estado de compra y su posición.
+ */
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING)
+public interface ListaCompraItemMapper {
+
+    /**
+     * Convierte una entidad {@link ListaCompraItem} a su representación DTO.
+     *
+     * @param item entidad a convertir
+     * @return el DTO resultante
+     */
+    @Mapping(source = "ingrediente.id", target = "id")
+    @Mapping(source = "ingrediente.nombre", target = "nombre")
+    @Mapping(source = "ingrediente.categoria", target = "categoria")
+    ListaCompraItemDto toDto(ListaCompraItem item);
+
+    /**
+     * Convierte un DTO {@link ListaCompraItemDto} a su entidad correspondiente.
+     *
+     * @param itemDto DTO a convertir
+     * @return la entidad resultante
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(source = "id", target = "ingrediente.id")
+    @Mapping(source = "nombre", target = "ingrediente.nombre")
+    @Mapping(source = "categoria", target = "ingrediente.categoria")
+    ListaCompraItem toEntity(ListaCompraItemDto itemDto);
+}
@@ -8,7 +8,7 @@ import org.mapstruct.*;
  * Mapper MapStruct para convertir entre la entidad {@link ListaCompra} y su DTO {@link ListaCompraDto}.
  * Permite mapear datos entre las capas de persistencia y transferencia de la aplicación.
  */
-@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING)
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING, uses = ListaCompraItemMapper.class)
 public interface ListaCompraMapper {
     /**
      * Convierte una entidad {@link ListaCompra} a su representación DTO.
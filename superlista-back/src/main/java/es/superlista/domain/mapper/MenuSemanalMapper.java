@@ -2,6 +2,7 @@ package es.superlista.domain.mapper;
 
 import es.superlista.domain.dto.MenuSemanalDto;
 import es.superlista.domain.entity.menu_semanal.MenuSemanal;
+import es.superlista.utils.CuadriculaMenu;
 import org.mapstruct.*;
 
 /**
@@ -21,6 +22,17 @@ public interface MenuSemanalMapper {
     @Mapping(source = "usuario.id", target = "usuarioId")
     MenuSemanalDto toDto(MenuSemanal menuSemanal);
 
+    /**
+     * Completa la cuadrícula del DTO: el menú solo guarda las celdas con recetas,
+     * pero los clientes reciben una celda por cada día y categoría del menú.
+     *
+     * @param menuSemanalDto DTO resultante del mapeo
+     */
+    @AfterMapping
+    default void completarCuadricula(@MappingTarget MenuSemanalDto menuSemanalDto) {
+        menuSemanalDto.setDiasComidas(CuadriculaMenu.completar(menuSemanalDto.getDiasComidas(), menuSemanalDto.getCategorias()));
+    }
+
     /**
      * Convierte un DTO {@link MenuSemanalDto} a su entidad correspondiente.
      *
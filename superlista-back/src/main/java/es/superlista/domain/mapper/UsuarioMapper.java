@@ -8,7 +8,7 @@ import org.mapstruct.*;
  * Mapper MapStruct para convertir entre la entidad {@link Usuario} y su DTO {@link UsuarioDto}.
  * Permite mapear datos entre las capas de persistencia y transferencia de la aplicación.
  */
-@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING)
+@Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING, uses = ListaCompraMapper.class)
 public interface UsuarioMapper {
 
     /**
@@ -0,0 +1,13 @@
+package es.superlista.domain.projection;
+
+/**
+ * Proyección de una asignación de receta a una celda de un menú semanal que incluye el menú al que pertenece,
+ * utilizada para procesar varios menús en una sola consulta.
+ */
+public interface AsignacionMenuReceta extends AsignacionReceta {
+
+    /**
+     * @return identificador del menú semanal
+     */
+    Long getMenuId();
+}
@@ -0,0 +1,26 @@
+package es.superlista.domain.projection;
+
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+
+/**
+ * Proyección de una asignación de receta a una celda (día y categoría de comida) de un menú semanal,
+ * utilizada para operar sobre identificadores sin hidratar las entidades.
+ */
+public interface AsignacionReceta {
+
+    /**
+     * @return día de la semana de la celda
+     */
+    DiaSemana getDia();
+
+    /**
+     * @return categoría de comida de la celda
+     */
+    CategoriaComida getCategoria();
+
+    /**
+     * @return identificador de la receta asignada
+     */
+    Long getRecetaId();
+}
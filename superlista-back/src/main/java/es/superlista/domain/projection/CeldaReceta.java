@@ -0,0 +1,18 @@
+package es.superlista.domain.projection;
+
+/**
+ * Proyección de una asignación de receta a una celda de un menú semanal con los datos necesarios
+ * para presentar el menú (celda y nombre de la receta), sin hidratar las entidades.
+ */
+public interface CeldaReceta extends AsignacionMenuReceta {
+
+    /**
+     * @return identificador de la celda
+     */
+    Long getCeldaId();
+
+    /**
+     * @return nombre de la receta asignada
+     */
+    String getRecetaNombre();
+}
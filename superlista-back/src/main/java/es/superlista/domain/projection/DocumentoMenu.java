@@ -0,0 +1,15 @@
+package es.superlista.domain.projection;
+
+import es.superlista.domain.entity.menu_semanal.CuadriculaRecetas;
+
+/**
+ * Proyección de un menú semanal guardado como documento: sus datos propios y su cuadrícula de recetas,
+ * leídos de una sola fila de MENU_SEMANAL.
+ */
+public interface DocumentoMenu extends ResumenMenu {
+
+    /**
+     * @return cuadrícula de recetas del menú (puede ser nula si no tiene ninguna)
+     */
+    CuadriculaRecetas getCuadricula();
+}
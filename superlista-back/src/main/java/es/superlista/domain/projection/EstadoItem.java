@@ -0,0 +1,18 @@
+package es.superlista.domain.projection;
+
+/**
+ * Proyección del estado de compra de un ingrediente dentro de una lista de la compra,
+ * utilizada para operar sobre identificadores sin hidratar las entidades.
+ */
+public interface EstadoItem {
+
+    /**
+     * @return identificador del ingrediente
+     */
+    Long getIngredienteId();
+
+    /**
+     * @return true si el ingrediente ya se ha comprado
+     */
+    Boolean getComprado();
+}
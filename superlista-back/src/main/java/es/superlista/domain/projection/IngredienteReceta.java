@@ -0,0 +1,20 @@
+package es.superlista.domain.projection;
+
+import es.superlista.domain.enumeration.CategoriaIngrediente;
+
+/**
+ * Proyección de un ingrediente de una receta con sus datos de presentación,
+ * utilizada para completar las recetas de un menú sin hidratar las entidades.
+ */
+public interface IngredienteReceta extends RecetaIngrediente {
+
+    /**
+     * @return nombre del ingrediente
+     */
+    String getNombre();
+
+    /**
+     * @return categoría del ingrediente
+     */
+    CategoriaIngrediente getCategoria();
+}
@@ -0,0 +1,42 @@
+package es.superlista.domain.projection;
+
+import es.superlista.domain.converter.CategoriasComidaConverter;
+import es.superlista.domain.enumeration.CategoriaComida;
+
+import java.util.Set;
+
+/**
+ * Proyección con los datos de un menú semanal que necesita una edición de su cuadrícula, leídos en la misma
+ * consulta que bloquea su fila: el propietario, las categorías y si tiene listas de la compra vinculadas.
+ */
+public interface MenuBloqueado {
+
+    /**
+     * @return identificador del usuario propietario
+     */
+    Long getUsuarioId();
+
+    /**
+     * @return categorías de comida del menú tal como se guardan en su columna (nulo si incluye todas)
+     */
+    String getCategorias();
+
+    /**
+     * @return número de listas de la compra vinculadas al menú
+     */
+    Long getListasVinculadas();
+
+    /**
+     * @return categorías de comida del menú (nulo si incluye todas)
+     */
+    default Set<CategoriaComida> categorias() {
+        return new CategoriasComidaConverter().convertToEntityAttribute(getCategorias());
+    }
+
+    /**
+     * @return {@code true} si el menú tiene alguna lista de la compra vinculada
+     */
+    default boolean isVinculado() {
+        return getListasVinculadas() > 0;
+    }
+}
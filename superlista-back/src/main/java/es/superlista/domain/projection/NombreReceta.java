@@ -0,0 +1,18 @@
+package es.superlista.domain.projection;
+
+/**
+ * Proyección con el identificador y el nombre de una receta, utilizada para presentar
+ * las recetas de un menú sin hidratar las entidades.
+ */
+public interface NombreReceta {
+
+    /**
+     * @return identificador de la receta
+     */
+    Long getId();
+
+    /**
+     * @return nombre de la receta
+     */
+    String getNombre();
+}
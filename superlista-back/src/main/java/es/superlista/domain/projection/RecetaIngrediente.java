@@ -0,0 +1,18 @@
+package es.superlista.domain.projection;
+
+/**
+ * Proyección de una fila de la relación RECETA_INGREDIENTES (par receta–ingrediente),
+ * utilizada para operar sobre identificadores sin hidratar las entidades.
+ */
+public interface RecetaIngrediente {
+
+    /**
+     * @return identificador de la receta
+     */
+    Long getRecetaId();
+
+    /**
+     * @return identificador del ingrediente
+     */
+    Long getIngredienteId();
+}
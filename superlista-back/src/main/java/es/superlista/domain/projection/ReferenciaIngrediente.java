@@ -0,0 +1,18 @@
+package es.superlista.domain.projection;
+
+/**
+ * Proyección con el número de referencias de un ingrediente dentro de un menú semanal,
+ * es decir, cuántas asignaciones de receta a celda del menú utilizan dicho ingrediente.
+ */
+public interface ReferenciaIngrediente {
+
+    /**
+     * @return identificador del ingrediente
+     */
+    Long getIngredienteId();
+
+    /**
+     * @return número de referencias del ingrediente en el menú
+     */
+    Long getReferencias();
+}
@@ -0,0 +1,21 @@
+package es.superlista.domain.projection;
+
+import es.superlista.domain.enumeration.CategoriaComida;
+
+import java.util.Set;
+
+/**
+ * Proyección con los datos propios de un menú semanal, sin sus celdas.
+ */
+public interface ResumenMenu {
+
+    /**
+     * @return identificador del menú semanal
+     */
+    Long getId();
+
+    /**
+     * @return categorías de comida del menú (nulo si incluye todas)
+     */
+    Set<CategoriaComida> getCategorias();
+}
@@ -1,19 +1,220 @@
 package es.superlista.domain.repository;
 
 import es.superlista.domain.entity.menu_semanal.DiaComida;
-import es.superlista.domain.entity.menu_semanal.MenuSemanal;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.projection.AsignacionMenuReceta;
+import es.superlista.domain.projection.AsignacionReceta;
+import es.superlista.domain.projection.CeldaReceta;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repositorio JPA para la entidad {@link DiaComida}.
- * Proporciona operaciones CRUD y una operación personalizada para eliminar registros asociados a un menú semanal.
+ * Proporciona operaciones CRUD y consultas sobre las celdas de los menús semanales.
  */
 public interface DiaComidaRepository extends JpaRepository<DiaComida, Long> {
 
     /**
-     * Elimina todos los registros de {@link DiaComida} asociados a un {@link MenuSemanal} específico.
+     * Obtiene las celdas guardadas de un menú semanal junto con sus recetas en una sola consulta.
+     *
+     * @param menuId identificador del menú semanal
+     * @return celdas del menú con sus recetas inicializadas
+     */
+    @Query("select distinct d from DiaComida d left join fetch d.recetas where d.menuSemanal.id = ?1")
+    List<DiaComida> findAllConRecetasByMenuSemanalId(Long menuId);
+
+    /**
+     * Añade una receta a la celda (menú, día, categoría) con una única sentencia que localiza la celda
+     * por su índice único, sin cargar el menú ni sus celdas.
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       nombre del día de la semana
+     * @param categoria nombre de la categoría de comida
+     * @param recetaId  identificador de la receta
+     * @return número de filas insertadas (0 si la celda todavía no existe)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into dia_comida_recetas (dia_comida_id, receta_id) " +
+            "select d.id, ?4 from dia_comida d where d.menu_semanal_id = ?1 and d.dia = ?2 and d.categoria = ?3",
+            nativeQuery = true)
+    int insertRecetaEnCelda(Long menuId, String dia, String categoria, Long recetaId);
+
+    /**
+     * Quita una única aparición de una receta de la celda (menú, día, categoría).
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       nombre del día de la semana
+     * @param categoria nombre de la categoría de comida
+     * @param recetaId  identificador de la receta
+     * @return número de filas eliminadas (0 si la receta no estaba en la celda)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from dia_comida_recetas where receta_id = ?4 and dia_comida_id = " +
+            "(select d.id from dia_comida d where d.menu_semanal_id = ?1 and d.dia = ?2 and d.categoria = ?3) limit 1",
+            nativeQuery = true)
+    int deleteRecetaDeCelda(Long menuId, String dia, String categoria, Long recetaId);
+
+    /**
+     * Obtiene los identificadores de las recetas asignadas a la celda (menú, día, categoría).
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @return identificadores de las recetas de la celda, uno por asignación
+     */
+    @Query("select r.id from DiaComida d join d.recetas r " +
+            "where d.menuSemanal.id = ?1 and d.dia = ?2 and d.categoria = ?3")
+    List<Long> findRecetaIdsByCelda(Long menuId, DiaSemana dia, CategoriaComida categoria);
+
+    /**
+     * Quita todas las recetas de la celda (menú, día, categoría).
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       nombre del día de la semana
+     * @param categoria nombre de la categoría de comida
+     * @return número de filas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from dia_comida_recetas where dia_comida_id = " +
+            "(select d.id from dia_comida d where d.menu_semanal_id = ?1 and d.dia = ?2 and d.categoria = ?3)",
+            nativeQuery = true)
+    int deleteRecetasDeCelda(Long menuId, String dia, String categoria);
+
+    /**
+     * Elimina la celda (menú, día, categoría), que debe estar ya vacía.
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @return número de celdas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from DiaComida d where d.menuSemanal.id = ?1 and d.dia = ?2 and d.categoria = ?3")
+    int deleteCelda(Long menuId, DiaSemana dia, CategoriaComida categoria);
+
+    /**
+     * Elimina la celda (menú, día, categoría) solo si ya no tiene recetas, para no dejar filas vacías
+     * en DIA_COMIDA tras quitar su última receta.
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       nombre del día de la semana
+     * @param categoria nombre de la categoría de comida
+     * @return número de celdas eliminadas (0 si la celda aún tiene recetas)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from dia_comida where menu_semanal_id = ?1 and dia = ?2 and categoria = ?3 " +
+            "and not exists (select 1 from dia_comida_recetas r where r.dia_comida_id = dia_comida.id)",
+            nativeQuery = true)
+    int deleteCeldaSiVacia(Long menuId, String dia, String categoria);
+
+    /**
+     * Obtiene las asignaciones de receta a celda de un menú semanal como tuplas (día, categoría, receta),
+     * sin cargar las celdas ni las recetas.
+     *
+     * @param menuId identificador del menú semanal
+     * @return asignaciones del menú
+     */
+    @Query("select d.dia as dia, d.categoria as categoria, r.id as recetaId " +
+            "from DiaComida d join d.recetas r where d.menuSemanal.id = ?1")
+    List<AsignacionReceta> findAsignacionesByMenuSemanalId(Long menuId);
+
+    /**
+     * Obtiene en una sola consulta las asignaciones de receta a celda de varios menús semanales
+     * como tuplas (menú, día, categoría, receta).
+     *
+     * @param menuIds identificadores de los menús semanales
+     * @return asignaciones de los menús
+     */
+    @Query("select d.menuSemanal.id as menuId, d.dia as dia, d.categoria as categoria, r.id as recetaId " +
+            "from DiaComida d join d.recetas r where d.menuSemanal.id in ?1")
+    List<AsignacionMenuReceta> findAsignacionesByMenuSemanalIdIn(Collection<Long> menuIds);
+
+    /**
+     * Obtiene en una sola consulta las asignaciones de receta a celda de todos los menús de un usuario
+     * como tuplas (menú, celda, día, categoría, receta, nombre de la receta).
+     *
+     * @param usuarioId identificador del usuario
+     * @return asignaciones de los menús del usuario
+     */
+    @Query("select d.menuSemanal.id as menuId, d.id as celdaId, d.dia as dia, d.categoria as categoria, " +
+            "r.id as recetaId, r.nombre as recetaNombre " +
+            "from DiaComida d join d.recetas r where d.menuSemanal.usuario.id = ?1")
+    List<CeldaReceta> findCeldasRecetaByUsuarioId(Long usuarioId);
+
+    /**
+     * Obtiene en una sola consulta las asignaciones de receta a celda de varios menús semanales
+     * como tuplas (menú, celda, día, categoría, receta, nombre de la receta).
+     *
+     * @param menuIds identificadores de los menús semanales
+     * @return asignaciones de los menús
+     */
+    @Query("select d.menuSemanal.id as menuId, d.id as celdaId, d.dia as dia, d.categoria as categoria, " +
+            "r.id as recetaId, r.nombre as recetaNombre " +
+            "from DiaComida d join d.recetas r where d.menuSemanal.id in ?1")
+    List<CeldaReceta> findCeldasRecetaByMenuSemanalIdIn(Collection<Long> menuIds);
+
+    /**
+     * Obtiene los menús con alguna lista de la compra vinculada en cuyas celdas aparece alguna de las recetas
+     * indicadas.
+     *
+     * @param recetaIds identificadores de las recetas
+     * @return identificadores de los menús, sin repetir
+     */
+    @Query("select distinct d.menuSemanal.id from DiaComida d join d.recetas r where r.id in ?1 " +
+            "and exists (select 1 from ListaCompra l where l.menuSemanal = d.menuSemanal)")
+    List<Long> findMenuIdsVinculadosByRecetaIdIn(Collection<Long> recetaIds);
+
+    /**
+     * Cuenta las celdas guardadas de un menú semanal.
+     *
+     * @param menuId identificador del menú semanal
+     * @return número de celdas del menú
+     */
+    long countByMenuSemanalId(Long menuId);
+
+    /**
+     * Copia en una única sentencia las celdas de un menú a otro, asignándoles identificadores consecutivos
+     * a partir del primero de un bloque ya reservado.
+     *
+     * @param origenId  identificador del menú de origen
+     * @param destinoId identificador del menú de destino
+     * @param primerId  primer identificador del bloque reservado para las celdas
+     * @return número de celdas copiadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into dia_comida (id, dia, categoria, menu_semanal_id) " +
+            "select ?3 - 1 + row_number() over (order by d.id), d.dia, d.categoria, ?2 " +
+            "from dia_comida d where d.menu_semanal_id = ?1",
+            nativeQuery = true)
+    int clonarCeldas(Long origenId, Long destinoId, Long primerId);
+
+    /**
+     * Copia en una única sentencia las recetas de las celdas de un menú a las celdas equivalentes
+     * (mismo día y categoría) de otro.
      *
-     * @param menu el menú semanal cuyas entradas se deben eliminar
+     * @param origenId  identificador del menú de origen
+     * @param destinoId identificador del menú de destino
+     * @return número de asignaciones copiadas
      */
-    void deleteByMenuSemanal(MenuSemanal menu);
+    @Transactional
+    @Modifying
+    @Query(value = "insert into dia_comida_recetas (dia_comida_id, receta_id) " +
+            "select n.id, r.receta_id from dia_comida o " +
+            "join dia_comida_recetas r on r.dia_comida_id = o.id " +
+            "join dia_comida n on n.menu_semanal_id = ?2 and n.dia = o.dia and n.categoria = o.categoria " +
+            "where o.menu_semanal_id = ?1",
+            nativeQuery = true)
+    int clonarRecetas(Long origenId, Long destinoId);
 }
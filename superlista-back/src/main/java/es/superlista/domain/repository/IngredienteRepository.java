@@ -2,11 +2,14 @@ package es.superlista.domain.repository;
 
 import es.superlista.domain.entity.Ingrediente;
 import es.superlista.domain.enumeration.CategoriaIngrediente;
+import es.superlista.domain.projection.IngredienteReceta;
+import es.superlista.domain.projection.ReferenciaIngrediente;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +47,17 @@ public interface IngredienteRepository extends JpaRepository<Ingrediente, Long>
      */
     Optional<Ingrediente> findByNombreIgnoreCase(String nombre);
 
+    /**
+     * Busca en una sola consulta los ingredientes cuyo nombre está en la colección indicada, sin distinguir
+     * mayúsculas. La columna se compara sin funciones para que la consulta use el índice único de NOMBRE:
+     * la intercalación por defecto de MySQL ya no distingue mayúsculas, y la normalización se hace en Java.
+     *
+     * @param nombres nombres de los ingredientes ya pasados a minúsculas
+     * @return ingredientes encontrados
+     */
+    @Query("select i from Ingrediente i where i.nombre in ?1")
+    List<Ingrediente> findByNombreMinusculasIn(Collection<String> nombres);
+
     /**
      * Verifica si existe un ingrediente con el nombre exacto (ignorando mayúsculas/minúsculas).
      *
@@ -51,4 +65,45 @@ public interface IngredienteRepository extends JpaRepository<Ingrediente, Long>
      * @return true si existe, false en caso contrario
      */
     boolean existsByNombreEqualsIgnoreCase(String nombre);
+
+    /**
+     * Obtiene, en una única consulta, el conjunto de ingredientes distintos usados por las recetas
+     * asignadas a cualquier celda de un menú semanal (DIA_COMIDA → DIA_COMIDA_RECETAS → RECETA_INGREDIENTES).
+     *
+     * @param menuId identificador del menú semanal
+     * @return lista de ingredientes sin repetir del menú
+     */
+    @Query("select distinct i from DiaComida d join d.recetas r join r.ingredientes i where d.menuSemanal.id = ?1")
+    List<Ingrediente> findDistinctByMenuSemanalId(Long menuId);
+
+    /**
+     * Obtiene, en una única consulta, el conjunto de ingredientes distintos usados por las recetas
+     * asignadas a cualquier celda de varios menús semanales.
+     *
+     * @param menuIds identificadores de los menús semanales
+     * @return lista de ingredientes sin repetir de todos los menús
+     */
+    @Query("select distinct i from DiaComida d join d.recetas r join r.ingredientes i where d.menuSemanal.id in ?1")
+    List<Ingrediente> findDistinctByMenuSemanalIdIn(Collection<Long> menuIds);
+
+    /**
+     * Cuenta, para cada ingrediente de un menú semanal, cuántas asignaciones de receta a celda lo utilizan.
+     *
+     * @param menuId identificador del menú semanal
+     * @return número de referencias por ingrediente
+     */
+    @Query("select i.id as ingredienteId, count(i) as referencias from DiaComida d join d.recetas r join r.ingredientes i " +
+            "where d.menuSemanal.id = ?1 group by i.id")
+    List<ReferenciaIngrediente> countReferenciasByMenuSemanalId(Long menuId);
+
+    /**
+     * Obtiene en una sola consulta los ingredientes de un conjunto de recetas como tuplas
+     * (receta, ingrediente, nombre, categoría).
+     *
+     * @param recetaIds identificadores de las recetas
+     * @return ingredientes de las recetas
+     */
+    @Query("select r.id as recetaId, i.id as ingredienteId, i.nombre as nombre, i.categoria as categoria " +
+            "from Receta r join r.ingredientes i where r.id in ?1")
+    List<IngredienteReceta> findIngredientesByRecetaIdIn(Collection<Long> recetaIds);
 }
@@ -0,0 +1,123 @@
+package es.superlista.domain.repository;
+
+import es.superlista.domain.entity.ListaCompraItem;
+import es.superlista.domain.entity.ListaCompraItemId;
+import es.superlista.domain.projection.EstadoItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad {@link ListaCompraItem}.
+ * Proporciona operaciones sobre los ingredientes de las listas de compra y su estado de compra.
+ */
+public interface ListaCompraItemRepository extends JpaRepository<ListaCompraItem, ListaCompraItemId> {
+
+    /**
+     * Obtiene los ítems de una lista de la compra, junto con su ingrediente, ordenados por posición.
+     *
+     * @param listaId identificador de la lista de compra
+     * @return ítems de la lista
+     */
+    @Query("select i from ListaCompraItem i join fetch i.ingrediente where i.listaCompra.id = ?1 order by i.posicion")
+    List<ListaCompraItem> findAllByListaCompraId(Long listaId);
+
+    /**
+     * Obtiene en una única consulta los ítems de varias listas, junto con su ingrediente.
+     *
+     * @param listaIds identificadores de las listas de compra
+     * @return ítems de las listas, ordenados por lista y posición
+     */
+    @Query("select i from ListaCompraItem i join fetch i.ingrediente where i.listaCompra.id in ?1 " +
+            "order by i.listaCompra.id, i.posicion")
+    List<ListaCompraItem> findAllByListaCompraIdIn(Collection<Long> listaIds);
+
+    /**
+     * Obtiene en una única consulta los ítems de todas las listas de un usuario, junto con su ingrediente.
+     *
+     * @param usuarioId identificador del usuario
+     * @return ítems de las listas del usuario, agrupables por lista
+     */
+    @Query("select i from ListaCompraItem i join fetch i.ingrediente where i.listaCompra.usuario.id = ?1 " +
+            "order by i.listaCompra.id, i.posicion")
+    List<ListaCompraItem> findAllByUsuarioId(Long usuarioId);
+
+    /**
+     * Obtiene el estado de compra de todos los ingredientes de una lista sin cargar las entidades.
+     *
+     * @param listaId identificador de la lista de compra
+     * @return estado de compra por ingrediente
+     */
+    @Query("select i.id.ingredienteId as ingredienteId, i.comprado as comprado from ListaCompraItem i " +
+            "where i.id.listaCompraId = ?1")
+    List<EstadoItem> findEstadosByListaCompraId(Long listaId);
+
+    /**
+     * Inserta en la lista, con una única sentencia, los ingredientes indicados que aún no formen parte de ella.
+     * Los nuevos ítems se añaden al final de la lista como pendientes de comprar y los identificadores
+     * que no correspondan a ningún ingrediente se ignoran.
+     *
+     * @param listaId        identificador de la lista de compra
+     * @param ingredienteIds identificadores de los ingredientes a añadir
+     * @return número de filas insertadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into lista_compra_ingredientes (lista_compra_id, ingrediente_id, comprado, posicion) " +
+            "select ?1, i.id, false, " +
+            "(select coalesce(max(p.posicion), -1) from lista_compra_ingredientes p where p.lista_compra_id = ?1) " +
+            "+ row_number() over (order by i.id) " +
+            "from ingrediente i where i.id in ?2 and not exists " +
+            "(select 1 from lista_compra_ingredientes l where l.lista_compra_id = ?1 and l.ingrediente_id = i.id)",
+            nativeQuery = true)
+    int insertItemsAusentes(Long listaId, Collection<Long> ingredienteIds);
+
+    /**
+     * Elimina de la lista, con una única sentencia, los ingredientes indicados.
+     *
+     * @param listaId        identificador de la lista de compra
+     * @param ingredienteIds identificadores de los ingredientes a quitar
+     * @return número de filas eliminadas
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ListaCompraItem i where i.id.listaCompraId = ?1 and i.id.ingredienteId in ?2")
+    int deleteItems(Long listaId, Collection<Long> ingredienteIds);
+
+    /**
+     * Alterna el estado de compra de un ítem con una única actualización por clave primaria,
+     * siempre que la lista pertenezca al usuario indicado.
+     *
+     * @param listaId       identificador de la lista de compra
+     * @param ingredienteId identificador del ingrediente
+     * @param usuarioId     identificador del usuario propietario
+     * @return número de filas actualizadas (0 si el ítem no existe o la lista no es del usuario)
+     */
+    @Transactional
+    @Modifying
+    @Query("update ListaCompraItem i set i.comprado = case when i.comprado = true then false else true end " +
+            "where i.id.listaCompraId = ?1 and i.id.ingredienteId = ?2 " +
+            "and exists (select 1 from ListaCompra l where l.id = ?1 and l.usuario.id = ?3)")
+    int alternarComprado(Long listaId, Long ingredienteId, Long usuarioId);
+
+    /**
+     * Fija el estado de compra de un ítem con una única actualización por clave primaria,
+     * siempre que la lista pertenezca al usuario indicado.
+     *
+     * @param listaId       identificador de la lista de compra
+     * @param ingredienteId identificador del ingrediente
+     * @param usuarioId     identificador del usuario propietario
+     * @param comprado      nuevo estado de compra
+     * @return número de filas afectadas (0 si el ítem no existe o la lista no es del usuario)
+     */
+    @Transactional
+    @Modifying
+    @Query("update ListaCompraItem i set i.comprado = ?4 " +
+            "where i.id.listaCompraId = ?1 and i.id.ingredienteId = ?2 " +
+            "and exists (select 1 from ListaCompra l where l.id = ?1 and l.usuario.id = ?3)")
+    int marcarComprado(Long listaId, Long ingredienteId, Long usuarioId, boolean comprado);
+}
@@ -0,0 +1,45 @@
+package es.superlista.domain.repository;
+
+import es.superlista.domain.entity.ListaCompraReferencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad {@link ListaCompraReferencia}.
+ * Proporciona operaciones CRUD y consultas sobre los contadores de referencias de las listas vinculadas.
+ */
+public interface ListaCompraReferenciaRepository extends JpaRepository<ListaCompraReferencia, Long> {
+
+    /**
+     * Obtiene los contadores de un conjunto de listas restringidos a un conjunto de ingredientes.
+     *
+     * @param listaIds       identificadores de las listas de compra
+     * @param ingredienteIds identificadores de los ingredientes
+     * @return contadores encontrados
+     */
+    List<ListaCompraReferencia> findByListaCompraIdInAndIngredienteIdIn(Collection<Long> listaIds, Collection<Long> ingredienteIds);
+
+    /**
+     * Obtiene todos los contadores de una lista vinculada.
+     *
+     * @param listaId identificador de la lista de compra
+     * @return contadores de la lista
+     */
+    List<ListaCompraReferencia> findByListaCompraId(Long listaId);
+
+    /**
+     * Elimina los contadores de todas las listas vinculadas a un menú semanal.
+     *
+     * @param menuId identificador del menú semanal
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ListaCompraReferencia r where r.listaCompra.id in " +
+            "(select l.id from ListaCompra l where l.menuSemanal.id = ?1)")
+    void deleteByMenuSemanalId(Long menuId);
+}
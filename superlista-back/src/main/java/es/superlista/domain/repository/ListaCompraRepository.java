@@ -1,9 +1,15 @@
 package es.superlista.domain.repository;
 
 import es.superlista.domain.entity.ListaCompra;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio JPA para la entidad {@link ListaCompra}.
@@ -18,4 +24,52 @@ public interface ListaCompraRepository extends JpaRepository<ListaCompra, Long>
      * @return lista de {@link ListaCompra} pertenecientes al usuario
      */
     List<ListaCompra> findAllByUsuarioId(Long usuarioId);
+
+    /**
+     * Obtiene el identificador del usuario propietario de una lista sin cargar la entidad ni sus ingredientes.
+     *
+     * @param listaId identificador de la lista de compra
+     * @return identificador del propietario (si la lista existe)
+     */
+    @Query("select l.usuario.id from ListaCompra l where l.id = ?1")
+    Optional<Long> findUsuarioIdById(Long listaId);
+
+    /**
+     * Obtiene todas las listas de compra vinculadas a un menú semanal.
+     *
+     * @param menuId identificador del menú semanal
+     * @return listas vinculadas al menú
+     */
+    List<ListaCompra> findAllByMenuSemanalId(Long menuId);
+
+    /**
+     * Obtiene todas las listas de compra vinculadas a alguno de los menús semanales indicados.
+     *
+     * @param menuIds identificadores de los menús semanales
+     * @return listas vinculadas a los menús
+     */
+    List<ListaCompra> findAllByMenuSemanalIdIn(Collection<Long> menuIds);
+
+    /**
+     * Desvincula del menú semanal indicado todas las listas de compra que lo referencian.
+     * Las listas conservan sus ingredientes y pasan a ser listas independientes.
+     *
+     * @param menuId identificador del menú semanal
+     */
+    @Transactional
+    @Modifying
+    @Query("update ListaCompra l set l.menuSemanal = null where l.menuSemanal.id = ?1")
+    void desvincularMenu(Long menuId);
+
+    /**
+     * Obtiene, paginando por clave (keyset), los identificadores de las listas de un usuario
+     * en orden descendente.
+     *
+     * @param usuarioId identificador del usuario
+     * @param cursor    identificador a partir del cual se lee, sin incluirlo
+     * @param pageable  tamaño de la página (se usa siempre la primera página)
+     * @return identificadores de las listas de la página
+     */
+    @Query("select l.id from ListaCompra l where l.usuario.id = ?1 and l.id < ?2 order by l.id desc")
+    List<Long> findIdsByUsuarioIdAntesDe(Long usuarioId, Long cursor, Pageable pageable);
 }
@@ -1,8 +1,18 @@
 package es.superlista.domain.repository;
 
 import es.superlista.domain.entity.menu_semanal.MenuSemanal;
+import es.superlista.domain.projection.DocumentoMenu;
+import es.superlista.domain.projection.MenuBloqueado;
+import es.superlista.domain.projection.ResumenMenu;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +31,61 @@ public interface MenuSemanalRepository extends JpaRepository<MenuSemanal, Long>
      */
     Optional<MenuSemanal> findByIdAndUsuarioId(Long id, Long usuarioId);
 
+    /**
+     * Busca un menú semanal por su ID bloqueando su fila hasta el final de la transacción
+     * ({@code select ... for update}), para modificar su cuadrícula sin perder ediciones concurrentes.
+     *
+     * @param id identificador del menú semanal
+     * @return menú semanal encontrado (si existe)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from MenuSemanal m where m.id = ?1")
+    Optional<MenuSemanal> findByIdParaModificar(Long id);
+
+    /**
+     * Busca un menú semanal por su ID y el ID del usuario propietario bloqueando su fila hasta el final
+     * de la transacción, para modificar su cuadrícula sin perder ediciones concurrentes.
+     *
+     * @param id        identificador del menú semanal
+     * @param usuarioId identificador del usuario propietario
+     * @return menú semanal encontrado (si existe)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select m from MenuSemanal m where m.id = ?1 and m.usuario.id = ?2")
+    Optional<MenuSemanal> findByIdAndUsuarioIdParaModificar(Long id, Long usuarioId);
+
+    /**
+     * Bloquea la fila de un menú semanal hasta el final de la transacción y lee, en la misma sentencia,
+     * su propietario, sus categorías y el número de listas vinculadas, sin cargar la entidad. Permite añadir
+     * una receta a una celda con una sentencia más (la inserción) cuando el menú no tiene listas vinculadas.
+     *
+     * @param id identificador del menú semanal
+     * @return datos del menú bloqueado (si existe)
+     */
+    @Query(value = "select m.usuario_id as usuarioId, m.categorias as categorias, " +
+            "(select count(*) from lista_compra l where l.menu_semanal_id = m.id) as listasVinculadas " +
+            "from menu_semanal m where m.id = ?1 for update",
+            nativeQuery = true)
+    Optional<MenuBloqueado> bloquearMenu(Long id);
+
+    /**
+     * Comprueba si un menú semanal pertenece a un usuario, sin cargar el menú.
+     *
+     * @param id        identificador del menú semanal
+     * @param usuarioId identificador del usuario propietario
+     * @return {@code true} si el menú existe y pertenece al usuario
+     */
+    boolean existsByIdAndUsuarioId(Long id, Long usuarioId);
+
+    /**
+     * Obtiene el identificador del usuario propietario de un menú sin cargar la entidad.
+     *
+     * @param menuId identificador del menú semanal
+     * @return identificador del propietario (si el menú existe)
+     */
+    @Query("select m.usuario.id from MenuSemanal m where m.id = ?1")
+    Optional<Long> findUsuarioIdById(Long menuId);
+
     /**
      * Obtiene todos los menús semanales asociados a un usuario específico.
      *
@@ -28,4 +93,128 @@ public interface MenuSemanalRepository extends JpaRepository<MenuSemanal, Long>
      * @return lista de menús semanales del usuario
      */
     List<MenuSemanal> findByUsuarioId(Long usuarioId);
+
+    /**
+     * Cuenta cuántos de los menús indicados pertenecen a un usuario.
+     *
+     * @param ids       identificadores de los menús semanales
+     * @param usuarioId identificador del usuario propietario
+     * @return número de menús del usuario entre los indicados
+     */
+    long countByIdInAndUsuarioId(Collection<Long> ids, Long usuarioId);
+
+    /**
+     * Obtiene, paginando por clave (keyset), los identificadores de los menús activos, es decir,
+     * con al menos una receta asignada, posteriores al identificador indicado y en orden ascendente.
+     *
+     * @param ultimoId  último identificador ya procesado
+     * @param pageable  tamaño del bloque (se usa siempre la primera página)
+     * @return identificadores de los menús activos siguientes
+     */
+    @Query("select m.id from MenuSemanal m where m.id > ?1 and exists " +
+            "(select 1 from DiaComida d join d.recetas r where d.menuSemanal = m) order by m.id")
+    List<Long> findIdsActivosDespuesDe(Long ultimoId, Pageable pageable);
+
+    /**
+     * Obtiene los datos propios de los menús de un usuario como tuplas, sin cargar sus celdas.
+     *
+     * @param usuarioId identificador del usuario
+     * @return menús del usuario ordenados por identificador
+     */
+    @Query("select m.id as id, m.categorias as categorias from MenuSemanal m where m.usuario.id = ?1 order by m.id")
+    List<ResumenMenu> findResumenesByUsuarioId(Long usuarioId);
+
+    /**
+     * Obtiene, paginando por clave (keyset), los datos propios de los menús de un usuario en orden
+     * de identificador descendente, sin cargar sus celdas.
+     *
+     * @param usuarioId identificador del usuario
+     * @param cursor    identificador a partir del cual se lee, sin incluirlo
+     * @param pageable  tamaño de la página (se usa siempre la primera página)
+     * @return menús de la página
+     */
+    @Query("select m.id as id, m.categorias as categorias from MenuSemanal m " +
+            "where m.usuario.id = ?1 and m.id < ?2 order by m.id desc")
+    List<ResumenMenu> findResumenesByUsuarioIdAntesDe(Long usuarioId, Long cursor, Pageable pageable);
+
+    /**
+     * Inserta una copia de un menú del usuario con el identificador indicado, en una única sentencia.
+     * En el modo de almacenamiento documento la copia incluye ya toda su cuadrícula de recetas.
+     *
+     * @param nuevoId   identificador reservado para la copia
+     * @param origenId  identificador del menú a copiar
+     * @param usuarioId identificador del usuario propietario
+     * @return número de menús insertados (0 si el menú no existe o no pertenece al usuario)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into menu_semanal (id, usuario_id, categorias, cuadricula) " +
+            "select ?1, m.usuario_id, m.categorias, m.cuadricula from menu_semanal m where m.id = ?2 and m.usuario_id = ?3",
+            nativeQuery = true)
+    int clonarMenu(Long nuevoId, Long origenId, Long usuarioId);
+
+    /**
+     * Obtiene los menús de un usuario guardados como documento, cada uno en una sola fila.
+     *
+     * @param usuarioId identificador del usuario
+     * @return menús del usuario ordenados por identificador
+     */
+    @Query("select m.id as id, m.categorias as categorias, m.cuadricula as cuadricula from MenuSemanal m " +
+            "where m.usuario.id = ?1 order by m.id")
+    List<DocumentoMenu> findDocumentosByUsuarioId(Long usuarioId);
+
+    /**
+     * Obtiene, paginando por clave (keyset), los menús de un usuario guardados como documento
+     * en orden de identificador descendente.
+     *
+     * @param usuarioId identificador del usuario
+     * @param cursor    identificador a partir del cual se lee, sin incluirlo
+     * @param pageable  tamaño de la página (se usa siempre la primera página)
+     * @return menús de la página
+     */
+    @Query("select m.id as id, m.categorias as categorias, m.cuadricula as cuadricula from MenuSemanal m " +
+            "where m.usuario.id = ?1 and m.id < ?2 order by m.id desc")
+    List<DocumentoMenu> findDocumentosByUsuarioIdAntesDe(Long usuarioId, Long cursor, Pageable pageable);
+
+    /**
+     * Obtiene varios menús guardados como documento, cada uno en una sola fila.
+     *
+     * @param ids identificadores de los menús semanales
+     * @return menús encontrados
+     */
+    @Query("select m.id as id, m.categorias as categorias, m.cuadricula as cuadricula from MenuSemanal m " +
+            "where m.id in ?1")
+    List<DocumentoMenu> findDocumentosByIdIn(Collection<Long> ids);
+
+    /**
+     * Obtiene los menús guardados como documento que tienen alguna receta asignada y alguna lista
+     * de la compra vinculada.
+     *
+     * @return menús vinculados con su cuadrícula
+     */
+    @Query("select m.id as id, m.categorias as categorias, m.cuadricula as cuadricula from MenuSemanal m " +
+            "where m.cuadricula is not null and exists (select 1 from ListaCompra l where l.menuSemanal = m)")
+    List<DocumentoMenu> findDocumentosVinculados();
+
+    /**
+     * Obtiene, paginando por clave (keyset), los identificadores de los menús guardados como documento
+     * que tienen alguna receta asignada.
+     *
+     * @param ultimoId  último identificador procesado
+     * @param pageable  tamaño del bloque (se usa siempre la primera página)
+     * @return identificadores de los menús activos, en orden ascendente
+     */
+    @Query("select m.id from MenuSemanal m where m.id > ?1 and m.cuadricula is not null order by m.id")
+    List<Long> findIdsConCuadriculaDespuesDe(Long ultimoId, Pageable pageable);
+
+    /**
+     * Obtiene un menú del usuario guardado como documento, leyendo una sola fila.
+     *
+     * @param id        identificador del menú semanal
+     * @param usuarioId identificador del usuario propietario
+     * @return menú encontrado (si existe y pertenece al usuario)
+     */
+    @Query("select m.id as id, m.categorias as categorias, m.cuadricula as cuadricula from MenuSemanal m " +
+            "where m.id = ?1 and m.usuario.id = ?2")
+    Optional<DocumentoMenu> findDocumentoByIdAndUsuarioId(Long id, Long usuarioId);
 }
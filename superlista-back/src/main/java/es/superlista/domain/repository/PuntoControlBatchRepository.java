@@ -0,0 +1,11 @@
+package es.superlista.domain.repository;
+
+import es.superlista.domain.entity.PuntoControlBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositorio JPA para la entidad {@link PuntoControlBatch}.
+ * Proporciona operaciones CRUD sobre los puntos de control de los procesos por lotes.
+ */
+public interface PuntoControlBatchRepository extends JpaRepository<PuntoControlBatch, String> {
+}
@@ -2,11 +2,14 @@ package es.superlista.domain.repository;
 
 import es.superlista.domain.entity.Ingrediente;
 import es.superlista.domain.entity.Receta;
+import es.superlista.domain.projection.NombreReceta;
+import es.superlista.domain.projection.RecetaIngrediente;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -41,4 +44,58 @@ public interface RecetaRepository extends JpaRepository<Receta, Long> {
      * @return lista de recetas coincidentes
      */
     List<Receta> findByNombreContainsIgnoreCase(String nombre);
+
+    /**
+     * Obtiene los pares receta–ingrediente de un conjunto de recetas sin cargar las entidades.
+     *
+     * @param recetaIds identificadores de las recetas
+     * @return pares (receta, ingrediente) de la relación RECETA_INGREDIENTES
+     */
+    @Query("select r.id as recetaId, i.id as ingredienteId from Receta r join r.ingredientes i where r.id in ?1")
+    List<RecetaIngrediente> findIngredientesByRecetaIdIn(Collection<Long> recetaIds);
+
+    /**
+     * Obtiene el identificador y el nombre de un conjunto de recetas sin cargar las entidades.
+     *
+     * @param recetaIds identificadores de las recetas
+     * @return nombres de las recetas encontradas
+     */
+    @Query("select r.id as id, r.nombre as nombre from Receta r where r.id in ?1")
+    List<NombreReceta> findNombresByIdIn(Collection<Long> recetaIds);
+
+    /**
+     * Obtiene, en minúsculas, cuáles de los nombres indicados pertenecen ya a alguna receta. La columna se
+     * compara sin funciones para usar el índice único de NOMBRE (la intercalación ya no distingue mayúsculas).
+     *
+     * @param nombres nombres de receta ya pasados a minúsculas
+     * @return nombres existentes, en minúsculas
+     */
+    @Query("select lower(r.nombre) from Receta r where r.nombre in ?1")
+    List<String> findNombresMinusculasIn(Collection<String> nombres);
+
+    /**
+     * Obtiene todas las recetas con sus ingredientes cargados en la misma consulta.
+     *
+     * @return recetas con sus ingredientes
+     */
+    @Query("select distinct r from Receta r left join fetch r.ingredientes")
+    List<Receta> findAllConIngredientes();
+
+    /**
+     * Obtiene un conjunto de recetas con sus ingredientes cargados en la misma consulta.
+     *
+     * @param recetaIds identificadores de las recetas
+     * @return recetas encontradas con sus ingredientes
+     */
+    @Query("select distinct r from Receta r left join fetch r.ingredientes where r.id in ?1")
+    List<Receta> findAllConIngredientesByIdIn(Collection<Long> recetaIds);
+
+    /**
+     * Obtiene los identificadores de las recetas que usan un ingrediente.
+     *
+     * @param ingredienteId identificador del ingrediente
+     * @return identificadores de las recetas
+     */
+    @Query("select r.id from Receta r join r.ingredientes i where i.id = ?1")
+    List<Long> findIdsByIngredienteId(Long ingredienteId);
 }
@@ -0,0 +1,60 @@
+package es.superlista.resources;
+
+import es.superlista.domain.dto.ApiRespuesta;
+import es.superlista.domain.dto.SugerenciaDto;
+import es.superlista.security.annotation.PermisoAdminOrUser;
+import es.superlista.services.AutocompletadoService;
+import es.superlista.utils.Paginacion;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static es.superlista.utils.ResponseUtils.generarRespuesta;
+
+/**
+ * Controlador REST para autocompletar los nombres de recetas e ingredientes.
+ */
+@PermisoAdminOrUser
+@RestController
+@RequestMapping("/autocompletar")
+@Tag(name = "Autocompletado", description = "Sugerencias de recetas e ingredientes por prefijo")
+public class AutocompletadoResource {
+
+    private final AutocompletadoService autocompletadoService;
+    private final int limite;
+    private final int limiteMaximo;
+
+    /**
+     * Constructor que inyecta el servicio de autocompletado.
+     *
+     * @param autocompletadoService servicio que resuelve las sugerencias
+     * @param limite                número de sugerencias si el cliente no lo indica
+     * @param limiteMaximo          número máximo de sugerencias por petición
+     */
+    public AutocompletadoResource(AutocompletadoService autocompletadoService,
+                                  @Value("${superlista.autocompletado.limite:10}") int limite,
+                                  @Value("${superlista.autocompletado.limite-maximo:50}") int limiteMaximo) {
+        this.autocompletadoService = autocompletadoService;
+        this.limite = limite;
+        this.limiteMaximo = limiteMaximo;
+    }
+
+    /**
+     * Endpoint GET para obtener sugerencias de recetas e ingredientes cuyo nombre, o alguna de sus palabras,
+     * empieza por el texto indicado, sin distinguir mayúsculas ni tildes ("salmon" sugiere "Salmón").
+     *
+     * @param texto  texto escrito por el usuario
+     * @param limite número de sugerencias (opcional, limitado por configuración)
+     * @return respuesta API con las sugerencias
+     */
+    @GetMapping
+    public ResponseEntity<ApiRespuesta<List<SugerenciaDto>>> sugerir(
+            @RequestParam String texto,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok().body(generarRespuesta(
+                this.autocompletadoService.sugerir(texto, Paginacion.tamano(limite, this.limite, this.limiteMaximo))));
+    }
+}
@@ -4,6 +4,8 @@ import es.superlista.domain.dto.ApiRespuesta;
 import es.superlista.exception.ProcesoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -64,6 +66,25 @@ public class CustomControllerAdvice {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja el rechazo de tareas en segundo plano cuando su cola está llena.
+     *
+     * @param ex excepción de rechazo capturada
+     * @return respuesta API con mensaje de error y estado TOO_MANY_REQUESTS (429)
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ApiRespuesta<String>> handleTaskRejectedException(TaskRejectedException ex) {
+        logger.warn("Tarea rechazada por saturación: {}", ex.getMessage());
+
+        ApiRespuesta<String> response = ApiRespuesta.<String>builder()
+                .data("El servidor está ocupado, inténtalo de nuevo en unos segundos")
+                .estado(ApiRespuesta.Estado.ERROR)
+                .build();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
+    }
+
     /**
      * Maneja cualquier otra excepción no controlada en la aplicación.
      *
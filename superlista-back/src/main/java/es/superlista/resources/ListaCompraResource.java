@@ -3,13 +3,19 @@ package es.superlista.resources;
 import es.superlista.domain.dto.*;
 import es.superlista.security.CustomUserDetails;
 import es.superlista.security.annotation.PermisoAdminOrUser;
+import es.superlista.services.CacheLecturasService;
+import es.superlista.services.GeneracionListaService;
 import es.superlista.services.ListaCompraService;
+import es.superlista.utils.Paginacion;
 import es.superlista.utils.ResponseUtils;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,18 +29,34 @@ import java.util.List;
 public class ListaCompraResource {
 
     private final ListaCompraService listaService;
+    private final GeneracionListaService generacionService;
+    private final CacheLecturasService cacheLecturas;
+    private final int tamanoPagina;
+    private final int tamanoPaginaMaximo;
 
     /**
-     * Constructor que inyecta el servicio de listas de compra.
+     * Constructor que inyecta los servicios de listas de compra.
      *
-     * @param listaService servicio encargado de la lógica de negocio de listas de compra
+     * @param listaService       servicio encargado de la lógica de negocio de listas de compra
+     * @param generacionService  servicio de generación asíncrona de listas de compra
+     * @param cacheLecturas      caché de lecturas por usuario, con la versión que se publica como ETag
+     * @param tamanoPagina       número de listas por página si el cliente no lo indica
+     * @param tamanoPaginaMaximo número máximo de listas por página
      */
-    public ListaCompraResource(ListaCompraService listaService) {
+    public ListaCompraResource(ListaCompraService listaService, GeneracionListaService generacionService,
+                               CacheLecturasService cacheLecturas,
+                               @Value("${superlista.paginacion.tamano:20}") int tamanoPagina,
+                               @Value("${superlista.paginacion.tamano-maximo:100}") int tamanoPaginaMaximo) {
         this.listaService = listaService;
+        this.generacionService = generacionService;
+        this.cacheLecturas = cacheLecturas;
+        this.tamanoPagina = tamanoPagina;
+        this.tamanoPaginaMaximo = tamanoPaginaMaximo;
     }
 
     /**
      * Genera una nueva lista de la compra a partir de un menú semanal.
+     * Si se solicita vinculada, la lista se mantendrá de forma incremental al editar el menú.
      *
      * @param request      datos del menú para generar la lista
      * @param userDetails  detalles del usuario autenticado
@@ -46,7 +68,75 @@ public class ListaCompraResource {
             @AuthenticationPrincipal UserDetails userDetails) {
 
         Long usuarioId = ((CustomUserDetails)userDetails).getId();
-        ListaCompraDto dto = listaService.generarListaCompra(request.getMenuId(), usuarioId);
+        ListaCompraDto dto = request.isVinculada()
+                ? listaService.generarListaVinculada(request.getMenuId(), usuarioId)
+                : listaService.generarListaCompra(request.getMenuId(), usuarioId);
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(dto));
+    }
+
+    /**
+     * Encola la generación de una lista de la compra y responde inmediatamente con el trabajo creado.
+     * El estado y el resultado se consultan después en {@code /listacompra/trabajos/{trabajoId}}.
+     * Si la cola de generación está llena se responde con 429 (Too Many Requests).
+     *
+     * @param request      datos del menú para generar la lista
+     * @param userDetails  detalles del usuario autenticado
+     * @return respuesta API con el trabajo encolado y estado ACCEPTED (202)
+     */
+    @PostMapping("/generar/asincrona")
+    public ResponseEntity<ApiRespuesta<TrabajoGeneracionDto>> generarListaAsincrona(
+            @Valid @RequestBody GenerarListaDto request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        TrabajoGeneracionDto trabajo = generacionService.encolarGeneracion(request, userDetails.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ResponseUtils.generarRespuesta(trabajo));
+    }
+
+    /**
+     * Consulta el estado de un trabajo de generación asíncrona del usuario autenticado.
+     *
+     * @param trabajoId    identificador del trabajo
+     * @param userDetails  detalles del usuario autenticado
+     * @return respuesta API con el estado del trabajo
+     */
+    @GetMapping("/trabajos/{trabajoId}")
+    public ResponseEntity<ApiRespuesta<TrabajoGeneracionDto>> consultarTrabajo(
+            @PathVariable String trabajoId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        TrabajoGeneracionDto trabajo = generacionService.consultarTrabajo(trabajoId, userDetails.getId());
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(trabajo));
+    }
+
+    /**
+     * Obtiene la lista generada por un trabajo de generación asíncrona ya completado.
+     *
+     * @param trabajoId    identificador del trabajo
+     * @param userDetails  detalles del usuario autenticado
+     * @return respuesta API con la lista generada
+     */
+    @GetMapping("/trabajos/{trabajoId}/resultado")
+    public ResponseEntity<ApiRespuesta<ListaCompraDto>> obtenerResultadoTrabajo(
+            @PathVariable String trabajoId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        ListaCompraDto dto = generacionService.obtenerResultado(trabajoId, userDetails.getId());
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(dto));
+    }
+
+    /**
+     * Genera una única lista de la compra, sin ingredientes repetidos, a partir de varios menús semanales.
+     *
+     * @param request      identificadores de los menús para generar la lista
+     * @param userDetails  detalles del usuario autenticado
+     * @return respuesta API con la lista generada
+     */
+    @PostMapping("/generar-multiple")
+    public ResponseEntity<ApiRespuesta<ListaCompraDto>> generarListaMultiple(
+            @Valid @RequestBody GenerarListaMultipleDto request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        ListaCompraDto dto = listaService.generarListaMultiple(request.getMenuIds(), userDetails.getId());
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(dto));
     }
 
@@ -90,6 +180,28 @@ public class ListaCompraResource {
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(dto));
     }
 
+    /**
+     * Marca un ingrediente de una lista de la compra como comprado o pendiente.
+     * Si no se indica el estado, se alterna el estado actual del ingrediente.
+     *
+     * @param listaId       identificador de la lista de compra
+     * @param ingredienteId identificador del ingrediente a marcar
+     * @param request       estado de compra deseado (opcional)
+     * @param userDetails   detalles del usuario autenticado
+     * @return respuesta API indicando éxito o fallo
+     */
+    @PatchMapping("/{listaId}/items/{ingredienteId}")
+    public ResponseEntity<ApiRespuesta<Void>> marcarItem(
+            @PathVariable Long listaId,
+            @PathVariable Long ingredienteId,
+            @RequestBody(required = false) MarcarItemDto request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+
+        Boolean comprado = request == null ? null : request.getComprado();
+        listaService.marcarItem(listaId, userDetails.getId(), ingredienteId, comprado);
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(null));
+    }
+
     /**
      * Elimina una lista de la compra completa.
      *
@@ -108,16 +220,69 @@ public class ListaCompraResource {
 
     /**
      * Obtiene todas las listas de la compra asociadas al usuario autenticado.
+     * La respuesta lleva como ETag la versión de los datos del usuario: si el cliente la envía en
+     * If-None-Match y no ha cambiado se responde 304 sin consultar las listas.
      *
      * @param userDetails detalles del usuario autenticado
-     * @return respuesta API con la lista de todas las listas de compra del usuario
+     * @param request     petición, para comparar el ETag
+     * @return respuesta API con la lista de todas las listas de compra del usuario, o nada si no han cambiado
      */
     @GetMapping("/mislistas")
     public ResponseEntity<ApiRespuesta<List<ListaCompraDto>>> obtenerMisListas(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            WebRequest request) {
+
+        Long usuarioId = userDetails.getId();
+        String version = cacheLecturas.version(usuarioId);
+        if (request.checkNotModified(version)) {
+            return null;
+        }
+        List<ListaCompraDto> listas = cacheLecturas.obtener(usuarioId, version, "mislistas",
+                () -> listaService.obtenerListasDelUsuario(usuarioId));
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(listas));
+    }
+
+    /**
+     * Obtiene una página del historial de listas de la compra del usuario autenticado, de la más
+     * reciente a la más antigua. La página siguiente se pide enviando el cursor recibido.
+     *
+     * @param cursor      cursor de la página anterior (se omite en la primera)
+     * @param tamano      número de listas por página (opcional, limitado por configuración)
+     * @param userDetails detalles del usuario autenticado
+     * @return respuesta API con la página de listas y el cursor de la siguiente
+     */
+    @GetMapping("/mislistas/pagina")
+    public ResponseEntity<ApiRespuesta<PaginaDto<ListaCompraDto>>> obtenerPaginaMisListas(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer tamano,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
 
-        List<ListaCompraDto> listas = listaService.obtenerListasDelUsuario(userDetails.getId());
+        PaginaDto<ListaCompraDto> pagina = listaService.obtenerPaginaListasDelUsuario(userDetails.getId(), cursor,
+                Paginacion.tamano(tamano, tamanoPagina, tamanoPaginaMaximo));
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(pagina));
+    }
+
+    /**
+     * Obtiene todas las listas de la compra del usuario autenticado con sus ingredientes agrupados por categoría.
+     * Se selecciona con el parámetro {@code vista=agrupada} sobre el mismo recurso y admite If-None-Match
+     * igual que {@link #obtenerMisListas}.
+     *
+     * @param userDetails detalles del usuario autenticado
+     * @param request     petición, para comparar el ETag
+     * @return respuesta API con las listas de compra del usuario agrupadas por categoría, o nada si no han cambiado
+     */
+    @GetMapping(value = "/mislistas", params = "vista=agrupada")
+    public ResponseEntity<ApiRespuesta<List<ListaCompraAgrupadaDto>>> obtenerMisListasAgrupadas(
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            WebRequest request) {
+
+        Long usuarioId = userDetails.getId();
+        String version = cacheLecturas.version(usuarioId);
+        if (request.checkNotModified(version)) {
+            return null;
+        }
+        List<ListaCompraAgrupadaDto> listas = cacheLecturas.obtener(usuarioId, version, "mislistas:agrupada",
+                () -> listaService.obtenerListasAgrupadasDelUsuario(usuarioId));
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(listas));
     }
 }
-
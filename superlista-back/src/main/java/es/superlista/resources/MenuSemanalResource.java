@@ -3,14 +3,18 @@ package es.superlista.resources;
 import es.superlista.domain.dto.*;
 import es.superlista.security.CustomUserDetails;
 import es.superlista.security.annotation.PermisoAdminOrUser;
+import es.superlista.services.CacheLecturasService;
 import es.superlista.services.MenuSemanalService;
+import es.superlista.utils.Paginacion;
 import es.superlista.utils.ResponseUtils;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,14 +29,26 @@ import java.util.List;
 public class MenuSemanalResource {
 
     private final MenuSemanalService menuSemanalService;
+    private final CacheLecturasService cacheLecturas;
+    private final int tamanoPagina;
+    private final int tamanoPaginaMaximo;
 
     /**
      * Constructor que inyecta el servicio de menús semanales.
      *
      * @param menuSemanalService servicio encargado de la lógica de negocio de menús
+     * @param cacheLecturas      caché de lecturas por usuario, con la versión que se publica como ETag
+     * @param tamanoPagina       número de menús por página si el cliente no lo indica
+     * @param tamanoPaginaMaximo número máximo de menús por página
      */
-    public MenuSemanalResource(MenuSemanalService menuSemanalService) {
+    public MenuSemanalResource(MenuSemanalService menuSemanalService,
+                               CacheLecturasService cacheLecturas,
+                               @Value("${superlista.paginacion.tamano:20}") int tamanoPagina,
+                               @Value("${superlista.paginacion.tamano-maximo:100}") int tamanoPaginaMaximo) {
         this.menuSemanalService = menuSemanalService;
+        this.cacheLecturas = cacheLecturas;
+        this.tamanoPagina = tamanoPagina;
+        this.tamanoPaginaMaximo = tamanoPaginaMaximo;
     }
 
     /**
@@ -56,23 +72,47 @@ public class MenuSemanalResource {
 
     /**
      * Obtiene los detalles de un menú semanal específico del usuario autenticado.
+     * La respuesta lleva como ETag la versión de los datos del usuario: si el cliente la envía en
+     * If-None-Match y no ha cambiado se responde 304 sin consultar el menú.
      *
      * @param id          identificador del menú
      * @param userDetails detalles del usuario autenticado
-     * @return respuesta API con el menú solicitado
+     * @param request     petición, para comparar el ETag
+     * @return respuesta API con el menú solicitado, o nada si no ha cambiado
      */
     @GetMapping("/{id}")
     public ResponseEntity<ApiRespuesta<MenuSemanalDto>> obtenerMenu(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserDetails userDetails   // o tu CustomUserDetails
+            @AuthenticationPrincipal UserDetails userDetails,   // o tu CustomUserDetails
+            WebRequest request
     ) {
         // Extrae el userId del principal; adapta según tu UserDetails
         Long usuarioId = ((CustomUserDetails)userDetails).getId();
 
-        MenuSemanalDto dto = menuSemanalService.obtenerMenuSemanal(id, usuarioId);
+        String version = cacheLecturas.version(usuarioId);
+        if (request.checkNotModified(version)) {
+            return null;
+        }
+        MenuSemanalDto dto = cacheLecturas.obtener(usuarioId, version, "menu:" + id,
+                () -> menuSemanalService.obtenerMenuSemanal(id, usuarioId));
         return ResponseEntity.ok(ResponseUtils.generarRespuesta(dto));
     }
 
+    /**
+     * Copia un menú semanal del usuario autenticado, con todas sus recetas, en un menú nuevo,
+     * por ejemplo para repetir el menú de la semana anterior.
+     *
+     * @param id          identificador del menú a copiar
+     * @param userDetails detalles del usuario autenticado
+     * @return respuesta API con el identificador del menú creado
+     */
+    @PostMapping("/{id}/clonar")
+    public ResponseEntity<ApiRespuesta<Long>> clonarMenu(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(menuSemanalService.clonarMenu(id, userDetails.getId())));
+    }
+
     /**
      * Añade una receta a un menú semanal existente.
      *
@@ -88,32 +128,84 @@ public class MenuSemanalResource {
 
     /**
      * Obtiene todos los menús semanales asociados al usuario autenticado.
+     * Admite If-None-Match con la versión de los datos del usuario, como {@link #obtenerMenu}.
      *
-     * @param userDetails detalles del usuario autenticado
-     * @return respuesta API con la lista de menús del usuario
+     * @param ingredientes si las recetas deben incluir sus ingredientes (por defecto sí)
+     * @param userDetails  detalles del usuario autenticado
+     * @param request      petición, para comparar el ETag
+     * @return respuesta API con la lista de menús del usuario, o nada si no ha cambiado
      */
     @GetMapping("/mis-menus")
     public ResponseEntity<ApiRespuesta<List<MenuSemanalDto>>> obtenerMisMenus(
-            @AuthenticationPrincipal CustomUserDetails userDetails
+            @RequestParam(defaultValue = "true") boolean ingredientes,
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            WebRequest request
     ) {
         Long usuarioId = userDetails.getId();
-        return ResponseEntity.ok(
-                ResponseUtils.generarRespuesta(menuSemanalService.obtenerMenusDeUsuario(usuarioId))
-        );
+        String version = cacheLecturas.version(usuarioId);
+        if (request.checkNotModified(version)) {
+            return null;
+        }
+        List<MenuSemanalDto> menus = cacheLecturas.obtener(usuarioId, version, "mis-menus:" + ingredientes,
+                () -> menuSemanalService.obtenerMenusDeUsuario(usuarioId, ingredientes));
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(menus));
+    }
+
+    /**
+     * Obtiene una página del historial de menús semanales del usuario autenticado, del más reciente
+     * al más antiguo. La página siguiente se pide enviando el cursor recibido.
+     *
+     * @param cursor       cursor de la página anterior (se omite en la primera)
+     * @param tamano       número de menús por página (opcional, limitado por configuración)
+     * @param ingredientes si las recetas deben incluir sus ingredientes (por defecto sí)
+     * @param userDetails  detalles del usuario autenticado
+     * @return respuesta API con la página de menús y el cursor de la siguiente
+     */
+    @GetMapping("/mis-menus/pagina")
+    public ResponseEntity<ApiRespuesta<PaginaDto<MenuSemanalDto>>> obtenerPaginaMisMenus(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(defaultValue = "true") boolean ingredientes,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        PaginaDto<MenuSemanalDto> pagina = menuSemanalService.obtenerPaginaMenusDeUsuario(userDetails.getId(), cursor,
+                Paginacion.tamano(tamano, tamanoPagina, tamanoPaginaMaximo), ingredientes);
+        return ResponseEntity.ok(ResponseUtils.generarRespuesta(pagina));
     }
 
     /**
-     * Actualiza las recetas asociadas a un menú semanal.
+     * Actualiza las recetas asociadas a un menú semanal del usuario autenticado.
      *
-     * @param dto DTO con las nuevas recetas por día y categoría
+     * @param dto         DTO con las nuevas recetas por día y categoría
+     * @param userDetails detalles del usuario autenticado
      * @return respuesta HTTP vacía con estado OK
      */
     @PutMapping("/recetas")
-    public ResponseEntity<Void> actualizarRecetasMenu(@RequestBody ActualizarRecetasMenuDto dto) {
-        menuSemanalService.actualizarRecetas(dto);
+    public ResponseEntity<Void> actualizarRecetasMenu(
+            @RequestBody ActualizarRecetasMenuDto dto,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        menuSemanalService.actualizarRecetas(dto, userDetails.getId());
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Modifica parcialmente un menú semanal del usuario autenticado mediante operaciones sobre sus celdas,
+     * de forma que el tamaño de la petición depende de la edición y no del menú.
+     *
+     * @param id          identificador del menú
+     * @param dto         DTO con las operaciones a aplicar
+     * @param userDetails detalles del usuario autenticado
+     * @return respuesta HTTP vacía con estado NO_CONTENT
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> modificarMenu(
+            @PathVariable Long id,
+            @Valid @RequestBody ModificarMenuDto dto,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        menuSemanalService.modificarMenu(id, userDetails.getId(), dto.getOperaciones());
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Elimina un menú semanal específico.
      *
@@ -1,16 +1,24 @@
 package es.superlista.resources;
 
 import es.superlista.domain.dto.ApiRespuesta;
+import es.superlista.domain.dto.DespensaDto;
+import es.superlista.domain.dto.RecetaDisponibleDto;
 import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.dto.ResultadoImportacionDto;
 import es.superlista.security.annotation.PermisoAdmin;
 import es.superlista.security.annotation.PermisoAdminOrUser;
+import es.superlista.services.ImportacionRecetasService;
 import es.superlista.services.RecetaService;
+import es.superlista.utils.Paginacion;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 import static es.superlista.utils.ResponseUtils.generarRespuesta;
@@ -28,14 +36,26 @@ import static es.superlista.utils.ResponseUtils.generarRespuesta;
 public class RecetaResource {
 
     private final RecetaService recetaService;
+    private final ImportacionRecetasService importacionRecetasService;
+    private final int tamanoPagina;
+    private final int tamanoPaginaMaximo;
 
     /**
-     * Constructor que inyecta el servicio de recetas.
+     * Constructor que inyecta los servicios de recetas.
      *
-     * @param recetaService servicio encargado de la lógica de negocio de recetas
+     * @param recetaService             servicio encargado de la lógica de negocio de recetas
+     * @param importacionRecetasService servicio de importación masiva de recetas
+     * @param tamanoPagina              número de recetas por consulta si el cliente no lo indica
+     * @param tamanoPaginaMaximo        número máximo de recetas por consulta
      */
-    public RecetaResource(RecetaService recetaService) {
+    public RecetaResource(RecetaService recetaService,
+                          ImportacionRecetasService importacionRecetasService,
+                          @Value("${superlista.paginacion.tamano:20}") int tamanoPagina,
+                          @Value("${superlista.paginacion.tamano-maximo:100}") int tamanoPaginaMaximo) {
         this.recetaService = recetaService;
+        this.importacionRecetasService = importacionRecetasService;
+        this.tamanoPagina = tamanoPagina;
+        this.tamanoPaginaMaximo = tamanoPaginaMaximo;
     }
 
     /**
@@ -51,6 +71,20 @@ public class RecetaResource {
         return ResponseEntity.ok().body(generarRespuesta(this.recetaService.altaReceta(request)));
     }
 
+    /**
+     * Endpoint POST (solo para administradores) para importar un catálogo de recetas en NDJSON, una receta
+     * por línea con el mismo formato que el alta. El cuerpo se lee como flujo, sin cargarlo entero en memoria,
+     * y las recetas se guardan por lotes; los registros erróneos se informan en la respuesta.
+     *
+     * @param cuerpo flujo del cuerpo de la petición
+     * @return respuesta API con el resultado de la importación
+     */
+    @PermisoAdmin
+    @PostMapping(value = "/importar", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ApiRespuesta<ResultadoImportacionDto>> importarRecetas(InputStream cuerpo) {
+        return ResponseEntity.ok().body(generarRespuesta(this.importacionRecetasService.importar(cuerpo)));
+    }
+
     /**
      * Endpoint POST para actualizar una receta existente.
      *
@@ -90,6 +124,23 @@ public class RecetaResource {
         return ResponseEntity.ok().body(generarRespuesta(this.recetaService.buscarRecetaPorNombre(nombre)));
     }
 
+    /**
+     * Endpoint POST para saber qué se puede cocinar con los ingredientes de la despensa. Devuelve las recetas
+     * que usan alguno de ellos, primero las que se pueden cocinar y después las que tienen menos ingredientes
+     * sin cubrir, indicando cuáles faltan.
+     *
+     * @param request DTO con los identificadores de los ingredientes disponibles
+     * @param limite  número de recetas (opcional, limitado por configuración)
+     * @return respuesta API con las recetas clasificadas por cobertura
+     */
+    @PostMapping("/despensa")
+    public ResponseEntity<ApiRespuesta<List<RecetaDisponibleDto>>> buscarRecetasPorDespensa (
+            @Valid @RequestBody DespensaDto request,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok().body(generarRespuesta(this.recetaService.buscarRecetasPorDespensa(
+                request.getIngredienteIds(), Paginacion.tamano(limite, tamanoPagina, tamanoPaginaMaximo))));
+    }
+
     /**
      * Endpoint GET para obtener todas las recetas registradas.
      *
@@ -0,0 +1,21 @@
+package es.superlista.services;
+
+import es.superlista.domain.dto.SugerenciaDto;
+
+import java.util.List;
+
+/**
+ * Interfaz de servicio para autocompletar los nombres de recetas e ingredientes mientras el usuario escribe.
+ */
+public interface AutocompletadoService {
+
+    /**
+     * Sugiere recetas e ingredientes cuyo nombre, o alguna de sus palabras, empieza por el texto indicado,
+     * sin distinguir mayúsculas ni tildes. Se resuelve en memoria, sin consultar la base de datos.
+     *
+     * @param texto  texto escrito por el usuario
+     * @param limite número máximo de sugerencias
+     * @return sugerencias, primero las que empiezan por el texto
+     */
+    List<SugerenciaDto> sugerir(String texto, int limite);
+}
@@ -0,0 +1,48 @@
+package es.superlista.services;
+
+import java.util.function.Supplier;
+
+/**
+ * Interfaz de servicio para la caché de lecturas por usuario.
+ * Cada usuario tiene una versión que aumenta con cada escritura sobre sus menús o listas; la versión se publica
+ * como ETag y los DTOs ya construidos se recuerdan por usuario y versión, de modo que las lecturas repetidas
+ * sin cambios no vuelven a consultar la base de datos.
+ */
+public interface CacheLecturasService {
+
+    /**
+     * Obtiene la versión actual de los datos de un usuario, que cambia tras cada escritura confirmada
+     * sobre ellos y también al reiniciar la aplicación.
+     *
+     * @param usuarioId identificador del usuario
+     * @return versión de los datos del usuario, apta para usarse como ETag
+     */
+    String version(Long usuarioId);
+
+    /**
+     * Obtiene una respuesta del usuario construida con la versión indicada o, si no se recuerda,
+     * la construye y la recuerda para esa versión.
+     *
+     * @param usuarioId identificador del usuario
+     * @param version   versión leída antes de construir la respuesta
+     * @param recurso   clave del recurso solicitado, incluidos los parámetros que cambian la respuesta
+     * @param lectura   función que construye la respuesta desde la base de datos
+     * @param <T>       tipo de la respuesta
+     * @return respuesta correspondiente a la versión
+     */
+    <T> T obtener(Long usuarioId, String version, String recurso, Supplier<T> lectura);
+
+    /**
+     * Invalida los datos de un usuario aumentando su versión. Dentro de una transacción el aumento
+     * se aplica al confirmarla, para que no se recuerde una respuesta leída antes del cambio.
+     *
+     * @param usuarioId identificador del usuario
+     */
+    void invalidar(Long usuarioId);
+
+    /**
+     * Invalida los datos de todos los usuarios, por ejemplo cuando cambian las recetas o los ingredientes
+     * que aparecen en sus menús y listas.
+     */
+    void invalidarTodos();
+}
@@ -0,0 +1,69 @@
+package es.superlista.services;
+
+import es.superlista.domain.entity.Ingrediente;
+import es.superlista.domain.projection.AsignacionMenuReceta;
+import es.superlista.domain.projection.AsignacionReceta;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interfaz de servicio para leer el contenido (recetas asignadas a cada celda) de los menús semanales
+ * con independencia de cómo estén guardados. Las listas de la compra y el precálculo programado
+ * acceden a los menús a través de esta interfaz, de modo que funcionan igual en el modo de almacenamiento
+ * relacional y en el modo documento ({@code superlista.menu.almacenamiento}).
+ */
+public interface ContenidoMenuService {
+
+    /**
+     * Obtiene las asignaciones de receta a celda de un menú semanal.
+     *
+     * @param menuId identificador del menú semanal
+     * @return asignaciones (día, categoría, receta) del menú
+     */
+    List<AsignacionReceta> obtenerAsignaciones(Long menuId);
+
+    /**
+     * Obtiene en bloque las asignaciones de receta a celda de varios menús semanales.
+     *
+     * @param menuIds identificadores de los menús semanales
+     * @return asignaciones (menú, día, categoría, receta) de los menús
+     */
+    List<AsignacionMenuReceta> obtenerAsignaciones(Collection<Long> menuIds);
+
+    /**
+     * Obtiene el conjunto de ingredientes distintos de las recetas de varios menús semanales.
+     *
+     * @param menuIds identificadores de los menús semanales
+     * @return ingredientes distintos de los menús
+     */
+    List<Ingrediente> obtenerIngredientes(Collection<Long> menuIds);
+
+    /**
+     * Cuenta, para cada ingrediente de un menú, cuántas asignaciones de receta a celda lo utilizan.
+     *
+     * @param menuId identificador del menú semanal
+     * @return número de referencias por identificador de ingrediente
+     */
+    Map<Long, Integer> contarReferencias(Long menuId);
+
+    /**
+     * Obtiene los menús con alguna lista de la compra vinculada que tienen asignada alguna de las recetas
+     * indicadas, por ejemplo para actualizar esas listas cuando cambian los ingredientes de las recetas.
+     *
+     * @param recetaIds identificadores de las recetas
+     * @return identificadores de los menús, sin repetir
+     */
+    List<Long> obtenerMenusVinculadosConRecetas(Collection<Long> recetaIds);
+
+    /**
+     * Obtiene, paginando por clave (keyset), los identificadores de los menús con alguna receta asignada
+     * posteriores al identificador indicado, en orden ascendente.
+     *
+     * @param ultimoId último identificador ya procesado
+     * @param limite   número máximo de identificadores a devolver
+     * @return identificadores de los menús activos siguientes
+     */
+    List<Long> obtenerIdsActivosDespuesDe(Long ultimoId, int limite);
+}
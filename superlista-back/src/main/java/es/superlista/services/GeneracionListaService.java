@@ -0,0 +1,41 @@
+package es.superlista.services;
+
+import es.superlista.domain.dto.GenerarListaDto;
+import es.superlista.domain.dto.ListaCompraDto;
+import es.superlista.domain.dto.TrabajoGeneracionDto;
+
+/**
+ * Interfaz de servicio para generar listas de la compra de forma asíncrona.
+ * La generación se encola en un ejecutor acotado y se consulta después por el identificador del trabajo.
+ */
+public interface GeneracionListaService {
+
+    /**
+     * Encola la generación de una lista de la compra y devuelve el trabajo sin esperar a que termine.
+     *
+     * @param request   datos del menú para generar la lista
+     * @param usuarioId identificador del usuario propietario
+     * @return DTO del trabajo encolado
+     * @throws org.springframework.core.task.TaskRejectedException si la cola de generación está llena
+     */
+    TrabajoGeneracionDto encolarGeneracion(GenerarListaDto request, Long usuarioId);
+
+    /**
+     * Consulta el estado de un trabajo de generación del usuario.
+     *
+     * @param trabajoId identificador del trabajo
+     * @param usuarioId identificador del usuario propietario
+     * @return DTO del trabajo con su estado y, si ha terminado, su resultado
+     */
+    TrabajoGeneracionDto consultarTrabajo(String trabajoId, Long usuarioId);
+
+    /**
+     * Obtiene la lista generada por un trabajo completado del usuario.
+     *
+     * @param trabajoId identificador del trabajo
+     * @param usuarioId identificador del usuario propietario
+     * @return DTO de la lista de compra generada
+     * @throws es.superlista.exception.ProcesoException si el trabajo no existe, no ha terminado o ha fallado
+     */
+    ListaCompraDto obtenerResultado(String trabajoId, Long usuarioId);
+}
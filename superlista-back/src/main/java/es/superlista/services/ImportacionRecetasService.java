@@ -0,0 +1,23 @@
+package es.superlista.services;
+
+import es.superlista.domain.dto.ResultadoImportacionDto;
+
+import java.io.InputStream;
+
+/**
+ * Interfaz de servicio para la importación masiva de recetas.
+ * Las recetas se leen como NDJSON (un {@link es.superlista.domain.dto.RecetaDto} por línea) directamente
+ * del flujo de entrada y se guardan por lotes, cada uno en su propia transacción.
+ */
+public interface ImportacionRecetasService {
+
+    /**
+     * Importa las recetas de un flujo NDJSON sin cargarlo entero en memoria. Los registros erróneos se
+     * informan en el resultado sin detener la importación; si el flujo se corta, se conservan los lotes
+     * ya guardados y el corte se informa como un error más.
+     *
+     * @param ndjson flujo de entrada con una receta en JSON por línea (UTF-8)
+     * @return resultado de la importación con los totales, los errores y el rendimiento
+     */
+    ResultadoImportacionDto importar(InputStream ndjson);
+}
@@ -1,8 +1,13 @@
 package es.superlista.services;
 
+import es.superlista.domain.dto.ListaCompraAgrupadaDto;
 import es.superlista.domain.dto.ListaCompraDto;
+import es.superlista.domain.dto.PaginaDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Interfaz de servicio para gestionar operaciones relacionadas con las listas de compra.
@@ -19,6 +24,52 @@ public interface ListaCompraService {
      */
     ListaCompraDto generarListaCompra(Long menuId, Long usuarioId);
 
+    /**
+     * Genera una única lista de la compra, sin ingredientes repetidos, a partir de varios menús semanales.
+     *
+     * @param menuIds   identificadores de los menús semanales
+     * @param usuarioId identificador del usuario propietario
+     * @return DTO de la lista de compra generada
+     */
+    ListaCompraDto generarListaMultiple(Set<Long> menuIds, Long usuarioId);
+
+    /**
+     * Genera una nueva lista de la compra vinculada a un menú semanal. La lista guarda, por cada ingrediente,
+     * el número de recetas del menú que lo utilizan, y a partir de ese momento se mantiene de forma incremental
+     * con {@link #aplicarCambiosMenu(Long, Map)}.
+     *
+     * @param menuId    identificador del menú semanal
+     * @param usuarioId identificador del usuario propietario
+     * @return DTO de la lista de compra generada
+     */
+    ListaCompraDto generarListaVinculada(Long menuId, Long usuarioId);
+
+    /**
+     * Aplica sobre las listas vinculadas a un menú la variación de sus recetas: cada receta suma o resta
+     * referencias a sus ingredientes, que aparecen en la lista al pasar de cero y desaparecen al volver a cero.
+     *
+     * @param menuId       identificador del menú semanal editado
+     * @param deltaRecetas variación del número de asignaciones por identificador de receta
+     */
+    void aplicarCambiosMenu(Long menuId, Map<Long, Integer> deltaRecetas);
+
+    /**
+     * Recalcula, a partir del contenido actual de sus menús, los contadores y los ingredientes de las listas
+     * vinculadas a menús que usan alguna de las recetas indicadas. Se invoca en la misma transacción que
+     * cambia los ingredientes de esas recetas.
+     *
+     * @param recetaIds identificadores de las recetas cuyos ingredientes han cambiado
+     */
+    void recalcularListasConRecetas(Collection<Long> recetaIds);
+
+    /**
+     * Desvincula las listas asociadas a un menú semanal, que conservan sus ingredientes
+     * pero dejan de actualizarse con el menú.
+     *
+     * @param menuId identificador del menú semanal
+     */
+    void desvincularMenu(Long menuId);
+
     /**
      * Añade ingredientes a una lista de compra existente.
      *
@@ -39,6 +90,16 @@ public interface ListaCompraService {
      */
     ListaCompraDto removeItems(Long listaId, Long usuarioId, List<Long> ingredienteIds);
 
+    /**
+     * Marca un ingrediente de una lista de compra como comprado o pendiente.
+     *
+     * @param listaId       identificador de la lista de compra
+     * @param usuarioId     identificador del usuario propietario
+     * @param ingredienteId identificador del ingrediente a marcar
+     * @param comprado      nuevo estado de compra; si es nulo se alterna el estado actual
+     */
+    void marcarItem(Long listaId, Long usuarioId, Long ingredienteId, Boolean comprado);
+
     /**
      * Elimina una lista de compra del sistema.
      *
@@ -54,4 +115,24 @@ public interface ListaCompraService {
      * @return lista de DTOs de listas de compra del usuario
      */
     List<ListaCompraDto> obtenerListasDelUsuario(Long id);
+
+    /**
+     * Obtiene una página del historial de listas de compra de un usuario, paginada por clave
+     * en orden de identificador descendente.
+     *
+     * @param usuarioId identificador del usuario
+     * @param cursor    cursor devuelto por la página anterior (nulo para la primera)
+     * @param tamano    número de listas por página
+     * @return página de listas con el cursor de la siguiente
+     */
+    PaginaDto<ListaCompraDto> obtenerPaginaListasDelUsuario(Long usuarioId, Long cursor, int tamano);
+
+    /**
+     * Obtiene todas las listas de compra de un usuario con sus ingredientes agrupados por categoría,
+     * ordenadas según el identificador de la categoría.
+     *
+     * @param usuarioId identificador del usuario
+     * @return lista de DTOs de listas de compra agrupadas del usuario
+     */
+    List<ListaCompraAgrupadaDto> obtenerListasAgrupadasDelUsuario(Long usuarioId);
 }
@@ -4,6 +4,8 @@ package es.superlista.services;
 import es.superlista.domain.dto.ActualizarRecetasMenuDto;
 import es.superlista.domain.dto.MenuSemanalCreateDto;
 import es.superlista.domain.dto.MenuSemanalDto;
+import es.superlista.domain.dto.OperacionMenuDto;
+import es.superlista.domain.dto.PaginaDto;
 import es.superlista.domain.enumeration.CategoriaComida;
 import es.superlista.domain.enumeration.DiaSemana;
 import jakarta.validation.constraints.NotNull;
@@ -34,6 +36,16 @@ public interface MenuSemanalService {
      */
     MenuSemanalDto obtenerMenuSemanal(Long menuId, Long usuarioId);
 
+    /**
+     * Copia un menú semanal del usuario, con sus celdas y sus recetas, en un menú nuevo.
+     * La copia se hace con un número constante de sentencias dentro de la base de datos.
+     *
+     * @param menuId    identificador del menú a copiar
+     * @param usuarioId identificador del usuario propietario
+     * @return identificador del menú creado
+     */
+    Long clonarMenu(Long menuId, Long usuarioId);
+
     /**
      * Agrega una receta a un día y categoría específicos dentro de un menú semanal.
      *
@@ -46,19 +58,46 @@ public interface MenuSemanalService {
     boolean agregarReceta(@NotNull Long menuId, @NotNull DiaSemana dia, @NotNull CategoriaComida categoria, @NotNull Long recetaId);
 
     /**
-     * Obtiene todos los menús semanales asociados a un usuario específico.
+     * Obtiene todos los menús semanales asociados a un usuario específico, construidos a partir de
+     * consultas de tuplas sin hidratar las entidades.
      *
-     * @param usuarioId identificador del usuario
+     * @param usuarioId           identificador del usuario
+     * @param incluirIngredientes si las recetas de cada celda deben incluir sus ingredientes
      * @return lista de DTOs de menús semanales del usuario
      */
-    List<MenuSemanalDto> obtenerMenusDeUsuario(Long usuarioId);
+    List<MenuSemanalDto> obtenerMenusDeUsuario(Long usuarioId, boolean incluirIngredientes);
+
+    /**
+     * Obtiene una página del historial de menús semanales de un usuario, paginada por clave
+     * en orden de identificador descendente.
+     *
+     * @param usuarioId           identificador del usuario
+     * @param cursor              cursor devuelto por la página anterior (nulo para la primera)
+     * @param tamano              número de menús por página
+     * @param incluirIngredientes si las recetas de cada celda deben incluir sus ingredientes
+     * @return página de menús con el cursor de la siguiente
+     */
+    PaginaDto<MenuSemanalDto> obtenerPaginaMenusDeUsuario(Long usuarioId, Long cursor, int tamano,
+                                                          boolean incluirIngredientes);
+
+    /**
+     * Actualiza las recetas asociadas a un menú semanal del usuario. Compara la cuadrícula solicitada con
+     * la guardada y solo escribe las celdas cuyo conjunto de recetas cambia.
+     *
+     * @param dto       DTO con las nuevas recetas a asignar
+     * @param usuarioId identificador del usuario propietario
+     */
+    void actualizarRecetas(ActualizarRecetasMenuDto dto, Long usuarioId);
 
     /**
-     * Actualiza las recetas asociadas a un menú semanal.
+     * Modifica parcialmente un menú semanal del usuario aplicando, en una misma transacción,
+     * una lista de operaciones sobre sus celdas (añadir, quitar, mover o vaciar).
      *
-     * @param dto DTO con las nuevas recetas a asignar
+     * @param menuId      identificador del menú semanal
+     * @param usuarioId   identificador del usuario propietario
+     * @param operaciones operaciones a aplicar, en orden
      */
-    void actualizarRecetas(ActualizarRecetasMenuDto dto);
+    void modificarMenu(Long menuId, Long usuarioId, List<OperacionMenuDto> operaciones);
 
     /**
      * Elimina un menú semanal del sistema.
@@ -1,9 +1,11 @@
 package es.superlista.services;
 
+import es.superlista.domain.dto.RecetaDisponibleDto;
 import es.superlista.domain.dto.RecetaDto;
 import jakarta.validation.Valid;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Interfaz de servicio para gestionar operaciones relacionadas con recetas.
@@ -43,6 +45,16 @@ public interface RecetaService {
      */
     List<RecetaDto> buscarRecetaPorNombre(@Valid String nombre);
 
+    /**
+     * Clasifica las recetas por cobertura de los ingredientes que el usuario tiene en casa: primero las que se
+     * pueden cocinar con ellos y después las que tienen menos ingredientes sin cubrir.
+     *
+     * @param ingredienteIds identificadores de los ingredientes de la despensa
+     * @param limite         número máximo de recetas a devolver
+     * @return recetas con sus ingredientes faltantes, de mejor a peor cobertura
+     */
+    List<RecetaDisponibleDto> buscarRecetasPorDespensa(Set<Long> ingredienteIds, int limite);
+
     /**
      * Obtiene todas las recetas registradas en el sistema.
      *
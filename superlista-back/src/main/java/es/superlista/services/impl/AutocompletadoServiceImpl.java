@@ -0,0 +1,34 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.SugerenciaDto;
+import es.superlista.services.AutocompletadoService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Implementación del servicio {@link AutocompletadoService}.
+ * Responde desde {@link IndiceAutocompletado}, por lo que no abre transacción ni consulta la base de datos.
+ */
+@Service
+public class AutocompletadoServiceImpl implements AutocompletadoService {
+
+    private final IndiceAutocompletado indiceAutocompletado;
+
+    /**
+     * Constructor que inyecta el índice de autocompletado.
+     *
+     * @param indiceAutocompletado índice en memoria de los nombres de recetas e ingredientes
+     */
+    public AutocompletadoServiceImpl(IndiceAutocompletado indiceAutocompletado) {
+        this.indiceAutocompletado = indiceAutocompletado;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SugerenciaDto> sugerir(String texto, int limite) {
+        return indiceAutocompletado.sugerir(texto, limite);
+    }
+}
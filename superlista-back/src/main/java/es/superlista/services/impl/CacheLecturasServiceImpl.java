@@ -0,0 +1,135 @@
+package es.superlista.services.impl;
+
+import es.superlista.services.CacheLecturasService;
+import es.superlista.utils.Transacciones;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Implementación del servicio {@link CacheLecturasService}.
+ * <p>
+ * La versión de un usuario se compone del instante de arranque, de una versión global (recetas e ingredientes)
+ * y de un contador propio, de modo que un ETag emitido antes de reiniciar o de cambiar una receta no vuelve a
+ * coincidir. Los contadores se reparten en un número fijo de franjas por identificador de usuario, así que la
+ * memoria no crece con los usuarios; dos usuarios de la misma franja comparten contador, lo que solo provoca
+ * alguna invalidación de más. Las respuestas se guardan por usuario junto a la versión con la que se construyeron y se descartan
+ * en cuanto la versión cambia; los usuarios menos usados se expulsan al superar la capacidad.
+ */
+@Service
+public class CacheLecturasServiceImpl implements CacheLecturasService {
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Versión global: aumenta cuando cambian datos compartidos por todos los usuarios.
+     */
+    private final AtomicLong versionGlobal = new AtomicLong();
+
+    /**
+     * Número de franjas de contadores (potencia de dos).
+     */
+    private static final int FRANJAS = 1 << 14;
+
+    /**
+     * Contador de escrituras por franja de usuarios.
+     */
+    private final AtomicLongArray versiones = new AtomicLongArray(FRANJAS);
+
+    /**
+     * Respuestas recordadas por usuario, en orden de acceso (LRU).
+     */
+    private final Map<Long, Respuestas> respuestas;
+
+    /**
+     * Constructor que configura la capacidad de la caché.
+     *
+     * @param capacidad número máximo de usuarios cuyas respuestas se recuerdan
+     */
+    public CacheLecturasServiceImpl(@Value("${superlista.cache.lecturas.capacidad:1000}") int capacidad) {
+        this.respuestas = new LinkedHashMap<>(Math.min(capacidad, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Respuestas> eldest) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String version(Long usuarioId) {
+        return arranque + "-" + versionGlobal.get() + "-" + versiones.get(franja(usuarioId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T obtener(Long usuarioId, String version, String recurso, Supplier<T> lectura) {
+        Respuestas delUsuario;
+        synchronized (respuestas) {
+            delUsuario = respuestas.get(usuarioId);
+            if (delUsuario == null || !delUsuario.version().equals(version)) {
+                delUsuario = new Respuestas(version, new ConcurrentHashMap<>());
+                respuestas.put(usuarioId, delUsuario);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T respuesta = (T) delUsuario.porRecurso().get(recurso);
+        if (respuesta == null) {
+            // Se construye fuera de cualquier bloqueo; si dos peticiones coinciden se queda la primera
+            respuesta = lectura.get();
+            if (respuesta != null) {
+                delUsuario.porRecurso().putIfAbsent(recurso, respuesta);
+            }
+        }
+        return respuesta;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidar(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        Transacciones.alConfirmar(() -> versiones.incrementAndGet(franja(usuarioId)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidarTodos() {
+        Transacciones.alConfirmar(versionGlobal::incrementAndGet);
+    }
+
+    /**
+     * Función auxiliar para obtener la franja del contador de un usuario.
+     *
+     * @param usuarioId identificador del usuario
+     * @return posición del contador
+     */
+    private static int franja(Long usuarioId) {
+        return Long.hashCode(usuarioId) & (FRANJAS - 1);
+    }
+
+    /**
+     * Respuestas de un usuario construidas con una misma versión.
+     *
+     * @param version    versión con la que se construyeron
+     * @param porRecurso respuestas por clave de recurso
+     */
+    private record Respuestas(String version, Map<String, Object> porRecurso) {
+    }
+}
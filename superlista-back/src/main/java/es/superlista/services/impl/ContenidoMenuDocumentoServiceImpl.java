@@ -0,0 +1,175 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.entity.Ingrediente;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.projection.AsignacionMenuReceta;
+import es.superlista.domain.projection.AsignacionReceta;
+import es.superlista.domain.projection.DocumentoMenu;
+import es.superlista.domain.projection.RecetaIngrediente;
+import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.domain.repository.MenuSemanalRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.services.ContenidoMenuService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementación del servicio {@link ContenidoMenuService} para el modo de almacenamiento documento,
+ * en el que la cuadrícula de recetas de cada menú está codificada en una sola columna de MENU_SEMANAL.
+ * Las asignaciones se obtienen leyendo una fila por menú; los ingredientes se resuelven después
+ * con una consulta sobre la relación receta–ingrediente.
+ */
+@Service
+@Transactional(readOnly = true)
+@ConditionalOnProperty(name = "superlista.menu.almacenamiento", havingValue = "documento")
+public class ContenidoMenuDocumentoServiceImpl implements ContenidoMenuService {
+
+    private final MenuSemanalRepository menuSemanalRepository;
+    private final RecetaRepository recetaRepository;
+    private final IngredienteRepository ingredienteRepository;
+
+    /**
+     * Constructor que inyecta los repositorios necesarios.
+     *
+     * @param menuSemanalRepository repositorio de menús semanales
+     * @param recetaRepository      repositorio de recetas
+     * @param ingredienteRepository repositorio de ingredientes
+     */
+    public ContenidoMenuDocumentoServiceImpl(MenuSemanalRepository menuSemanalRepository,
+                                             RecetaRepository recetaRepository,
+                                             IngredienteRepository ingredienteRepository) {
+        this.menuSemanalRepository = menuSemanalRepository;
+        this.recetaRepository = recetaRepository;
+        this.ingredienteRepository = ingredienteRepository;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AsignacionReceta> obtenerAsignaciones(Long menuId) {
+        return new ArrayList<>(obtenerAsignaciones(List.of(menuId)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AsignacionMenuReceta> obtenerAsignaciones(Collection<Long> menuIds) {
+        List<AsignacionMenuReceta> asignaciones = new ArrayList<>();
+        for (DocumentoMenu menu : menuSemanalRepository.findDocumentosByIdIn(menuIds)) {
+            if (menu.getCuadricula() == null) {
+                continue;
+            }
+            menu.getCuadricula().getCeldas().forEach((dia, categorias) -> categorias.forEach((categoria, recetas) ->
+                    recetas.forEach(recetaId -> asignaciones.add(new Asignacion(menu.getId(), dia, categoria, recetaId)))));
+        }
+        return asignaciones;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Ingrediente> obtenerIngredientes(Collection<Long> menuIds) {
+        Set<Long> recetaIds = new LinkedHashSet<>();
+        for (DocumentoMenu menu : menuSemanalRepository.findDocumentosByIdIn(menuIds)) {
+            if (menu.getCuadricula() != null) {
+                recetaIds.addAll(menu.getCuadricula().recetaIds());
+            }
+        }
+        if (recetaIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> ingredienteIds = new LinkedHashSet<>();
+        recetaRepository.findIngredientesByRecetaIdIn(recetaIds)
+                .forEach(par -> ingredienteIds.add(par.getIngredienteId()));
+        return ingredienteRepository.findAllById(ingredienteIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Long, Integer> contarReferencias(Long menuId) {
+        // 1. Número de asignaciones de cada receta en la cuadrícula
+        Map<Long, Integer> asignacionesPorReceta = new HashMap<>();
+        for (AsignacionReceta asignacion : obtenerAsignaciones(menuId)) {
+            asignacionesPorReceta.merge(asignacion.getRecetaId(), 1, Integer::sum);
+        }
+        if (asignacionesPorReceta.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        // 2. Cada asignación aporta una referencia a cada ingrediente de su receta
+        Map<Long, Integer> referencias = new HashMap<>();
+        for (RecetaIngrediente par : recetaRepository.findIngredientesByRecetaIdIn(asignacionesPorReceta.keySet())) {
+            referencias.merge(par.getIngredienteId(), asignacionesPorReceta.get(par.getRecetaId()), Integer::sum);
+        }
+        return referencias;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> obtenerMenusVinculadosConRecetas(Collection<Long> recetaIds) {
+        // La cuadrícula no se puede consultar por receta: se revisan solo los menús con listas vinculadas
+        return menuSemanalRepository.findDocumentosVinculados().stream()
+                .filter(menu -> !Collections.disjoint(menu.getCuadricula().recetaIds(), recetaIds))
+                .map(DocumentoMenu::getId)
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> obtenerIdsActivosDespuesDe(Long ultimoId, int limite) {
+        return menuSemanalRepository.findIdsConCuadriculaDespuesDe(ultimoId, PageRequest.of(0, limite));
+    }
+
+    /**
+     * Asignación de receta a celda extraída de la cuadrícula de un menú.
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       día de la semana de la celda
+     * @param categoria categoría de comida de la celda
+     * @param recetaId  identificador de la receta asignada
+     */
+    private record Asignacion(Long menuId, DiaSemana dia, CategoriaComida categoria, Long recetaId)
+            implements AsignacionMenuReceta {
+
+        @Override
+        public Long getMenuId() {
+            return menuId;
+        }
+
+        @Override
+        public DiaSemana getDia() {
+            return dia;
+        }
+
+        @Override
+        public CategoriaComida getCategoria() {
+            return categoria;
+        }
+
+        @Override
+        public Long getRecetaId() {
+            return recetaId;
+        }
+    }
+}
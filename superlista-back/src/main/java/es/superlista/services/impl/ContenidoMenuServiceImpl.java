@@ -0,0 +1,102 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.entity.Ingrediente;
+import es.superlista.domain.projection.AsignacionMenuReceta;
+import es.superlista.domain.projection.AsignacionReceta;
+import es.superlista.domain.projection.ReferenciaIngrediente;
+import es.superlista.domain.repository.DiaComidaRepository;
+import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.domain.repository.MenuSemanalRepository;
+import es.superlista.services.ContenidoMenuService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación del servicio {@link ContenidoMenuService} para el modo de almacenamiento relacional,
+ * en el que las recetas de cada menú están en las tablas DIA_COMIDA y DIA_COMIDA_RECETAS.
+ * Cada lectura se resuelve con una única consulta sobre las celdas.
+ */
+@Service
+@Transactional(readOnly = true)
+@ConditionalOnProperty(name = "superlista.menu.almacenamiento", havingValue = "relacional", matchIfMissing = true)
+public class ContenidoMenuServiceImpl implements ContenidoMenuService {
+
+    private final DiaComidaRepository diaComidaRepository;
+    private final IngredienteRepository ingredienteRepository;
+    private final MenuSemanalRepository menuSemanalRepository;
+
+    /**
+     * Constructor que inyecta los repositorios necesarios.
+     *
+     * @param diaComidaRepository   repositorio de celdas de los menús semanales
+     * @param ingredienteRepository repositorio de ingredientes
+     * @param menuSemanalRepository repositorio de menús semanales
+     */
+    public ContenidoMenuServiceImpl(DiaComidaRepository diaComidaRepository,
+                                    IngredienteRepository ingredienteRepository,
+                                    MenuSemanalRepository menuSemanalRepository) {
+        this.diaComidaRepository = diaComidaRepository;
+        this.ingredienteRepository = ingredienteRepository;
+        this.menuSemanalRepository = menuSemanalRepository;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AsignacionReceta> obtenerAsignaciones(Long menuId) {
+        return diaComidaRepository.findAsignacionesByMenuSemanalId(menuId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AsignacionMenuReceta> obtenerAsignaciones(Collection<Long> menuIds) {
+        return diaComidaRepository.findAsignacionesByMenuSemanalIdIn(menuIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Ingrediente> obtenerIngredientes(Collection<Long> menuIds) {
+        if (menuIds.size() == 1) {
+            return ingredienteRepository.findDistinctByMenuSemanalId(menuIds.iterator().next());
+        }
+        return ingredienteRepository.findDistinctByMenuSemanalIdIn(menuIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Long, Integer> contarReferencias(Long menuId) {
+        return ingredienteRepository.countReferenciasByMenuSemanalId(menuId).stream()
+                .collect(Collectors.toMap(ReferenciaIngrediente::getIngredienteId,
+                        referencia -> referencia.getReferencias().intValue()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> obtenerMenusVinculadosConRecetas(Collection<Long> recetaIds) {
+        return diaComidaRepository.findMenuIdsVinculadosByRecetaIdIn(recetaIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Long> obtenerIdsActivosDespuesDe(Long ultimoId, int limite) {
+        return menuSemanalRepository.findIdsActivosDespuesDe(ultimoId, PageRequest.of(0, limite));
+    }
+}
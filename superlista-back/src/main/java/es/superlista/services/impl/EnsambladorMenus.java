@@ -0,0 +1,103 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.DiaComidaDto;
+import es.superlista.domain.dto.IngredienteSimpleDto;
+import es.superlista.domain.dto.MenuSemanalDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.projection.IngredienteReceta;
+import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.utils.CuadriculaMenu;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Construye los DTOs de los menús semanales a partir de datos leídos como tuplas, sin hidratar entidades.
+ * Lo comparten los dos modos de almacenamiento de los menús, de modo que ambos devuelven exactamente
+ * los mismos DTOs.
+ */
+@Component
+public class EnsambladorMenus {
+
+    private final IngredienteRepository ingredienteRepository;
+
+    /**
+     * Constructor que inyecta el repositorio de ingredientes.
+     *
+     * @param ingredienteRepository repositorio de ingredientes
+     */
+    public EnsambladorMenus(IngredienteRepository ingredienteRepository) {
+        this.ingredienteRepository = ingredienteRepository;
+    }
+
+    /**
+     * Construye una única instancia de cada receta, para compartirla entre todas las celdas en las que aparece.
+     * Los ingredientes de todas las recetas se cargan con una sola consulta, y solo si se solicitan.
+     *
+     * @param nombres             nombre de cada receta, por identificador
+     * @param incluirIngredientes si se deben cargar los ingredientes de cada receta
+     * @return DTOs de las recetas, por identificador
+     */
+    public Map<Long, RecetaDto> recetas(Map<Long, String> nombres, boolean incluirIngredientes) {
+        Map<Long, RecetaDto> recetas = new HashMap<>();
+        nombres.forEach((id, nombre) -> {
+            RecetaDto receta = new RecetaDto();
+            receta.setId(id);
+            receta.setNombre(nombre);
+            receta.setIngredientes(incluirIngredientes ? new ArrayList<>() : null);
+            recetas.put(id, receta);
+        });
+
+        if (incluirIngredientes && !recetas.isEmpty()) {
+            for (IngredienteReceta fila : ingredienteRepository.findIngredientesByRecetaIdIn(recetas.keySet())) {
+                IngredienteSimpleDto ingrediente = new IngredienteSimpleDto();
+                ingrediente.setId(fila.getIngredienteId());
+                ingrediente.setNombre(fila.getNombre());
+                ingrediente.setCategoria(fila.getCategoria());
+                recetas.get(fila.getRecetaId()).getIngredientes().add(ingrediente);
+            }
+        }
+        return recetas;
+    }
+
+    /**
+     * Construye una celda vacía de la cuadrícula, a la que se añadirán sus recetas.
+     *
+     * @param id        identificador de la celda (nulo si el menú se guarda como documento)
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @return DTO de la celda
+     */
+    public DiaComidaDto celda(Long id, DiaSemana dia, CategoriaComida categoria) {
+        DiaComidaDto celda = new DiaComidaDto();
+        celda.setId(id);
+        celda.setDia(dia);
+        celda.setCategoria(categoria);
+        celda.setRecetas(new ArrayList<>());
+        return celda;
+    }
+
+    /**
+     * Construye el DTO de un menú presentando su cuadrícula completa, como hace el mapper.
+     *
+     * @param id         identificador del menú
+     * @param usuarioId  identificador del usuario propietario
+     * @param categorias categorías de comida del menú (nulo si incluye todas)
+     * @param celdas     celdas con alguna receta
+     * @return DTO del menú
+     */
+    public MenuSemanalDto menu(Long id, Long usuarioId, Set<CategoriaComida> categorias, Collection<DiaComidaDto> celdas) {
+        MenuSemanalDto dto = new MenuSemanalDto();
+        dto.setId(id);
+        dto.setUsuarioId(usuarioId);
+        dto.setCategorias(categorias);
+        dto.setDiasComidas(CuadriculaMenu.completar(new ArrayList<>(celdas), categorias));
+        return dto;
+    }
+}
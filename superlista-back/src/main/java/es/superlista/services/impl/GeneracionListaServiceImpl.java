@@ -0,0 +1,165 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.GenerarListaDto;
+import es.superlista.domain.dto.ListaCompraDto;
+import es.superlista.domain.dto.TrabajoGeneracionDto;
+import es.superlista.domain.enumeration.EstadoTrabajo;
+import es.superlista.exception.ProcesoException;
+import es.superlista.services.GeneracionListaService;
+import es.superlista.services.ListaCompraService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación del servicio {@link GeneracionListaService}.
+ * Ejecuta la generación de listas en el ejecutor {@code generacionListasExecutor} y guarda en memoria el estado
+ * de cada trabajo; los trabajos terminados se descartan pasado un tiempo de retención.
+ */
+@Service
+public class GeneracionListaServiceImpl implements GeneracionListaService {
+
+    /**
+     * Logger para registrar trazas de error y diagnóstico.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(GeneracionListaServiceImpl.class);
+
+    private final ListaCompraService listaCompraService;
+    private final TaskExecutor executor;
+    private final long retencionMs;
+
+    /**
+     * Trabajos conocidos, por identificador.
+     */
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor que inyecta el servicio de listas, el ejecutor y la configuración de retención.
+     *
+     * @param listaCompraService servicio de listas de compra
+     * @param executor           ejecutor acotado para la generación de listas
+     * @param retencionMs        tiempo que se conserva un trabajo terminado para su consulta
+     */
+    public GeneracionListaServiceImpl(ListaCompraService listaCompraService,
+                                      @Qualifier("generacionListasExecutor") TaskExecutor executor,
+                                      @Value("${superlista.listacompra.asincrona.retencion-ms:600000}") long retencionMs) {
+        this.listaCompraService = listaCompraService;
+        this.executor = executor;
+        this.retencionMs = retencionMs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TrabajoGeneracionDto encolarGeneracion(GenerarListaDto request, Long usuarioId) {
+        Trabajo trabajo = new Trabajo(UUID.randomUUID().toString(), request.getMenuId(), usuarioId);
+        trabajos.put(trabajo.id, trabajo);
+        try {
+            executor.execute(() -> ejecutar(trabajo, request));
+        } catch (RuntimeException e) {
+            // Cola llena: el trabajo no llega a existir y el rechazo se propaga como contrapresión
+            trabajos.remove(trabajo.id);
+            throw e;
+        }
+        return trabajo.toDto();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TrabajoGeneracionDto consultarTrabajo(String trabajoId, Long usuarioId) {
+        Trabajo trabajo = trabajos.get(trabajoId);
+        if (trabajo == null || !trabajo.usuarioId.equals(usuarioId)) {
+            throw new ProcesoException("Trabajo no encontrado: " + trabajoId);
+        }
+        return trabajo.toDto();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ListaCompraDto obtenerResultado(String trabajoId, Long usuarioId) {
+        TrabajoGeneracionDto trabajo = consultarTrabajo(trabajoId, usuarioId);
+        if (trabajo.getEstado() == EstadoTrabajo.ERROR) {
+            throw new ProcesoException(trabajo.getError());
+        }
+        if (trabajo.getEstado() != EstadoTrabajo.COMPLETADO) {
+            throw new ProcesoException("El trabajo " + trabajoId + " aún no ha terminado.");
+        }
+        return trabajo.getResultado();
+    }
+
+    /**
+     * Descarta periódicamente los trabajos terminados cuyo tiempo de retención ha vencido.
+     */
+    @Scheduled(fixedDelayString = "${superlista.listacompra.asincrona.retencion-ms:600000}")
+    public void descartarTrabajosCaducados() {
+        long limite = System.currentTimeMillis() - retencionMs;
+        trabajos.values().removeIf(trabajo -> trabajo.finalizado > 0 && trabajo.finalizado < limite);
+    }
+
+    /**
+     * Función auxiliar que ejecuta la generación en el hilo del ejecutor y registra su resultado.
+     *
+     * @param trabajo trabajo a ejecutar
+     * @param request datos del menú para generar la lista
+     */
+    private void ejecutar(Trabajo trabajo, GenerarListaDto request) {
+        trabajo.estado = EstadoTrabajo.EN_CURSO;
+        try {
+            trabajo.resultado = request.isVinculada()
+                    ? listaCompraService.generarListaVinculada(request.getMenuId(), trabajo.usuarioId)
+                    : listaCompraService.generarListaCompra(request.getMenuId(), trabajo.usuarioId);
+            trabajo.estado = EstadoTrabajo.COMPLETADO;
+        } catch (ProcesoException e) {
+            trabajo.error = e.getMessage();
+            trabajo.estado = EstadoTrabajo.ERROR;
+        } catch (Exception e) {
+            logger.error("Error en la generación asíncrona de la lista del trabajo {}", trabajo.id, e);
+            trabajo.error = "Error al generar la lista de la compra";
+            trabajo.estado = EstadoTrabajo.ERROR;
+        } finally {
+            trabajo.finalizado = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Estado en memoria de un trabajo de generación.
+     */
+    private static final class Trabajo {
+        private final String id;
+        private final Long menuId;
+        private final Long usuarioId;
+        private volatile EstadoTrabajo estado = EstadoTrabajo.PENDIENTE;
+        private volatile ListaCompraDto resultado;
+        private volatile String error;
+        private volatile long finalizado;
+
+        private Trabajo(String id, Long menuId, Long usuarioId) {
+            this.id = id;
+            this.menuId = menuId;
+            this.usuarioId = usuarioId;
+        }
+
+        private TrabajoGeneracionDto toDto() {
+            return TrabajoGeneracionDto.builder()
+                    .id(id)
+                    .menuId(menuId)
+                    .estado(estado)
+                    .resultado(resultado)
+                    .error(error)
+                    .build();
+        }
+    }
+}
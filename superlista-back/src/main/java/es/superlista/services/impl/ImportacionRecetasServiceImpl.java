@@ -0,0 +1,561 @@
+package es.superlista.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.superlista.domain.dto.ErrorImportacionDto;
+import es.superlista.domain.dto.IngredienteSimpleDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.dto.ResultadoImportacionDto;
+import es.superlista.domain.entity.Ingrediente;
+import es.superlista.domain.entity.Receta;
+import es.superlista.domain.mapper.IngredienteSimpleMapper;
+import es.superlista.domain.mapper.RecetaMapper;
+import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.exception.ProcesoException;
+import es.superlista.services.ImportacionRecetasService;
+import es.superlista.utils.Numeros;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación del servicio {@link ImportacionRecetasService}.
+ * <p>
+ * El fichero se lee línea a línea y solo se mantiene en memoria el lote en curso: cada lote se guarda en su propia
+ * transacción, resolviendo sus ingredientes con consultas IN y creando los que faltan en una sola inserción por lotes,
+ * y después se vacía el contexto de persistencia. Los ingredientes ya resueltos se recuerdan por nombre normalizado
+ * durante toda la importación (con capacidad acotada), de modo que cada ingrediente se busca o crea una sola vez.
+ * <p>
+ * Un registro que no se puede interpretar o validar se anota como error y se continúa. Si un lote falla al guardarse,
+ * se reintenta registro a registro para aislar los que provocan el fallo sin perder el resto.
+ */
+@Service
+public class ImportacionRecetasServiceImpl implements ImportacionRecetasService {
+
+    /**
+     * Logger para registrar trazas de error y diagnóstico.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionRecetasServiceImpl.class);
+
+    private final RecetaRepository recetaRepository;
+    private final IngredienteRepository ingredienteRepository;
+    private final RecetaMapper recetaMapper;
+    private final IngredienteSimpleMapper ingredienteSimpleMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaccion;
+    private final ApplicationEventPublisher eventos;
+    private final int tamanoLote;
+    private final int maxErrores;
+    private final int capacidadIngredientes;
+
+    private final Counter registrosLeidos;
+    private final Counter recetasImportadas;
+    private final Counter registrosFallidos;
+    private final Counter ingredientesCreados;
+    private final Timer duracionLote;
+    private final Timer duracion;
+
+    /**
+     * Constructor que inyecta los repositorios, los mappers, las métricas y la configuración de la importación.
+     *
+     * @param recetaRepository        repositorio de recetas
+     * @param ingredienteRepository   repositorio de ingredientes
+     * @param recetaMapper            mapper de recetas
+     * @param ingredienteSimpleMapper mapper de ingredientes simples
+     * @param objectMapper            lector JSON de cada registro
+     * @param entityManager           contexto de persistencia, que se vacía tras cada lote
+     * @param transactionManager      gestor de transacciones
+     * @param meterRegistry           registro de métricas
+     * @param eventos                 publicador de las recetas e ingredientes importados para los índices
+     * @param tamanoLote              número de recetas guardadas en cada transacción
+     * @param maxErrores              número máximo de errores detallados en el resultado
+     * @param capacidadIngredientes   número máximo de ingredientes recordados durante la importación
+     */
+    public ImportacionRecetasServiceImpl(RecetaRepository recetaRepository,
+                                         IngredienteRepository ingredienteRepository,
+                                         RecetaMapper recetaMapper,
+                                         IngredienteSimpleMapper ingredienteSimpleMapper,
+                                         ObjectMapper objectMapper,
+                                         EntityManager entityManager,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         ApplicationEventPublisher eventos,
+                                         @Value("${superlista.importacion.recetas.tamano-lote:500}") int tamanoLote,
+                                         @Value("${superlista.importacion.recetas.max-errores:1000}") int maxErrores,
+                                         @Value("${superlista.importacion.recetas.capacidad-ingredientes:100000}") int capacidadIngredientes) {
+        this.recetaRepository = recetaRepository;
+        this.ingredienteRepository = ingredienteRepository;
+        this.recetaMapper = recetaMapper;
+        this.ingredienteSimpleMapper = ingredienteSimpleMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.eventos = eventos;
+        this.tamanoLote = tamanoLote;
+        this.maxErrores = maxErrores;
+        this.capacidadIngredientes = capacidadIngredientes;
+
+        this.registrosLeidos = Counter.builder("superlista.importacion.recetas.leidas")
+                .description("Registros leídos por la importación de recetas")
+                .register(meterRegistry);
+        this.recetasImportadas = Counter.builder("superlista.importacion.recetas.importadas")
+                .description("Recetas guardadas por la importación de recetas")
+                .register(meterRegistry);
+        this.registrosFallidos = Counter.builder("superlista.importacion.recetas.fallidas")
+                .description("Registros descartados por la importación de recetas")
+                .register(meterRegistry);
+        this.ingredientesCreados = Counter.builder("superlista.importacion.recetas.ingredientes")
+                .description("Ingredientes creados por la importación de recetas")
+                .register(meterRegistry);
+        this.duracionLote = Timer.builder("superlista.importacion.recetas.lote")
+                .description("Duración del guardado de cada lote de recetas")
+                .register(meterRegistry);
+        this.duracion = Timer.builder("superlista.importacion.recetas.duracion")
+                .description("Duración de cada importación de recetas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultadoImportacionDto importar(InputStream ndjson) {
+        Importacion importacion = new Importacion(maxErrores, capacidadIngredientes);
+        long inicio = System.nanoTime();
+        long numeroLinea = 0;
+
+        // 1. Leer línea a línea, acumulando solo el lote en curso
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            List<Registro> lote = new ArrayList<>(tamanoLote);
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                importacion.leidos++;
+                registrosLeidos.increment();
+                Registro registro = leer(numeroLinea, linea, importacion);
+                if (registro != null) {
+                    lote.add(registro);
+                }
+                if (lote.size() >= tamanoLote) {
+                    procesar(lote, importacion);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                procesar(lote, importacion);
+            }
+        } catch (IOException e) {
+            // Los lotes ya guardados se conservan: se informa del corte en lugar de descartar el resultado
+            logger.error("Importación de recetas interrumpida en la línea {}", numeroLinea + 1, e);
+            importacion.error(numeroLinea + 1, null, "Lectura interrumpida: " + e.getMessage());
+        }
+
+        // 2. Totales y rendimiento
+        long nanos = System.nanoTime() - inicio;
+        duracion.record(nanos, TimeUnit.NANOSECONDS);
+        double segundos = nanos / 1_000_000_000.0;
+        logger.info("Importación de recetas: {} leídas, {} importadas, {} fallidas en {} ms",
+                importacion.leidos, importacion.importadas, importacion.fallidos, TimeUnit.NANOSECONDS.toMillis(nanos));
+        return ResultadoImportacionDto.builder()
+                .leidos(importacion.leidos)
+                .importadas(importacion.importadas)
+                .fallidos(importacion.fallidos)
+                .ingredientesCreados(importacion.ingredientesCreados)
+                .errores(importacion.errores)
+                .duracionMs(TimeUnit.NANOSECONDS.toMillis(nanos))
+                .registrosPorSegundo(segundos > 0 ? importacion.leidos / segundos : 0)
+                .build();
+    }
+
+    /**
+     * Función auxiliar para interpretar y validar un registro. Si no es válido se anota el error.
+     *
+     * @param numeroLinea número de línea del registro
+     * @param linea       contenido de la línea
+     * @param importacion estado de la importación
+     * @return registro válido, o nulo si se ha descartado
+     */
+    private Registro leer(long numeroLinea, String linea, Importacion importacion) {
+        RecetaDto dto;
+        try {
+            dto = objectMapper.readValue(linea, RecetaDto.class);
+        } catch (JsonProcessingException e) {
+            importacion.error(numeroLinea, null, "JSON no válido: " + e.getOriginalMessage());
+            registrosFallidos.increment();
+            return null;
+        }
+        String motivo = validar(dto);
+        if (motivo != null) {
+            importacion.error(numeroLinea, dto == null ? null : dto.getNombre(), motivo);
+            registrosFallidos.increment();
+            return null;
+        }
+        return new Registro(numeroLinea, dto);
+    }
+
+    /**
+     * Función auxiliar para validar los datos de una receta antes de guardarla.
+     *
+     * @param dto DTO de la receta
+     * @return motivo por el que no es válida, o nulo si lo es
+     */
+    private static String validar(RecetaDto dto) {
+        if (dto == null || dto.getNombre() == null || dto.getNombre().isBlank()) {
+            return "La receta no tiene nombre";
+        }
+        if (dto.getNombre().length() > Numeros.CINCUENTA) {
+            return "El nombre de la receta supera " + Numeros.CINCUENTA + " caracteres";
+        }
+        if (dto.getIngredientes() == null) {
+            return null;
+        }
+        for (IngredienteSimpleDto ingrediente : dto.getIngredientes()) {
+            if (ingrediente == null || ingrediente.getId() == null
+                    && (ingrediente.getNombre() == null || ingrediente.getNombre().isBlank())) {
+                return "Hay un ingrediente sin identificador ni nombre";
+            }
+            if (ingrediente.getNombre() != null && ingrediente.getNombre().length() > Numeros.CINCUENTA) {
+                return "El nombre del ingrediente " + ingrediente.getNombre() + " supera " + Numeros.CINCUENTA + " caracteres";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Función auxiliar para guardar un lote. Si falla, se reintenta registro a registro en transacciones
+     * independientes, de forma que solo se descartan los registros que provocan el error.
+     *
+     * @param lote        registros del lote
+     * @param importacion estado de la importación
+     */
+    private void procesar(List<Registro> lote, Importacion importacion) {
+        Timer.Sample muestra = Timer.start();
+        try {
+            guardar(lote, importacion);
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                fallo(lote.get(0), e, importacion);
+            } else {
+                logger.warn("Fallo al guardar un lote de {} recetas, se reintenta registro a registro: {}",
+                        lote.size(), e.getMessage());
+                entityManager.clear();
+                for (Registro registro : lote) {
+                    try {
+                        guardar(List.of(registro), importacion);
+                    } catch (RuntimeException ex) {
+                        fallo(registro, ex, importacion);
+                    } finally {
+                        entityManager.clear();
+                    }
+                }
+            }
+        } finally {
+            // El contexto de persistencia puede sobrevivir a la transacción (open-in-view): se vacía en cada lote
+            entityManager.clear();
+            muestra.stop(duracionLote);
+        }
+    }
+
+    /**
+     * Función auxiliar para guardar un lote de recetas en una transacción. Los ingredientes resueltos solo se
+     * recuerdan si la transacción se confirma.
+     *
+     * @param lote        registros del lote
+     * @param importacion estado de la importación
+     */
+    private void guardar(List<Registro> lote, Importacion importacion) {
+        Lote resultado = transaccion.execute(status -> {
+            // 1. Descartar las recetas que ya existen o que se repiten dentro del lote
+            Set<String> nombres = lote.stream()
+                    .map(registro -> normalizar(registro.dto().getNombre()))
+                    .collect(Collectors.toSet());
+            Set<String> existentes = new HashSet<>(recetaRepository.findNombresMinusculasIn(nombres));
+            Set<String> vistas = new HashSet<>();
+            List<Registro> validos = new ArrayList<>();
+            List<Registro> repetidos = new ArrayList<>();
+            for (Registro registro : lote) {
+                String nombre = normalizar(registro.dto().getNombre());
+                if (existentes.contains(nombre) || !vistas.add(nombre)) {
+                    repetidos.add(registro);
+                } else {
+                    validos.add(registro);
+                }
+            }
+
+            // 2. Resolver los ingredientes del lote y crear los que faltan
+            Lote nuevo = new Lote(validos.size(), repetidos);
+            resolverIngredientes(validos, importacion, nuevo);
+
+            // 3. Guardar las recetas referenciando los ingredientes sin cargarlos
+            List<Receta> recetas = new ArrayList<>(validos.size());
+            for (Registro registro : validos) {
+                Receta receta = recetaMapper.toEntity(registro.dto());
+                receta.setId(null);
+                List<Ingrediente> ingredientes = new ArrayList<>();
+                if (registro.dto().getIngredientes() != null) {
+                    for (IngredienteSimpleDto ingDto : registro.dto().getIngredientes()) {
+                        ingredientes.add(ingredienteRepository.getReferenceById(idDe(ingDto, importacion, nuevo)));
+                    }
+                }
+                receta.setIngredientes(ingredientes);
+                recetas.add(receta);
+            }
+            recetaRepository.saveAll(recetas);
+            entityManager.flush();
+            // El índice relee las recetas del lote con sus ingredientes en una sola consulta al confirmarse
+            eventos.publishEvent(RecetasModificadasEvent.recargar(recetas.stream().map(Receta::getId).toList()));
+            return nuevo;
+        });
+        if (resultado == null) {
+            return;
+        }
+
+        // 4. Confirmado el lote: recordar los ingredientes y anotar los resultados
+        importacion.recordar(resultado);
+        recetasImportadas.increment(resultado.importadas);
+        ingredientesCreados.increment(resultado.creados);
+        for (Registro repetido : resultado.repetidos) {
+            importacion.error(repetido.linea(), repetido.dto().getNombre(), "Ya existe una receta con ese nombre");
+            registrosFallidos.increment();
+        }
+    }
+
+    /**
+     * Función auxiliar para resolver los ingredientes de un lote: primero por identificador y después por nombre
+     * normalizado, con una consulta IN para cada criterio y solo para los que no se recuerdan ya. Los que no existen
+     * se crean en una única inserción por lotes, una vez por nombre.
+     *
+     * @param registros   registros válidos del lote
+     * @param importacion estado de la importación
+     * @param lote        resultado del lote, donde se anotan los ingredientes resueltos
+     */
+    private void resolverIngredientes(List<Registro> registros, Importacion importacion, Lote lote) {
+        List<IngredienteSimpleDto> ingredientes = registros.stream()
+                .filter(registro -> registro.dto().getIngredientes() != null)
+                .flatMap(registro -> registro.dto().getIngredientes().stream())
+                .toList();
+
+        // 1. Identificadores no recordados
+        Set<Long> ids = ingredientes.stream()
+                .map(IngredienteSimpleDto::getId)
+                .filter(id -> id != null && !importacion.ids.contains(id))
+                .collect(Collectors.toSet());
+        if (!ids.isEmpty()) {
+            for (Ingrediente ingrediente : ingredienteRepository.findAllById(ids)) {
+                lote.ids.add(ingrediente.getId());
+                lote.nombres.put(normalizar(ingrediente.getNombre()), ingrediente.getId());
+            }
+        }
+
+        // 2. Nombres no recordados de los ingredientes sin identificador válido
+        Set<String> nombres = ingredientes.stream()
+                .filter(ingDto -> !conocido(ingDto.getId(), importacion, lote))
+                .map(ImportacionRecetasServiceImpl::nombreDe)
+                .filter(nombre -> !importacion.nombres.containsKey(nombre) && !lote.nombres.containsKey(nombre))
+                .collect(Collectors.toSet());
+        if (nombres.isEmpty()) {
+            return;
+        }
+        for (Ingrediente ingrediente : ingredienteRepository.findByNombreMinusculasIn(nombres)) {
+            lote.nombres.put(normalizar(ingrediente.getNombre()), ingrediente.getId());
+        }
+
+        // 3. Crear de una vez los que no existen
+        Map<String, Ingrediente> nuevos = new LinkedHashMap<>();
+        for (IngredienteSimpleDto ingDto : ingredientes) {
+            if (conocido(ingDto.getId(), importacion, lote)) {
+                continue;
+            }
+            String nombre = nombreDe(ingDto);
+            if (nombres.contains(nombre) && !lote.nombres.containsKey(nombre)) {
+                nuevos.computeIfAbsent(nombre, n -> {
+                    Ingrediente ingrediente = ingredienteSimpleMapper.toEntity(ingDto);
+                    ingrediente.setId(null);
+                    return ingrediente;
+                });
+            }
+        }
+        if (!nuevos.isEmpty()) {
+            ingredienteRepository.saveAll(nuevos.values());
+            eventos.publishEvent(IngredientesModificadosEvent.guardados(nuevos.values()));
+            nuevos.forEach((nombre, ingrediente) -> lote.nombres.put(nombre, ingrediente.getId()));
+            lote.creados = nuevos.size();
+        }
+    }
+
+    /**
+     * Función auxiliar para obtener el identificador con el que se asocia un ingrediente a su receta.
+     *
+     * @param ingDto      DTO del ingrediente
+     * @param importacion estado de la importación
+     * @param lote        resultado del lote en curso
+     * @return identificador del ingrediente
+     */
+    private static Long idDe(IngredienteSimpleDto ingDto, Importacion importacion, Lote lote) {
+        if (conocido(ingDto.getId(), importacion, lote)) {
+            return ingDto.getId();
+        }
+        String nombre = nombreDe(ingDto);
+        Long id = lote.nombres.get(nombre);
+        return id != null ? id : importacion.nombres.get(nombre);
+    }
+
+    /**
+     * Función auxiliar para comprobar si un identificador de ingrediente existe según lo resuelto hasta ahora.
+     *
+     * @param id          identificador del ingrediente (puede ser nulo)
+     * @param importacion estado de la importación
+     * @param lote        resultado del lote en curso
+     * @return true si el ingrediente existe
+     */
+    private static boolean conocido(Long id, Importacion importacion, Lote lote) {
+        return id != null && (importacion.ids.contains(id) || lote.ids.contains(id));
+    }
+
+    /**
+     * Función auxiliar para anotar un registro que no se pudo guardar.
+     *
+     * @param registro    registro fallido
+     * @param e           excepción producida
+     * @param importacion estado de la importación
+     */
+    private void fallo(Registro registro, RuntimeException e, Importacion importacion) {
+        Throwable causa = e;
+        while (causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        importacion.error(registro.linea(), registro.dto().getNombre(), "No se pudo guardar: " + causa.getMessage());
+        registrosFallidos.increment();
+    }
+
+    /**
+     * Función auxiliar para obtener el nombre normalizado de un ingrediente que no se ha resuelto por identificador.
+     *
+     * @param ingDto DTO del ingrediente
+     * @return nombre normalizado
+     * @throws ProcesoException si el ingrediente no tiene nombre
+     */
+    private static String nombreDe(IngredienteSimpleDto ingDto) {
+        if (ingDto.getNombre() == null) {
+            throw new ProcesoException("El ingrediente " + ingDto.getId() + " no existe y no tiene nombre para crearlo");
+        }
+        return normalizar(ingDto.getNombre());
+    }
+
+    /**
+     * Función auxiliar para normalizar un nombre de receta o ingrediente (en minúsculas), igual que lo comparan
+     * las consultas por nombre.
+     *
+     * @param nombre nombre a normalizar
+     * @return nombre normalizado
+     */
+    private static String normalizar(String nombre) {
+        return nombre.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registro leído del fichero.
+     *
+     * @param linea número de línea
+     * @param dto   receta leída
+     */
+    private record Registro(long linea, RecetaDto dto) {
+    }
+
+    /**
+     * Resultado de un lote, que solo se incorpora a la importación si su transacción se confirma.
+     */
+    private static final class Lote {
+
+        private final int importadas;
+        private final List<Registro> repetidos;
+        /**
+         * Identificadores de ingrediente resueltos por nombre normalizado.
+         */
+        private final Map<String, Long> nombres = new HashMap<>();
+        /**
+         * Identificadores de ingrediente cuya existencia se ha comprobado.
+         */
+        private final Set<Long> ids = new HashSet<>();
+        private int creados;
+
+        Lote(int importadas, List<Registro> repetidos) {
+            this.importadas = importadas;
+            this.repetidos = repetidos;
+        }
+    }
+
+    /**
+     * Estado de una importación en curso: totales, errores detallados e ingredientes recordados.
+     */
+    private static final class Importacion {
+
+        private final int maxErrores;
+        private final List<ErrorImportacionDto> errores = new ArrayList<>();
+        private final Map<String, Long> nombres;
+        private final Set<Long> ids;
+        private long leidos;
+        private long importadas;
+        private long fallidos;
+        private long ingredientesCreados;
+
+        Importacion(int maxErrores, int capacidadIngredientes) {
+            this.maxErrores = maxErrores;
+            this.nombres = crearLru(capacidadIngredientes);
+            this.ids = Collections.newSetFromMap(crearLru(capacidadIngredientes));
+        }
+
+        void error(long linea, String receta, String mensaje) {
+            fallidos++;
+            if (errores.size() < maxErrores) {
+                errores.add(new ErrorImportacionDto(linea, receta, mensaje));
+            }
+        }
+
+        void recordar(Lote lote) {
+            importadas += lote.importadas;
+            ingredientesCreados += lote.creados;
+            nombres.putAll(lote.nombres);
+            ids.addAll(lote.ids);
+        }
+
+        private static <K, V> Map<K, V> crearLru(int capacidad) {
+            return new LinkedHashMap<>(Math.min(capacidad, 1024), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > capacidad;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.SugerenciaDto;
+import es.superlista.domain.entity.Ingrediente;
+import es.superlista.domain.enumeration.TipoSugerencia;
+import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.utils.Textos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice en memoria para autocompletar por prefijo los nombres de recetas e ingredientes, sin distinguir
+ * mayúsculas ni tildes ("salm" sugiere "Salmón").
+ * <p>
+ * Los nombres se guardan plegados con {@link Textos#plegar(String)} en mapas ordenados: uno por el nombre completo
+ * y otro por cada palabra del nombre a partir de la segunda ("salm" también sugiere "Tartar de salmón"). Un prefijo
+ * se resuelve recorriendo el rango de claves que empiezan por él hasta reunir las sugerencias pedidas, así que el
+ * coste depende del número de sugerencias y no del de nombres. Primero se sugieren los nombres que empiezan por el
+ * texto y después los que lo tienen al principio de otra palabra, en orden alfabético.
+ * <p>
+ * Las recetas las mantiene {@link IndiceRecetas} al indexarlas; los ingredientes se cargan al arrancar la aplicación
+ * y se mantienen con {@link IngredientesModificadosEvent} al confirmarse cada transacción que los modifica. Las
+ * lecturas no se bloquean; las escrituras, poco frecuentes, se serializan.
+ */
+@Component
+public class IndiceAutocompletado {
+
+    /**
+     * Logger para registrar trazas de error y diagnóstico.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(IndiceAutocompletado.class);
+
+    /**
+     * Separa el nombre plegado de la identificación del elemento en las claves; al ser el menor carácter,
+     * un nombre se ordena antes que los nombres más largos que empiezan por él.
+     */
+    private static final char SEPARADOR = '\u0000';
+
+    private final IngredienteRepository ingredienteRepository;
+
+    /**
+     * Sugerencias por nombre plegado completo.
+     */
+    private final ConcurrentNavigableMap<String, SugerenciaDto> nombres = new ConcurrentSkipListMap<>();
+
+    /**
+     * Sugerencias por el resto del nombre plegado desde cada palabra que no es la primera.
+     */
+    private final ConcurrentNavigableMap<String, SugerenciaDto> palabras = new ConcurrentSkipListMap<>();
+
+    /**
+     * Nombre plegado de cada elemento indexado, para quitar sus claves cuando cambia o se elimina.
+     */
+    private final Map<String, String> indexados = new ConcurrentHashMap<>();
+
+    /**
+     * Cambios de ingredientes recibidos mientras se hace la carga inicial, que se aplican al terminarla.
+     */
+    private final List<IngredientesModificadosEvent> pendientes = new ArrayList<>();
+
+    private boolean ingredientesCargados;
+
+    /**
+     * Constructor que inyecta el repositorio de ingredientes.
+     *
+     * @param ingredienteRepository repositorio de ingredientes
+     */
+    public IndiceAutocompletado(IngredienteRepository ingredienteRepository) {
+        this.ingredienteRepository = ingredienteRepository;
+    }
+
+    /**
+     * Carga todos los ingredientes al arrancar la aplicación (después de los datos iniciales).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargarIngredientes() {
+        long inicio = System.nanoTime();
+        List<Ingrediente> ingredientes = ingredienteRepository.findAll();
+        synchronized (this) {
+            ingredientes.forEach(i -> poner(TipoSugerencia.INGREDIENTE, i.getId(), i.getNombre()));
+            // Los cambios confirmados durante la carga pueden no estar en la lectura: se aplican encima
+            pendientes.forEach(this::aplicar);
+            pendientes.clear();
+            ingredientesCargados = true;
+        }
+        logger.info("Autocompletado cargado: {} ingredientes en {} ms",
+                ingredientes.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Actualiza el índice cuando se confirma una transacción que ha modificado ingredientes.
+     *
+     * @param evento ingredientes modificados
+     */
+    @TransactionalEventListener
+    public synchronized void alModificarIngredientes(IngredientesModificadosEvent evento) {
+        if (ingredientesCargados) {
+            aplicar(evento);
+        } else {
+            pendientes.add(evento);
+        }
+    }
+
+    /**
+     * Devuelve las primeras sugerencias cuyo nombre, o alguna de sus palabras, empieza por el texto indicado.
+     *
+     * @param texto  texto escrito por el usuario
+     * @param limite número máximo de sugerencias
+     * @return sugerencias, primero las que empiezan por el texto y después las que lo tienen en otra palabra
+     */
+    public List<SugerenciaDto> sugerir(String texto, int limite) {
+        String prefijo = Textos.plegar(texto).strip();
+        if (prefijo.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        Set<SugerenciaDto> sugerencias = new LinkedHashSet<>();
+        recorrer(nombres, prefijo, limite, sugerencias);
+        recorrer(palabras, prefijo, limite, sugerencias);
+        return new ArrayList<>(sugerencias);
+    }
+
+    /**
+     * Añade o sustituye un elemento del índice.
+     *
+     * @param tipo   tipo del elemento
+     * @param id     identificador del elemento
+     * @param nombre nombre del elemento, sin plegar
+     */
+    public synchronized void poner(TipoSugerencia tipo, Long id, String nombre) {
+        if (id == null || nombre == null) {
+            return;
+        }
+        quitar(tipo, id);
+        String sufijo = sufijo(tipo, id);
+        String plegado = Textos.plegar(nombre).strip();
+        SugerenciaDto sugerencia = new SugerenciaDto(tipo, id, nombre);
+        nombres.put(plegado + sufijo, sugerencia);
+        for (int inicio : iniciosDePalabra(plegado)) {
+            palabras.put(plegado.substring(inicio) + sufijo, sugerencia);
+        }
+        indexados.put(sufijo, plegado);
+    }
+
+    /**
+     * Quita un elemento del índice, si está.
+     *
+     * @param tipo tipo del elemento
+     * @param id   identificador del elemento
+     */
+    public synchronized void quitar(TipoSugerencia tipo, Long id) {
+        String sufijo = sufijo(tipo, id);
+        String plegado = indexados.remove(sufijo);
+        if (plegado == null) {
+            return;
+        }
+        nombres.remove(plegado + sufijo);
+        for (int inicio : iniciosDePalabra(plegado)) {
+            palabras.remove(plegado.substring(inicio) + sufijo);
+        }
+    }
+
+    /**
+     * Función auxiliar para aplicar los cambios de ingredientes de un evento. Debe llamarse sincronizada.
+     *
+     * @param evento ingredientes modificados
+     */
+    private void aplicar(IngredientesModificadosEvent evento) {
+        evento.eliminados().forEach(id -> quitar(TipoSugerencia.INGREDIENTE, id));
+        evento.guardados().forEach((id, nombre) -> poner(TipoSugerencia.INGREDIENTE, id, nombre));
+    }
+
+    /**
+     * Función auxiliar para añadir las sugerencias de las claves que empiezan por un prefijo, sin repetir
+     * elementos y hasta alcanzar el límite.
+     *
+     * @param mapa        mapa ordenado a recorrer
+     * @param prefijo     prefijo plegado
+     * @param limite      número máximo de sugerencias
+     * @param sugerencias sugerencias reunidas hasta ahora
+     */
+    private static void recorrer(ConcurrentNavigableMap<String, SugerenciaDto> mapa, String prefijo, int limite,
+                                 Set<SugerenciaDto> sugerencias) {
+        for (SugerenciaDto sugerencia : mapa.subMap(prefijo, prefijo + Character.MAX_VALUE).values()) {
+            if (sugerencias.size() >= limite) {
+                return;
+            }
+            sugerencias.add(sugerencia);
+        }
+    }
+
+    /**
+     * Función auxiliar para obtener la parte de la clave que identifica al elemento.
+     *
+     * @param tipo tipo del elemento
+     * @param id   identificador del elemento
+     * @return sufijo de las claves del elemento
+     */
+    private static String sufijo(TipoSugerencia tipo, Long id) {
+        return SEPARADOR + tipo.name() + SEPARADOR + id;
+    }
+
+    /**
+     * Función auxiliar para obtener las posiciones donde empieza cada palabra de un nombre, salvo la primera.
+     *
+     * @param plegado nombre plegado
+     * @return posiciones de inicio de palabra
+     */
+    private static List<Integer> iniciosDePalabra(String plegado) {
+        List<Integer> inicios = new ArrayList<>();
+        for (int i = 1; i < plegado.length(); i++) {
+            if (Character.isLetterOrDigit(plegado.charAt(i)) && !Character.isLetterOrDigit(plegado.charAt(i - 1))) {
+                inicios.add(i);
+            }
+        }
+        return inicios;
+    }
+}
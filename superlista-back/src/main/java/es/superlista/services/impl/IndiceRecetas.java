@@ -0,0 +1,528 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.IngredienteSimpleDto;
+import es.superlista.domain.dto.RecetaDisponibleDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.enumeration.TipoSugerencia;
+import es.superlista.domain.mapper.RecetaMapper;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.utils.Textos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de trigramas sobre los nombres de las recetas, para buscar por fragmento del nombre sin
+ * recorrer la tabla RECETA con {@code LIKE '%texto%'}.
+ * <p>
+ * Cada receta ocupa una posición fija y cada trigrama de su nombre plegado (sin mayúsculas ni tildes) guarda la lista ordenada de posiciones
+ * que lo contienen. Una búsqueda intersecta las listas de los trigramas del texto empezando por la más corta,
+ * comprueba que el nombre contiene el texto y ordena por calidad de la coincidencia. Los textos de menos de tres
+ * caracteres, que no forman trigramas, se resuelven recorriendo los nombres.
+ * <p>
+ * Además guarda un índice invertido de ingrediente a recetas (el contenido de RECETA_INGREDIENTES) para clasificar
+ * las recetas por los ingredientes que el usuario tiene en la despensa sin agrupar la tabla en cada consulta.
+ * <p>
+ * El índice se carga al arrancar la aplicación y se mantiene con {@link RecetasModificadasEvent} al confirmarse cada
+ * transacción que modifica recetas. Guarda el DTO de cada receta para responder sin consultar la base de datos, y
+ * mantiene los nombres de las recetas en {@link IndiceAutocompletado}.
+ */
+@Component
+public class IndiceRecetas {
+
+    /**
+     * Logger para registrar trazas de error y diagnóstico.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(IndiceRecetas.class);
+
+    private static final int N = 3;
+
+    private final RecetaRepository recetaRepository;
+    private final RecetaMapper recetaMapper;
+    private final IndiceAutocompletado autocompletado;
+    private final ReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    /**
+     * Recetas por posición; las posiciones de las recetas eliminadas quedan a nulo.
+     */
+    private final List<Entrada> entradas = new ArrayList<>();
+
+    /**
+     * Posición de cada receta por identificador.
+     */
+    private final Map<Long, Integer> posiciones = new HashMap<>();
+
+    /**
+     * Posiciones ordenadas de las recetas que contienen cada trigrama.
+     */
+    private final Map<String, Posiciones> trigramas = new HashMap<>();
+
+    /**
+     * Posiciones ordenadas de las recetas que usan cada ingrediente, por identificador del ingrediente.
+     */
+    private final Map<Long, Posiciones> porIngrediente = new HashMap<>();
+
+    /**
+     * Cambios recibidos mientras se hace la carga inicial, que se aplican al terminarla.
+     */
+    private final List<RecetasModificadasEvent> pendientes = new ArrayList<>();
+
+    private volatile boolean listo;
+
+    /**
+     * Constructor que inyecta el repositorio y el mapper de recetas.
+     *
+     * @param recetaRepository repositorio de recetas
+     * @param recetaMapper     mapper de recetas
+     * @param autocompletado   índice de autocompletado, al que se pasan los nombres de las recetas
+     */
+    public IndiceRecetas(RecetaRepository recetaRepository, RecetaMapper recetaMapper, IndiceAutocompletado autocompletado) {
+        this.recetaRepository = recetaRepository;
+        this.recetaMapper = recetaMapper;
+        this.autocompletado = autocompletado;
+    }
+
+    /**
+     * Carga todas las recetas al arrancar la aplicación (después de los datos iniciales).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        long inicio = System.nanoTime();
+        List<RecetaDto> recetas = recetaRepository.findAllConIngredientes().stream()
+                .map(recetaMapper::toDto)
+                .toList();
+
+        bloqueo.writeLock().lock();
+        try {
+            entradas.clear();
+            posiciones.clear();
+            trigramas.clear();
+            porIngrediente.clear();
+            recetas.forEach(this::poner);
+            // Los cambios confirmados durante la carga pueden no estar en la lectura: se aplican encima
+            pendientes.forEach(this::aplicar);
+            pendientes.clear();
+            listo = true;
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        logger.info("Índice de recetas cargado: {} recetas, {} trigramas y {} ingredientes en {} ms",
+                recetas.size(), trigramas.size(), porIngrediente.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Actualiza el índice cuando se confirma una transacción que ha modificado recetas. Las recetas a recargar
+     * se leen en una transacción nueva, ya que la original ha terminado.
+     *
+     * @param evento recetas modificadas
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void alModificarRecetas(RecetasModificadasEvent evento) {
+        List<RecetaDto> recargadas = evento.recargar().isEmpty() ? List.of()
+                : recetaRepository.findAllConIngredientesByIdIn(evento.recargar()).stream()
+                .map(recetaMapper::toDto)
+                .toList();
+        RecetasModificadasEvent cambios = new RecetasModificadasEvent(
+                concatenar(evento.guardadas(), recargadas), evento.eliminadas(), List.of());
+
+        bloqueo.writeLock().lock();
+        try {
+            if (listo) {
+                aplicar(cambios);
+            } else {
+                pendientes.add(cambios);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true si el índice ha terminado la carga inicial y puede responder búsquedas
+     */
+    public boolean isListo() {
+        return listo;
+    }
+
+    /**
+     * Busca las recetas cuyo nombre contiene el texto indicado, sin distinguir mayúsculas ni tildes. Los resultados se
+     * ordenan por calidad: nombre igual al texto, nombre que empieza por el texto, palabra que empieza por el
+     * texto y resto; a igualdad, primero los nombres más cortos.
+     *
+     * @param texto texto a buscar
+     * @return recetas encontradas, de mejor a peor coincidencia
+     */
+    public List<RecetaDto> buscar(String texto) {
+        String consulta = normalizar(texto);
+        bloqueo.readLock().lock();
+        try {
+            List<Entrada> encontradas = consulta.length() < N ? recorrer(consulta) : intersectar(consulta);
+            encontradas.sort(Comparator
+                    .comparingInt((Entrada e) -> calidad(e.nombre(), consulta))
+                    .thenComparingInt(e -> e.nombre().length())
+                    .thenComparing(Entrada::nombre));
+            return encontradas.stream().map(Entrada::receta).toList();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clasifica las recetas que usan alguno de los ingredientes indicados por su cobertura: primero las que se
+     * pueden cocinar con ellos y después las que tienen menos ingredientes sin cubrir; a igualdad, las que
+     * aprovechan más ingredientes de la despensa y por nombre.
+     * <p>
+     * Se cuentan los aciertos de cada receta recorriendo las listas del índice invertido, así que el coste depende
+     * del número de recetas que usan esos ingredientes, y solo se ordenan las {@code limite} mejores.
+     *
+     * @param ingredienteIds identificadores de los ingredientes de la despensa
+     * @param limite         número máximo de recetas
+     * @return recetas con sus ingredientes disponibles y faltantes, de mejor a peor cobertura
+     */
+    public List<RecetaDisponibleDto> buscarPorDespensa(Collection<Long> ingredienteIds, int limite) {
+        if (limite <= 0) {
+            return List.of();
+        }
+        Set<Long> despensa = new HashSet<>(ingredienteIds);
+        bloqueo.readLock().lock();
+        try {
+            int[] aciertos = new int[entradas.size()];
+            List<Integer> candidatas = new ArrayList<>();
+            for (Long ingredienteId : despensa) {
+                Posiciones lista = porIngrediente.get(ingredienteId);
+                if (lista == null) {
+                    continue;
+                }
+                for (int i = 0; i < lista.tamano(); i++) {
+                    int posicion = lista.valor(i);
+                    if (aciertos[posicion]++ == 0) {
+                        candidatas.add(posicion);
+                    }
+                }
+            }
+
+            Comparator<Integer> orden = Comparator
+                    .comparingInt((Integer p) -> entradas.get(p).ingredientes().length - aciertos[p])
+                    .thenComparingInt(p -> -aciertos[p])
+                    .thenComparing(p -> entradas.get(p).nombre());
+            // Montículo con la peor arriba: conserva las mejores sin ordenar todas las candidatas
+            PriorityQueue<Integer> mejores = new PriorityQueue<>(orden.reversed());
+            for (Integer posicion : candidatas) {
+                mejores.add(posicion);
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+            List<Integer> ordenadas = new ArrayList<>(mejores);
+            ordenadas.sort(orden);
+            return ordenadas.stream()
+                    .map(p -> disponible(entradas.get(p), aciertos[p], despensa))
+                    .toList();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Función auxiliar para buscar un texto de al menos tres caracteres intersectando las listas de sus trigramas.
+     *
+     * @param consulta texto normalizado
+     * @return recetas cuyo nombre contiene el texto
+     */
+    private List<Entrada> intersectar(String consulta) {
+        List<Posiciones> listas = new ArrayList<>();
+        for (String trigrama : trigramas(consulta)) {
+            Posiciones lista = trigramas.get(trigrama);
+            if (lista == null) {
+                return new ArrayList<>();
+            }
+            listas.add(lista);
+        }
+        listas.sort(Comparator.comparingInt(Posiciones::tamano));
+
+        List<Entrada> encontradas = new ArrayList<>();
+        Posiciones menor = listas.get(0);
+        for (int i = 0; i < menor.tamano(); i++) {
+            int posicion = menor.valor(i);
+            boolean enTodas = true;
+            for (int j = 1; j < listas.size() && enTodas; j++) {
+                enTodas = listas.get(j).contiene(posicion);
+            }
+            // Compartir los trigramas no basta: se comprueba que el texto aparece seguido
+            Entrada entrada = entradas.get(posicion);
+            if (enTodas && entrada.nombre().contains(consulta)) {
+                encontradas.add(entrada);
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * Función auxiliar para buscar un texto corto, que no forma trigramas, recorriendo todos los nombres.
+     *
+     * @param consulta texto normalizado
+     * @return recetas cuyo nombre contiene el texto
+     */
+    private List<Entrada> recorrer(String consulta) {
+        List<Entrada> encontradas = new ArrayList<>();
+        for (Entrada entrada : entradas) {
+            if (entrada != null && entrada.nombre().contains(consulta)) {
+                encontradas.add(entrada);
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * Función auxiliar para aplicar un conjunto de cambios al índice. Debe llamarse con el bloqueo de escritura.
+     *
+     * @param cambios recetas eliminadas y guardadas
+     */
+    private void aplicar(RecetasModificadasEvent cambios) {
+        cambios.eliminadas().forEach(this::quitar);
+        cambios.guardadas().forEach(this::poner);
+    }
+
+    /**
+     * Función auxiliar para añadir o sustituir una receta. Una receta existente conserva su posición.
+     * Debe llamarse con el bloqueo de escritura.
+     *
+     * @param receta DTO de la receta
+     */
+    private void poner(RecetaDto receta) {
+        if (receta == null || receta.getId() == null || receta.getNombre() == null) {
+            return;
+        }
+        Integer posicion = posiciones.get(receta.getId());
+        if (posicion == null) {
+            posicion = entradas.size();
+            entradas.add(null);
+            posiciones.put(receta.getId(), posicion);
+        } else {
+            quitarListas(posicion);
+        }
+        Entrada entrada = new Entrada(normalizar(receta.getNombre()), receta, ingredientesDe(receta));
+        entradas.set(posicion, entrada);
+        for (String trigrama : trigramas(entrada.nombre())) {
+            trigramas.computeIfAbsent(trigrama, t -> new Posiciones()).agregar(posicion);
+        }
+        for (long ingredienteId : entrada.ingredientes()) {
+            porIngrediente.computeIfAbsent(ingredienteId, i -> new Posiciones()).agregar(posicion);
+        }
+        autocompletado.poner(TipoSugerencia.RECETA, receta.getId(), receta.getNombre());
+    }
+
+    /**
+     * Función auxiliar para quitar una receta del índice. Debe llamarse con el bloqueo de escritura.
+     *
+     * @param recetaId identificador de la receta
+     */
+    private void quitar(Long recetaId) {
+        Integer posicion = posiciones.remove(recetaId);
+        if (posicion != null) {
+            quitarListas(posicion);
+            entradas.set(posicion, null);
+        }
+        autocompletado.quitar(TipoSugerencia.RECETA, recetaId);
+    }
+
+    /**
+     * Función auxiliar para quitar la posición de una receta de las listas de sus trigramas y de sus ingredientes.
+     *
+     * @param posicion posición de la receta
+     */
+    private void quitarListas(int posicion) {
+        Entrada anterior = entradas.get(posicion);
+        if (anterior == null) {
+            return;
+        }
+        for (String trigrama : trigramas(anterior.nombre())) {
+            Posiciones lista = trigramas.get(trigrama);
+            if (lista != null && lista.quitar(posicion) && lista.tamano() == 0) {
+                trigramas.remove(trigrama);
+            }
+        }
+        for (long ingredienteId : anterior.ingredientes()) {
+            Posiciones lista = porIngrediente.get(ingredienteId);
+            if (lista != null && lista.quitar(posicion) && lista.tamano() == 0) {
+                porIngrediente.remove(ingredienteId);
+            }
+        }
+    }
+
+    /**
+     * Función auxiliar para obtener los identificadores distintos de los ingredientes de una receta.
+     *
+     * @param receta DTO de la receta
+     * @return identificadores ordenados y sin repetir
+     */
+    private static long[] ingredientesDe(RecetaDto receta) {
+        if (receta.getIngredientes() == null) {
+            return new long[0];
+        }
+        return receta.getIngredientes().stream()
+                .map(IngredienteSimpleDto::getId)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Función auxiliar para construir el resultado de una receta en la búsqueda por despensa.
+     *
+     * @param entrada     receta indexada
+     * @param disponibles número de ingredientes de la receta que están en la despensa
+     * @param despensa    identificadores de los ingredientes de la despensa
+     * @return receta con sus ingredientes disponibles y faltantes
+     */
+    private static RecetaDisponibleDto disponible(Entrada entrada, int disponibles, Set<Long> despensa) {
+        Set<Long> vistos = new HashSet<>();
+        List<IngredienteSimpleDto> faltantes = entrada.receta().getIngredientes().stream()
+                .filter(ingrediente -> ingrediente.getId() != null && !despensa.contains(ingrediente.getId()))
+                .filter(ingrediente -> vistos.add(ingrediente.getId()))
+                .toList();
+        return new RecetaDisponibleDto(entrada.receta(), disponibles,
+                entrada.ingredientes().length - disponibles, faltantes);
+    }
+
+    /**
+     * Función auxiliar para obtener los trigramas distintos de un texto normalizado.
+     *
+     * @param texto texto normalizado
+     * @return trigramas del texto
+     */
+    private static Set<String> trigramas(String texto) {
+        Set<String> resultado = new LinkedHashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + N));
+        }
+        return resultado;
+    }
+
+    /**
+     * Función auxiliar para normalizar un nombre o un texto de búsqueda.
+     *
+     * @param texto texto a normalizar
+     * @return texto plegado, en minúsculas y sin tildes
+     */
+    static String normalizar(String texto) {
+        return Textos.plegar(texto);
+    }
+
+    /**
+     * Función auxiliar para puntuar la coincidencia de un nombre que contiene el texto buscado (menor es mejor).
+     *
+     * @param nombre   nombre normalizado
+     * @param consulta texto normalizado
+     * @return 0 si es igual, 1 si empieza por el texto, 2 si alguna palabra empieza por él y 3 en otro caso
+     */
+    private static int calidad(String nombre, String consulta) {
+        if (nombre.equals(consulta)) {
+            return 0;
+        }
+        if (nombre.startsWith(consulta)) {
+            return 1;
+        }
+        for (int i = nombre.indexOf(consulta); i > 0; i = nombre.indexOf(consulta, i + 1)) {
+            if (!Character.isLetterOrDigit(nombre.charAt(i - 1))) {
+                return 2;
+            }
+        }
+        return 3;
+    }
+
+    /**
+     * Función auxiliar para unir dos listas de recetas.
+     *
+     * @param a primera lista
+     * @param b segunda lista
+     * @return lista con los elementos de ambas
+     */
+    private static List<RecetaDto> concatenar(List<RecetaDto> a, List<RecetaDto> b) {
+        if (b.isEmpty()) {
+            return a;
+        }
+        List<RecetaDto> resultado = new ArrayList<>(a);
+        resultado.addAll(b);
+        return resultado;
+    }
+
+    /**
+     * Receta indexada.
+     *
+     * @param nombre       nombre normalizado
+     * @param receta       DTO de la receta
+     * @param ingredientes identificadores distintos de sus ingredientes
+     */
+    private record Entrada(String nombre, RecetaDto receta, long[] ingredientes) {
+    }
+
+    /**
+     * Lista ordenada de posiciones sobre un array de enteros, sin objetos por elemento.
+     */
+    private static final class Posiciones {
+
+        private int[] valores = new int[4];
+        private int tamano;
+
+        int tamano() {
+            return tamano;
+        }
+
+        int valor(int i) {
+            return valores[i];
+        }
+
+        boolean contiene(int posicion) {
+            return Arrays.binarySearch(valores, 0, tamano, posicion) >= 0;
+        }
+
+        void agregar(int posicion) {
+            int i = Arrays.binarySearch(valores, 0, tamano, posicion);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, tamano * 2);
+            }
+            System.arraycopy(valores, i, valores, i + 1, tamano - i);
+            valores[i] = posicion;
+            tamano++;
+        }
+
+        boolean quitar(int posicion) {
+            int i = Arrays.binarySearch(valores, 0, tamano, posicion);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(valores, i + 1, valores, i, tamano - i - 1);
+            tamano--;
+            return true;
+        }
+    }
+}
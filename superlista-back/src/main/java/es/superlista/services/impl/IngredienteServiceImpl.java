@@ -8,7 +8,10 @@ import es.superlista.domain.mapper.IngredienteMapper;
 import es.superlista.domain.repository.IngredienteRepository;
 import es.superlista.domain.repository.RecetaRepository;
 import es.superlista.exception.ProcesoException;
+import es.superlista.services.CacheLecturasService;
 import es.superlista.services.IngredienteService;
+import es.superlista.services.ListaCompraService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +31,10 @@ public class IngredienteServiceImpl implements IngredienteService {
     private final IngredienteRepository ingredienteRepository;
     private final IngredienteMapper ingredienteMapper;
     private final RecetaRepository recetaRepository;
+    private final ListaCompraHuellaCache huellaCache;
+    private final CacheLecturasService cacheLecturas;
+    private final ApplicationEventPublisher eventos;
+    private final ListaCompraService listaCompraService;
 
     /**
      * Constructor que inyecta los repositorios y el mapper necesarios.
@@ -35,11 +42,19 @@ public class IngredienteServiceImpl implements IngredienteService {
      * @param ingredienteRepository repositorio de ingredientes
      * @param ingredienteMapper     mapper para convertir entre entidad y DTO
      * @param recetaRepository      repositorio de recetas
+     * @param huellaCache           caché de listas generadas por huella del menú
+     * @param cacheLecturas         caché de lecturas por usuario, que se invalida al cambiar los datos compartidos
+     * @param eventos               publicador de los cambios para los índices de recetas y de autocompletado
+     * @param listaCompraService    servicio de listas de compra, para mantener las listas vinculadas
      */
-    public IngredienteServiceImpl(IngredienteRepository ingredienteRepository, IngredienteMapper ingredienteMapper, RecetaRepository recetaRepository) {
+    public IngredienteServiceImpl(IngredienteRepository ingredienteRepository, IngredienteMapper ingredienteMapper, RecetaRepository recetaRepository, ListaCompraHuellaCache huellaCache, CacheLecturasService cacheLecturas, ApplicationEventPublisher eventos, ListaCompraService listaCompraService) {
         this.ingredienteRepository = ingredienteRepository;
         this.ingredienteMapper = ingredienteMapper;
         this.recetaRepository = recetaRepository;
+        this.huellaCache = huellaCache;
+        this.cacheLecturas = cacheLecturas;
+        this.eventos = eventos;
+        this.listaCompraService = listaCompraService;
     }
 
     /**
@@ -65,9 +80,20 @@ public class IngredienteServiceImpl implements IngredienteService {
                 ingrediente.setRecetas(listaRecetas);
                 // 2) …y para cada receta, añades el ingrediente al lado propietario:
                 listaRecetas.forEach(r -> r.getIngredientes().add(ingrediente));
+                // Las recetas cambian de ingredientes: las listas recordadas de menús con ellas dejan de ser válidas
+                huellaCache.olvidarRecetas(listaRecetas.stream().map(Receta::getId).toList());
+                cacheLecturas.invalidarTodos();
+                eventos.publishEvent(RecetasModificadasEvent.recargar(
+                        listaRecetas.stream().map(Receta::getId).toList()));
             }
 
             ingredienteRepository.save(ingrediente);
+            eventos.publishEvent(IngredientesModificadosEvent.guardados(List.of(ingrediente)));
+            if (ingrediente.getRecetas() != null && !ingrediente.getRecetas().isEmpty()) {
+                // Las listas vinculadas a menús con esas recetas incorporan el ingrediente en esta transacción
+                listaCompraService.recalcularListasConRecetas(
+                        ingrediente.getRecetas().stream().map(Receta::getId).toList());
+            }
             return true;
 
         } catch (ProcesoException pe) {
@@ -110,9 +136,18 @@ public class IngredienteServiceImpl implements IngredienteService {
                         receta.getIngredientes().add(ingrediente);
                     }
                 }
+                huellaCache.olvidarRecetas(recetasActualizadas.stream().map(Receta::getId).toList());
+                cacheLecturas.invalidarTodos();
             }
 
             ingredienteRepository.save(ingrediente);
+            eventos.publishEvent(IngredientesModificadosEvent.guardados(List.of(ingrediente)));
+            // El nombre o la categoría pueden haber cambiado en todas las recetas que lo usan
+            List<Long> recetaIds = recetaRepository.findIdsByIngredienteId(ingrediente.getId());
+            eventos.publishEvent(RecetasModificadasEvent.recargar(recetaIds));
+            if (request.getRecetas() != null) {
+                listaCompraService.recalcularListasConRecetas(recetaIds);
+            }
             return true;
 
         } catch (ProcesoException pe) {
@@ -129,7 +164,13 @@ public class IngredienteServiceImpl implements IngredienteService {
     public Boolean eliminarIngrediente(IngredienteDto request) {
         if (ingredienteRepository.existsById(request.getId())) {
             try {
+                List<Long> recetaIds = recetaRepository.findIdsByIngredienteId(request.getId());
                 ingredienteRepository.deleteById(request.getId());
+                eventos.publishEvent(RecetasModificadasEvent.recargar(recetaIds));
+                listaCompraService.recalcularListasConRecetas(recetaIds);
+                eventos.publishEvent(IngredientesModificadosEvent.eliminado(request.getId()));
+                huellaCache.olvidarRecetas(recetaIds);
+                cacheLecturas.invalidarTodos();
             } catch (Exception e) {
                 throw new ProcesoException("Hubo un error al eliminar el ingrediente.");
             }
@@ -0,0 +1,36 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.entity.Ingrediente;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evento publicado dentro de una transacción que crea, renombra o elimina ingredientes, para que
+ * {@link IndiceAutocompletado} se actualice cuando la transacción se confirme.
+ *
+ * @param guardados  nombre de cada ingrediente creado o actualizado, por identificador
+ * @param eliminados identificadores de los ingredientes eliminados
+ */
+record IngredientesModificadosEvent(Map<Long, String> guardados, Collection<Long> eliminados) {
+
+    /**
+     * @param ingredientes ingredientes creados o actualizados, ya con identificador
+     * @return evento con los ingredientes guardados
+     */
+    static IngredientesModificadosEvent guardados(Collection<Ingrediente> ingredientes) {
+        Map<Long, String> nombres = new HashMap<>();
+        ingredientes.forEach(ingrediente -> nombres.put(ingrediente.getId(), ingrediente.getNombre()));
+        return new IngredientesModificadosEvent(nombres, List.of());
+    }
+
+    /**
+     * @param ingredienteId identificador del ingrediente eliminado
+     * @return evento con el ingrediente eliminado
+     */
+    static IngredientesModificadosEvent eliminado(Long ingredienteId) {
+        return new IngredientesModificadosEvent(Map.of(), List.of(ingredienteId));
+    }
+}
@@ -0,0 +1,381 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.ListaCompraDto;
+import es.superlista.domain.dto.ListaCompraItemDto;
+import es.superlista.domain.projection.EstadoItem;
+import es.superlista.domain.repository.ListaCompraItemRepository;
+import es.superlista.domain.repository.ListaCompraRepository;
+import es.superlista.exception.ProcesoException;
+import es.superlista.utils.Transacciones;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Capa de escritura diferida (write-behind) para el estado de compra de los ingredientes de las listas.
+ * <p>
+ * Mientras una familia hace la compra, la misma lista recibe decenas de marcas por minuto desde varios móviles.
+ * En lugar de escribir cada marca en la base de datos, se guarda en memoria el estado de las listas activas y
+ * las marcas pendientes se agrupan por lista e ingrediente; cada ventana se vuelcan todas en un único lote y
+ * una única transacción. Como solo se escribe el último estado de cada ingrediente, varias marcas sobre el mismo
+ * ingrediente dentro de la ventana cuestan una sola fila.
+ * <p>
+ * El estado en memoria es el de referencia mientras la lista está activa, de modo que las lecturas del propio
+ * usuario ven sus marcas aunque aún no se hayan volcado. Cualquier cambio estructural de la lista
+ * (añadir o quitar ingredientes, eliminarla) debe llamar antes a {@link #olvidar(Long)}.
+ * <p>
+ * Los volcados se hacen siempre en una transacción propia, independiente de la del llamante, y un lote que
+ * falla se guarda aparte para reintentarlo aunque la lista ya no esté en memoria. Las listas se reparten en
+ * franjas con un cerrojo cada una: dos lotes de la misma lista nunca están en vuelo a la vez, pero el cambio
+ * estructural de una lista solo espera a los volcados de su franja y no al barrido periódico completo.
+ */
+@Component
+public class ListaCompraEscrituraDiferida {
+
+    /**
+     * Logger para registrar trazas de error y diagnóstico.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ListaCompraEscrituraDiferida.class);
+
+    /**
+     * Número de franjas de cerrojos de volcado (potencia de dos).
+     */
+    private static final int FRANJAS = 64;
+
+    private static final String SQL_MARCAR =
+            "update lista_compra_ingredientes set comprado = ? where lista_compra_id = ? and ingrediente_id = ?";
+
+    private final ListaCompraRepository listaCompraRepository;
+    private final ListaCompraItemRepository listaCompraItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final long caducidadMs;
+
+    /**
+     * Listas activas en memoria, por identificador de lista.
+     */
+    private final Map<Long, ListaEnMemoria> listas = new ConcurrentHashMap<>();
+
+    /**
+     * Marcas de volcados fallidos de listas que ya no están en memoria, por lista e ingrediente.
+     */
+    private final Map<Long, Map<Long, Boolean>> reintentos = new ConcurrentHashMap<>();
+
+    /**
+     * Cerrojos de volcado por franja de listas, para que nunca haya dos lotes de la misma lista en vuelo.
+     */
+    private final Object[] cerrojos = new Object[FRANJAS];
+
+    /**
+     * Cerrojo que evita que se solapen dos barridos periódicos (por ejemplo, el programado y el de parada).
+     */
+    private final Object cerrojoBarrido = new Object();
+
+    /**
+     * Constructor que inyecta los repositorios, el acceso JDBC y la configuración de la capa.
+     *
+     * @param listaCompraRepository     repositorio de listas de compra
+     * @param listaCompraItemRepository repositorio de los ítems de las listas de compra
+     * @param jdbcTemplate              plantilla JDBC para los volcados por lotes
+     * @param transactionManager        gestor de transacciones
+     * @param habilitada                indica si las marcas se difieren o se escriben al momento
+     * @param caducidadMs               tiempo sin actividad tras el que una lista deja de mantenerse en memoria
+     */
+    public ListaCompraEscrituraDiferida(ListaCompraRepository listaCompraRepository,
+                                        ListaCompraItemRepository listaCompraItemRepository,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${superlista.listacompra.escritura-diferida.habilitada:true}") boolean habilitada,
+                                        @Value("${superlista.listacompra.escritura-diferida.caducidad-ms:600000}") long caducidadMs) {
+        this.listaCompraRepository = listaCompraRepository;
+        this.listaCompraItemRepository = listaCompraItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // El volcado no debe unirse a la transacción del llamante: si esta se deshiciera, se perderían las marcas
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.habilitada = habilitada;
+        this.caducidadMs = caducidadMs;
+        for (int i = 0; i < FRANJAS; i++) {
+            cerrojos[i] = new Object();
+        }
+    }
+
+    /**
+     * @return true si las marcas de los ingredientes se difieren
+     */
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Registra la marca de un ingrediente. La primera marca sobre una lista carga su propietario y el estado
+     * de sus ingredientes; las siguientes se validan y se aplican en memoria sin acceder a la base de datos.
+     *
+     * @param listaId       identificador de la lista de compra
+     * @param usuarioId     identificador del usuario que realiza la operación
+     * @param ingredienteId identificador del ingrediente
+     * @param comprado      nuevo estado de compra; si es nulo se alterna el estado actual
+     */
+    public void marcar(Long listaId, Long usuarioId, Long ingredienteId, Boolean comprado) {
+        while (true) {
+            // La carga consulta la base de datos: se hace fuera del mapa para no bloquear otras listas
+            if (!listas.containsKey(listaId)) {
+                listas.putIfAbsent(listaId, cargar(listaId));
+            }
+            // Si la lista se ha olvidado entre medias, se vuelve a cargar
+            ListaEnMemoria marcada = listas.computeIfPresent(listaId, (id, actual) -> {
+                if (!actual.usuarioId.equals(usuarioId)) {
+                    throw new ProcesoException("No tienes permiso para modificar esta lista.");
+                }
+                Boolean anterior = actual.estado.get(ingredienteId);
+                if (anterior == null) {
+                    throw new ProcesoException("Ingrediente " + ingredienteId + " no encontrado en la lista " + listaId);
+                }
+                boolean nuevo = comprado != null ? comprado : !anterior;
+                actual.estado.put(ingredienteId, nuevo);
+                actual.pendientes.put(ingredienteId, nuevo);
+                actual.ultimoAcceso = System.currentTimeMillis();
+                return actual;
+            });
+            if (marcada != null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aplica sobre el DTO de una lista el estado en memoria, que puede ser más reciente que el leído
+     * de la base de datos.
+     *
+     * @param dto DTO de la lista de compra
+     * @return el mismo DTO con el estado de compra actualizado
+     */
+    public ListaCompraDto aplicarEstado(ListaCompraDto dto) {
+        ListaEnMemoria lista = listas.get(dto.getId());
+        if (lista != null && dto.getItems() != null) {
+            for (ListaCompraItemDto item : dto.getItems()) {
+                Boolean comprado = lista.estado.get(item.getId());
+                if (comprado != null) {
+                    item.setComprado(comprado);
+                }
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * Vuelca las marcas pendientes de una lista y deja de mantenerla en memoria.
+     * Debe llamarse antes de cualquier cambio estructural de la lista. Como una marca concurrente puede volver
+     * a cargar la lista antes de que el cambio se confirme, se olvida otra vez al confirmarse la transacción.
+     *
+     * @param listaId identificador de la lista de compra
+     */
+    public void olvidar(Long listaId) {
+        descartar(listaId);
+        Transacciones.alConfirmar(() -> descartar(listaId));
+    }
+
+    /**
+     * Función auxiliar para volcar las marcas pendientes de una lista y quitarla de memoria.
+     *
+     * @param listaId identificador de la lista de compra
+     */
+    private void descartar(Long listaId) {
+        synchronized (cerrojos[franja(listaId)]) {
+            ListaEnMemoria lista = listas.remove(listaId);
+            if (lista != null) {
+                volcar(extraerPendientes(listaId, lista));
+            }
+        }
+    }
+
+    /**
+     * Vuelca periódicamente todas las marcas pendientes y libera las listas sin actividad reciente.
+     * Cada franja de listas se vuelca en un lote bajo su propio cerrojo.
+     */
+    @Scheduled(fixedDelayString = "${superlista.listacompra.escritura-diferida.ventana-ms:2000}")
+    public void volcarPendientes() {
+        synchronized (cerrojoBarrido) {
+            // 1. Agrupar por franja las listas con reintentos o en memoria
+            Map<Integer, Set<Long>> porFranja = new HashMap<>();
+            reintentos.keySet().forEach(id -> porFranja.computeIfAbsent(franja(id), k -> new LinkedHashSet<>()).add(id));
+            listas.keySet().forEach(id -> porFranja.computeIfAbsent(franja(id), k -> new LinkedHashSet<>()).add(id));
+
+            // 2. Volcar cada franja sin bloquear las demás
+            porFranja.forEach((franja, listaIds) -> {
+                synchronized (cerrojos[franja]) {
+                    List<Object[]> lote = new ArrayList<>();
+                    // Primero los reintentos, para que las marcas más recientes de la misma lista se escriban después
+                    listaIds.forEach(listaId -> extraerReintentos(listaId, lote));
+                    listaIds.forEach(listaId -> listas.computeIfPresent(listaId, (id, lista) -> {
+                        lote.addAll(extraerPendientes(id, lista));
+                        return lista;
+                    }));
+                    volcar(lote);
+                }
+            });
+
+            // 3. Liberar las listas inactivas, de forma atómica respecto a las marcas que llegan a la vez
+            long limite = System.currentTimeMillis() - caducidadMs;
+            for (Long listaId : listas.keySet()) {
+                listas.computeIfPresent(listaId, (id, lista) ->
+                        lista.pendientes.isEmpty() && lista.ultimoAcceso < limite ? null : lista);
+            }
+        }
+    }
+
+    /**
+     * Vuelca todas las marcas pendientes al detener la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        volcarPendientes();
+    }
+
+    /**
+     * Función auxiliar para cargar el propietario y el estado de compra de una lista.
+     *
+     * @param listaId identificador de la lista de compra
+     * @return lista en memoria
+     */
+    private ListaEnMemoria cargar(Long listaId) {
+        Long usuarioId = listaCompraRepository.findUsuarioIdById(listaId)
+                .orElseThrow(() -> new ProcesoException("Lista no encontrada: " + listaId));
+        ListaEnMemoria lista = new ListaEnMemoria(usuarioId);
+        for (EstadoItem item : listaCompraItemRepository.findEstadosByListaCompraId(listaId)) {
+            lista.estado.put(item.getIngredienteId(), item.getComprado());
+        }
+        return lista;
+    }
+
+    /**
+     * Función auxiliar para retirar las marcas de volcados fallidos de una lista y añadirlas al lote.
+     * Si la lista se ha vuelto a cargar en memoria, su estado se leyó sin estas marcas y se completa con ellas.
+     *
+     * @param listaId identificador de la lista de compra
+     * @param lote    filas (comprado, lista, ingrediente) a actualizar
+     */
+    private void extraerReintentos(Long listaId, List<Object[]> lote) {
+        Map<Long, Boolean> marcas = reintentos.remove(listaId);
+        if (marcas == null) {
+            return;
+        }
+        marcas.forEach((ingredienteId, comprado) -> lote.add(new Object[]{comprado, listaId, ingredienteId}));
+        listas.computeIfPresent(listaId, (id, lista) -> {
+            marcas.forEach((ingredienteId, comprado) -> {
+                if (!lista.pendientes.containsKey(ingredienteId)) {
+                    lista.estado.replace(ingredienteId, comprado);
+                }
+            });
+            return lista;
+        });
+    }
+
+    /**
+     * Función auxiliar para obtener la franja del cerrojo de volcado de una lista.
+     *
+     * @param listaId identificador de la lista de compra
+     * @return posición del cerrojo
+     */
+    private static int franja(Long listaId) {
+        return Long.hashCode(listaId) & (FRANJAS - 1);
+    }
+
+    /**
+     * Función auxiliar para retirar las marcas pendientes de una lista como filas del lote de volcado.
+     *
+     * @param listaId identificador de la lista de compra
+     * @param lista   lista en memoria
+     * @return filas (comprado, lista, ingrediente) a actualizar
+     */
+    private List<Object[]> extraerPendientes(Long listaId, ListaEnMemoria lista) {
+        List<Object[]> filas = new ArrayList<>(lista.pendientes.size());
+        for (Long ingredienteId : new ArrayList<>(lista.pendientes.keySet())) {
+            Boolean comprado = lista.pendientes.remove(ingredienteId);
+            if (comprado != null) {
+                filas.add(new Object[]{comprado, listaId, ingredienteId});
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Función auxiliar para escribir un lote de marcas en una única transacción nueva. Si el volcado falla,
+     * las marcas vuelven a quedar pendientes salvo que otra más reciente las haya sustituido; las de listas
+     * que ya no están en memoria se guardan en {@link #reintentos}.
+     *
+     * @param lote filas (comprado, lista, ingrediente) a actualizar
+     */
+    private void volcar(List<Object[]> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(estado -> jdbcTemplate.batchUpdate(SQL_MARCAR, lote));
+        } catch (Exception e) {
+            logger.error("Error al volcar {} marcas de listas de la compra; se reintentará en la siguiente ventana", lote.size(), e);
+            Map<Long, Map<Long, Boolean>> porLista = new HashMap<>();
+            for (Object[] fila : lote) {
+                porLista.computeIfAbsent((Long) fila[1], k -> new HashMap<>()).put((Long) fila[2], (Boolean) fila[0]);
+            }
+            porLista.forEach((listaId, marcas) -> {
+                ListaEnMemoria enMemoria = listas.computeIfPresent(listaId, (id, lista) -> {
+                    marcas.forEach(lista.pendientes::putIfAbsent);
+                    return lista;
+                });
+                if (enMemoria == null) {
+                    reintentos.merge(listaId, new HashMap<>(marcas), (anteriores, nuevas) -> {
+                        anteriores.putAll(nuevas);
+                        return anteriores;
+                    });
+                }
+            });
+        }
+    }
+
+    /**
+     * Estado en memoria de una lista activa.
+     */
+    private static final class ListaEnMemoria {
+
+        /**
+         * Identificador del usuario propietario.
+         */
+        private final Long usuarioId;
+
+        /**
+         * Estado de compra de referencia por ingrediente.
+         */
+        private final Map<Long, Boolean> estado = new ConcurrentHashMap<>();
+
+        /**
+         * Último estado pendiente de volcar por ingrediente.
+         */
+        private final Map<Long, Boolean> pendientes = new ConcurrentHashMap<>();
+
+        /**
+         * Momento de la última marca recibida.
+         */
+        private volatile long ultimoAcceso = System.currentTimeMillis();
+
+        private ListaEnMemoria(Long usuarioId) {
+            this.usuarioId = usuarioId;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.projection.AsignacionReceta;
+import es.superlista.exception.ProcesoException;
+import es.superlista.utils.Transacciones;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Caché de las listas de la compra generadas a partir de un menú semanal, indexada por la huella del menú.
+ * <p>
+ * La huella resume las asignaciones de receta a celda del menú (día, categoría y receta), de modo que si un
+ * usuario vuelve a generar la lista de un menú que no ha cambiado se devuelve la lista generada la vez anterior
+ * en lugar de recorrer de nuevo el menú e insertar otra lista. Además recuerda, por huella, el conjunto de
+ * ingredientes del menú, que el proceso programado de precálculo rellena para todos los menús activos; así la
+ * primera generación de un menú ya calculado se resuelve por clave primaria sin recorrer celdas ni recetas.
+ * <p>
+ * Ambas cachés expulsan las entradas menos usadas al superar su capacidad. La de ingredientes tiene una capacidad
+ * mínima configurada que el precálculo amplía al número de menús activos que recorre, para no expulsar sus
+ * propios resultados. Cada entrada guarda las recetas de su huella: cuando cambian los ingredientes de una receta
+ * solo se olvidan las huellas que la contienen.
+ */
+@Component
+public class ListaCompraHuellaCache {
+
+    private static final Comparator<AsignacionReceta> ORDEN_ASIGNACIONES = Comparator
+            .comparing((AsignacionReceta a) -> a.getDia().ordinal())
+            .thenComparing(a -> a.getCategoria().ordinal())
+            .thenComparing(AsignacionReceta::getRecetaId);
+
+    /**
+     * Lista generada por usuario y huella, en orden de acceso (LRU).
+     */
+    private final Map<Clave, ListaRecordada> listas;
+
+    /**
+     * Ingredientes por huella del menú, en orden de acceso (LRU).
+     */
+    private final Map<String, IngredientesRecordados> ingredientes;
+
+    /**
+     * Capacidad mínima configurada de la caché de ingredientes.
+     */
+    private final int capacidadIngredientesMinima;
+
+    /**
+     * Capacidad actual de la caché de ingredientes: la mínima más los menús activos reservados por el precálculo.
+     */
+    private int capacidadIngredientes;
+
+    /**
+     * Versión de las recetas: aumenta cada vez que se olvidan recetas, de modo que los cálculos iniciados antes
+     * del cambio no se registren con ingredientes obsoletos.
+     */
+    private long version;
+
+    /**
+     * Versión en la que se olvidó por última vez cada receta.
+     */
+    private final Map<Long, Long> versionPorReceta = new HashMap<>();
+
+    /**
+     * Constructor que configura la capacidad de las cachés.
+     *
+     * @param capacidad             número máximo de listas recordadas
+     * @param capacidadIngredientes número mínimo de conjuntos de ingredientes recordados
+     */
+    public ListaCompraHuellaCache(@Value("${superlista.listacompra.huella.capacidad:1000}") int capacidad,
+                                  @Value("${superlista.listacompra.huella.capacidad-ingredientes:10000}") int capacidadIngredientes) {
+        this.capacidadIngredientesMinima = capacidadIngredientes;
+        this.capacidadIngredientes = capacidadIngredientes;
+        this.listas = crearLru(() -> capacidad);
+        this.ingredientes = crearLru(() -> this.capacidadIngredientes);
+    }
+
+    /**
+     * Calcula la huella de un menú a partir de sus asignaciones de receta a celda. El resultado no depende
+     * del orden en que se reciban las asignaciones.
+     *
+     * @param asignaciones asignaciones (día, categoría, receta) del menú
+     * @return huella del menú en hexadecimal
+     */
+    public String calcularHuella(Collection<? extends AsignacionReceta> asignaciones) {
+        List<AsignacionReceta> ordenadas = asignaciones.stream()
+                .map(AsignacionReceta.class::cast)
+                .sorted(ORDEN_ASIGNACIONES)
+                .toList();
+        StringBuilder canonica = new StringBuilder(ordenadas.size() * 16);
+        for (AsignacionReceta asignacion : ordenadas) {
+            canonica.append(asignacion.getDia().ordinal()).append(':')
+                    .append(asignacion.getCategoria().ordinal()).append(':')
+                    .append(asignacion.getRecetaId()).append(';');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonica.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new ProcesoException("No se pudo calcular la huella del menú", e);
+        }
+    }
+
+    /**
+     * Busca la lista generada anteriormente por un usuario para un menú con la huella indicada.
+     *
+     * @param usuarioId identificador del usuario
+     * @param huella    huella del menú
+     * @return identificador de la lista (si se recuerda)
+     */
+    public synchronized Optional<Long> buscar(Long usuarioId, String huella) {
+        return Optional.ofNullable(listas.get(new Clave(usuarioId, huella))).map(ListaRecordada::listaId);
+    }
+
+    /**
+     * Recuerda la lista generada por un usuario para un menú con la huella indicada, salvo que alguna de sus
+     * recetas haya cambiado desde que se leyó la versión con la que se generó.
+     *
+     * @param usuarioId    identificador del usuario
+     * @param huella       huella del menú
+     * @param recetaIds    identificadores de las recetas del menú
+     * @param listaId      identificador de la lista generada
+     * @param versionLeida versión de las recetas leída antes de generar la lista
+     */
+    public synchronized void registrar(Long usuarioId, String huella, Set<Long> recetaIds, Long listaId,
+                                       long versionLeida) {
+        if (vigente(recetaIds, versionLeida)) {
+            listas.put(new Clave(usuarioId, huella), new ListaRecordada(listaId, Set.copyOf(recetaIds)));
+        }
+    }
+
+    /**
+     * Busca los ingredientes calculados para un menú con la huella indicada.
+     *
+     * @param huella huella del menú
+     * @return identificadores de los ingredientes (si se recuerdan)
+     */
+    public synchronized Optional<List<Long>> buscarIngredientes(String huella) {
+        return Optional.ofNullable(ingredientes.get(huella)).map(IngredientesRecordados::ingredienteIds);
+    }
+
+    /**
+     * Indica si se recuerdan los ingredientes de un menú con la huella indicada, sin alterar el orden de uso.
+     *
+     * @param huella huella del menú
+     * @return true si se recuerdan
+     */
+    public synchronized boolean contieneIngredientes(String huella) {
+        return ingredientes.containsKey(huella);
+    }
+
+    /**
+     * @return versión actual de las recetas, que debe leerse antes de calcular unos ingredientes a registrar
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Recuerda los ingredientes de un menú con la huella indicada, salvo que alguna de sus recetas haya cambiado
+     * desde que se leyó la versión con la que se calcularon.
+     *
+     * @param huella         huella del menú
+     * @param recetaIds      identificadores de las recetas del menú
+     * @param ingredienteIds identificadores de los ingredientes del menú
+     * @param versionLeida   versión de las recetas leída antes del cálculo
+     */
+    public synchronized void registrarIngredientes(String huella, Set<Long> recetaIds,
+                                                   Collection<Long> ingredienteIds, long versionLeida) {
+        if (vigente(recetaIds, versionLeida)) {
+            ingredientes.put(huella, new IngredientesRecordados(Set.copyOf(recetaIds), List.copyOf(ingredienteIds)));
+        }
+    }
+
+    /**
+     * Amplía la capacidad de la caché de ingredientes para que quepan las huellas de los menús indicados
+     * además de la capacidad mínima. El precálculo la llama con los menús activos que va a recorrer.
+     *
+     * @param huellas número de huellas a reservar
+     */
+    public synchronized void reservarIngredientes(int huellas) {
+        capacidadIngredientes = Math.max(capacidadIngredientes, capacidadIngredientesMinima + huellas);
+    }
+
+    /**
+     * Olvida una lista, por ejemplo porque se ha eliminado o el usuario ha modificado sus ingredientes.
+     *
+     * @param listaId identificador de la lista
+     */
+    public synchronized void olvidarLista(Long listaId) {
+        listas.values().removeIf(lista -> lista.listaId().equals(listaId));
+    }
+
+    /**
+     * Olvida las listas y los ingredientes de las huellas que contienen alguna de las recetas indicadas,
+     * por ejemplo porque han cambiado sus ingredientes; el resto de la caché se conserva. Si hay una transacción
+     * en curso se olvidan al confirmarse: hasta entonces otras transacciones siguen leyendo las recetas anteriores
+     * y podrían registrarlas con la versión nueva.
+     *
+     * @param recetaIds identificadores de las recetas modificadas
+     */
+    public void olvidarRecetas(Collection<Long> recetaIds) {
+        if (recetaIds.isEmpty()) {
+            return;
+        }
+        Set<Long> recetas = Set.copyOf(recetaIds);
+        Transacciones.alConfirmar(() -> olvidar(recetas));
+    }
+
+    /**
+     * Función auxiliar para olvidar las huellas que contienen alguna de las recetas e invalidar los cálculos
+     * en curso que las usan.
+     *
+     * @param recetaIds identificadores de las recetas modificadas
+     */
+    private synchronized void olvidar(Set<Long> recetaIds) {
+        version++;
+        recetaIds.forEach(recetaId -> versionPorReceta.put(recetaId, version));
+        listas.values().removeIf(lista -> contieneAlguna(lista.recetaIds(), recetaIds));
+        ingredientes.values().removeIf(entrada -> contieneAlguna(entrada.recetaIds(), recetaIds));
+    }
+
+    /**
+     * Función auxiliar para comprobar que ninguna receta ha cambiado después de la versión leída.
+     *
+     * @param recetaIds    identificadores de las recetas del menú
+     * @param versionLeida versión de las recetas leída antes del cálculo
+     * @return true si el cálculo sigue siendo válido
+     */
+    private boolean vigente(Set<Long> recetaIds, long versionLeida) {
+        if (versionLeida == version) {
+            return true;
+        }
+        return recetaIds.stream().allMatch(recetaId -> versionPorReceta.getOrDefault(recetaId, 0L) <= versionLeida);
+    }
+
+    /**
+     * Función auxiliar para comprobar si dos conjuntos de recetas tienen alguna en común.
+     *
+     * @param recetas     recetas de una huella
+     * @param modificadas recetas modificadas
+     * @return true si alguna receta de la huella se ha modificado
+     */
+    private static boolean contieneAlguna(Set<Long> recetas, Set<Long> modificadas) {
+        return recetas.stream().anyMatch(modificadas::contains);
+    }
+
+    /**
+     * Función auxiliar para crear un mapa LRU cuya capacidad puede variar.
+     *
+     * @param capacidad número máximo de entradas en cada momento
+     * @param <K>       tipo de la clave
+     * @param <V>       tipo del valor
+     * @return mapa que expulsa la entrada menos usada al superar la capacidad
+     */
+    private static <K, V> Map<K, V> crearLru(IntSupplier capacidad) {
+        return new LinkedHashMap<>(Math.min(capacidad.getAsInt(), 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacidad.getAsInt();
+            }
+        };
+    }
+
+    /**
+     * Clave de la caché: usuario propietario y huella del menú.
+     *
+     * @param usuarioId identificador del usuario
+     * @param huella    huella del menú
+     */
+    private record Clave(Long usuarioId, String huella) {
+    }
+
+    /**
+     * Lista recordada para una huella, con las recetas del menú del que se generó.
+     *
+     * @param listaId   identificador de la lista
+     * @param recetaIds identificadores de las recetas del menú
+     */
+    private record ListaRecordada(Long listaId, Set<Long> recetaIds) {
+    }
+
+    /**
+     * Ingredientes recordados para una huella, con las recetas de las que se calcularon.
+     *
+     * @param recetaIds      identificadores de las recetas del menú
+     * @param ingredienteIds identificadores de los ingredientes del menú
+     */
+    private record IngredientesRecordados(Set<Long> recetaIds, List<Long> ingredienteIds) {
+    }
+}
@@ -1,25 +1,46 @@
 package es.superlista.services.impl;
 
+import es.superlista.domain.dto.ListaCompraAgrupadaDto;
 import es.superlista.domain.dto.ListaCompraDto;
+import es.superlista.domain.dto.ListaCompraItemDto;
+import es.superlista.domain.dto.PaginaDto;
 import es.superlista.domain.entity.Ingrediente;
 import es.superlista.domain.entity.ListaCompra;
-import es.superlista.domain.entity.Receta;
-import es.superlista.domain.entity.menu_semanal.DiaComida;
+import es.superlista.domain.entity.ListaCompraItem;
+import es.superlista.domain.entity.ListaCompraReferencia;
 import es.superlista.domain.entity.menu_semanal.MenuSemanal;
-import es.superlista.domain.mapper.IngredienteMapper;
-import es.superlista.domain.mapper.IngredienteSimpleMapper;
+import es.superlista.domain.enumeration.CategoriaIngrediente;
+import es.superlista.domain.mapper.ListaCompraItemMapper;
+import es.superlista.domain.projection.AsignacionReceta;
+import es.superlista.domain.projection.RecetaIngrediente;
 import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.domain.repository.ListaCompraItemRepository;
+import es.superlista.domain.repository.ListaCompraReferenciaRepository;
 import es.superlista.domain.repository.ListaCompraRepository;
 import es.superlista.domain.repository.MenuSemanalRepository;
+import es.superlista.domain.repository.RecetaRepository;
 import es.superlista.domain.repository.UsuarioRepository;
 import es.superlista.exception.ProcesoException;
+import es.superlista.services.CacheLecturasService;
+import es.superlista.services.ContenidoMenuService;
 import es.superlista.services.ListaCompraService;
+import es.superlista.utils.Paginacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio {@link ListaCompraService}.
@@ -28,11 +49,24 @@ import java.util.Set;
  */
 @Service
 public class ListaCompraServiceImpl implements ListaCompraService {
+
+    /**
+     * Logger para registrar trazas de error y diagnóstico.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ListaCompraServiceImpl.class);
+
     private final MenuSemanalRepository menuSemanalRepository;
     private final ListaCompraRepository listaCompraRepository;
     private final UsuarioRepository usuarioRepository;
     private final IngredienteRepository ingredienteRepository;
-    private final IngredienteSimpleMapper ingredienteSimpleMapper;
+    private final ListaCompraItemMapper listaCompraItemMapper;
+    private final RecetaRepository recetaRepository;
+    private final ListaCompraReferenciaRepository listaCompraReferenciaRepository;
+    private final ListaCompraItemRepository listaCompraItemRepository;
+    private final ListaCompraEscrituraDiferida escrituraDiferida;
+    private final ContenidoMenuService contenidoMenuService;
+    private final ListaCompraHuellaCache huellaCache;
+    private final CacheLecturasService cacheLecturas;
 
     /**
      * Constructor que inyecta los repositorios y mappers necesarios.
@@ -41,84 +75,130 @@ public class ListaCompraServiceImpl implements ListaCompraService {
      * @param listaCompraRepository    repositorio de listas de compra
      * @param usuarioRepository        repositorio de usuarios
      * @param ingredienteRepository    repositorio de ingredientes
-     * @param ingredienteSimpleMapper  mapper para convertir Ingrediente a IngredienteSimpleDto
+     * @param listaCompraItemMapper    mapper para convertir ListaCompraItem a ListaCompraItemDto
+     * @param recetaRepository         repositorio de recetas
+     * @param listaCompraReferenciaRepository repositorio de contadores de las listas vinculadas
+     * @param listaCompraItemRepository repositorio de los ítems de las listas de compra
+     * @param escrituraDiferida        capa de escritura diferida de las marcas de compra
+     * @param contenidoMenuService     lectura del contenido de los menús, sea cual sea su almacenamiento
+     * @param huellaCache              caché de listas generadas por huella del menú
+     * @param cacheLecturas            caché de lecturas por usuario, que se invalida con cada escritura
      */
-    public ListaCompraServiceImpl(MenuSemanalRepository menuSemanalRepository, ListaCompraRepository listaCompraRepository, UsuarioRepository usuarioRepository, IngredienteRepository ingredienteRepository, IngredienteSimpleMapper ingredienteSimpleMapper) {
+    public ListaCompraServiceImpl(MenuSemanalRepository menuSemanalRepository, ListaCompraRepository listaCompraRepository, UsuarioRepository usuarioRepository, IngredienteRepository ingredienteRepository, ListaCompraItemMapper listaCompraItemMapper, RecetaRepository recetaRepository, ListaCompraReferenciaRepository listaCompraReferenciaRepository, ListaCompraItemRepository listaCompraItemRepository, ListaCompraEscrituraDiferida escrituraDiferida, ContenidoMenuService contenidoMenuService, ListaCompraHuellaCache huellaCache, CacheLecturasService cacheLecturas) {
         this.menuSemanalRepository = menuSemanalRepository;
         this.listaCompraRepository = listaCompraRepository;
         this.usuarioRepository = usuarioRepository;
         this.ingredienteRepository = ingredienteRepository;
-        this.ingredienteSimpleMapper = ingredienteSimpleMapper;
+        this.listaCompraItemMapper = listaCompraItemMapper;
+        this.recetaRepository = recetaRepository;
+        this.listaCompraReferenciaRepository = listaCompraReferenciaRepository;
+        this.listaCompraItemRepository = listaCompraItemRepository;
+        this.escrituraDiferida = escrituraDiferida;
+        this.contenidoMenuService = contenidoMenuService;
+        this.huellaCache = huellaCache;
+        this.cacheLecturas = cacheLecturas;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @Transactional
     public ListaCompraDto generarListaCompra(Long menuId, Long usuarioId) {
         // 1. Comprobar que el menú existe y pertenece al usuario
-        MenuSemanal menu = menuSemanalRepository.findById(menuId)
-                .orElseThrow(() -> new ProcesoException("Menú no encontrado: " + menuId));
-        if (!menu.getUsuario().getId().equals(usuarioId)) {
-            throw new ProcesoException("No tienes permiso para ver este menú.");
-        }
+        MenuSemanal menu = obtenerMenuDelUsuario(menuId, usuarioId);
 
-        // 2. Recorrer todos los DiasComida → Recetas → Ingredientes
-        Set<Ingrediente> conjunto = new HashSet<>();
-        for (DiaComida dia : menu.getDiasComidas()) {
-            if (dia.getRecetas() == null) continue;
-            for (Receta receta : dia.getRecetas()) {
-                conjunto.addAll(receta.getIngredientes());
-            }
+        // 2. Si el menú no ha cambiado desde la última generación, devolver la lista ya generada
+        long version = huellaCache.getVersion();
+        List<AsignacionReceta> asignaciones = contenidoMenuService.obtenerAsignaciones(menuId);
+        String huella = huellaCache.calcularHuella(asignaciones);
+        Set<Long> recetaIds = asignaciones.stream().map(AsignacionReceta::getRecetaId).collect(Collectors.toSet());
+        Optional<ListaCompraDto> previa = huellaCache.buscar(usuarioId, huella)
+                .flatMap(listaId -> reutilizarLista(listaId, usuarioId));
+        if (previa.isPresent()) {
+            return previa.get();
         }
 
-        // 3. Crear y guardar la ListaCompra
+        // 3. Resolver el conjunto de ingredientes del menú: por clave primaria si ya está precalculado,
+        //    o en una sola consulta sobre las celdas en caso contrario
+        List<Ingrediente> ingredientes = huellaCache.buscarIngredientes(huella)
+                .map(ingredienteRepository::findAllById)
+                .orElseGet(() -> contenidoMenuService.obtenerIngredientes(List.of(menuId)));
+        huellaCache.registrarIngredientes(huella, recetaIds, ingredientes.stream().map(Ingrediente::getId).toList(),
+                version);
+
+        // 4. Crear y guardar la ListaCompra
+        cacheLecturas.invalidar(usuarioId);
         ListaCompra lista = new ListaCompra();
         lista.setUsuario(menu.getUsuario());
-        lista.setItems(new ArrayList<>(conjunto));
+        lista.setItems(crearItems(lista, ingredientes));
         try {
             lista = listaCompraRepository.save(lista);
         } catch (Exception e) {
             throw new ProcesoException("Error al generar la lista de la compra", e);
         }
+        huellaCache.registrar(usuarioId, huella, recetaIds, lista.getId(), version);
 
-        // 4. Mapear a DTO y devolver
-        return ListaCompraDto.builder()
-                .id(lista.getId())
-                .usuarioId(usuarioId)
-                .items(lista.getItems()
-                        .stream()
-                        .map(ingredienteSimpleMapper::toDto)
-                        .toList())
-                .build();
+        // 5. Mapear a DTO y devolver
+        return mapToDto(lista, usuarioId);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public ListaCompraDto addItems(Long listaId, Long usuarioId, List<Long> ingredienteIds) {
-        ListaCompra lista = listaCompraRepository.findById(listaId)
-                .orElseThrow(() -> new ProcesoException("Lista no encontrada: " + listaId));
-        if (!lista.getUsuario().getId().equals(usuarioId)) {
-            throw new ProcesoException("No tienes permiso para modificar esta lista.");
+    @Transactional
+    public ListaCompraDto generarListaMultiple(Set<Long> menuIds, Long usuarioId) {
+        // 1. Comprobar con una sola consulta que todos los menús existen y pertenecen al usuario
+        if (menuSemanalRepository.countByIdInAndUsuarioId(menuIds, usuarioId) != menuIds.size()) {
+            throw new ProcesoException("Alguno de los menús no existe o no tienes permiso para verlo: " + menuIds);
         }
 
-        // Carga todos los ingredientes que se pidieron
-        List<Ingrediente> nuevos = ingredienteRepository.findAllById(ingredienteIds);
-        List<Ingrediente> items = lista.getItems();
-        // Sólo añadimos los que no estuvieran ya
-        for (Ingrediente ing : nuevos) {
-            if (!items.contains(ing)) {
-                items.add(ing);
-            }
+        // 2. Resolver en una sola consulta el conjunto de ingredientes de todos los menús
+        List<Ingrediente> ingredientes = contenidoMenuService.obtenerIngredientes(menuIds);
+
+        // 3. Crear y guardar la ListaCompra
+        cacheLecturas.invalidar(usuarioId);
+        ListaCompra lista = new ListaCompra();
+        lista.setUsuario(usuarioRepository.getReferenceById(usuarioId));
+        lista.setItems(crearItems(lista, ingredientes));
+        try {
+            lista = listaCompraRepository.save(lista);
+        } catch (Exception e) {
+            throw new ProcesoException("Error al generar la lista de la compra", e);
         }
-        lista.setItems(items);
+        return mapToDto(lista, usuarioId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public ListaCompraDto generarListaVinculada(Long menuId, Long usuarioId) {
+        MenuSemanal menu = obtenerMenuDelUsuario(menuId, usuarioId);
+
+        // 1. Contar en una sola consulta las referencias de cada ingrediente del menú
+        Map<Long, Integer> referencias = contenidoMenuService.contarReferencias(menuId);
+        Map<Long, Ingrediente> ingredientes = ingredienteRepository.findAllById(referencias.keySet())
+                .stream()
+                .collect(Collectors.toMap(Ingrediente::getId, Function.identity()));
+
+        // 2. Crear la lista vinculada con sus contadores
+        cacheLecturas.invalidar(usuarioId);
+        ListaCompra lista = new ListaCompra();
+        lista.setUsuario(menu.getUsuario());
+        lista.setMenuSemanal(menu);
+        lista.setItems(crearItems(lista, ingredientes.values()));
+        List<ListaCompraReferencia> contadores = new ArrayList<>();
+        referencias.forEach((ingredienteId, numero) ->
+                contadores.add(new ListaCompraReferencia(null, lista, ingredientes.get(ingredienteId), numero)));
+        lista.setReferencias(contadores);
 
         try {
             lista = listaCompraRepository.save(lista);
         } catch (Exception e) {
-            throw new ProcesoException("Error al añadir ingredientes.", e);
+            throw new ProcesoException("Error al generar la lista de la compra", e);
         }
         return mapToDto(lista, usuarioId);
     }
@@ -127,24 +207,162 @@ public class ListaCompraServiceImpl implements ListaCompraService {
      * {@inheritDoc}
      */
     @Override
-    public ListaCompraDto removeItems(Long listaId, Long usuarioId, List<Long> ingredienteIds) {
-        ListaCompra lista = listaCompraRepository.findById(listaId)
-                .orElseThrow(() -> new ProcesoException("Lista no encontrada: " + listaId));
-        if (!lista.getUsuario().getId().equals(usuarioId)) {
-            throw new ProcesoException("No tienes permiso para modificar esta lista.");
+    @Transactional
+    public void aplicarCambiosMenu(Long menuId, Map<Long, Integer> deltaRecetas) {
+        Map<Long, Integer> cambios = new HashMap<>(deltaRecetas);
+        cambios.values().removeIf(delta -> delta == 0);
+        if (cambios.isEmpty()) {
+            return;
         }
+        List<ListaCompra> listas = listaCompraRepository.findAllByMenuSemanalId(menuId);
+        if (listas.isEmpty()) {
+            return;
+        }
+
+        // 1. Traducir la variación por receta a variación por ingrediente
+        Map<Long, Integer> deltaIngredientes = new HashMap<>();
+        for (RecetaIngrediente par : recetaRepository.findIngredientesByRecetaIdIn(cambios.keySet())) {
+            deltaIngredientes.merge(par.getIngredienteId(), cambios.get(par.getRecetaId()), Integer::sum);
+        }
+        deltaIngredientes.values().removeIf(delta -> delta == 0);
+        if (deltaIngredientes.isEmpty()) {
+            return;
+        }
+
+        // 2. Cargar solo los contadores afectados de todas las listas vinculadas
+        Map<Long, Map<Long, ListaCompraReferencia>> contadoresPorLista = new HashMap<>();
+        for (ListaCompraReferencia contador : listaCompraReferenciaRepository.findByListaCompraIdInAndIngredienteIdIn(
+                listas.stream().map(ListaCompra::getId).toList(), deltaIngredientes.keySet())) {
+            contadoresPorLista.computeIfAbsent(contador.getListaCompra().getId(), k -> new HashMap<>())
+                    .put(contador.getIngrediente().getId(), contador);
+        }
+
+        // 3. Aplicar la variación: los ingredientes aparecen al pasar de cero y desaparecen al volver a cero
+        for (ListaCompra lista : listas) {
+            Map<Long, ListaCompraReferencia> contadores = contadoresPorLista.getOrDefault(lista.getId(), Map.of());
+            if (quedariaNegativo(contadores, deltaIngredientes)) {
+                // Un contador no puede quedar negativo: la lista se ha desviado de la cuadrícula del menú,
+                // así que en lugar de aplicar la variación se reconstruyen sus contadores a partir del menú
+                logger.warn("Contadores de referencias desviados en la lista {} (menú {}); se reconstruyen desde el menú",
+                        lista.getId(), menuId);
+                reconstruirContadores(lista, contenidoMenuService.contarReferencias(menuId));
+                continue;
+            }
+            Set<Long> altas = new HashSet<>();
+            Set<Long> bajas = new HashSet<>();
+            for (Map.Entry<Long, Integer> delta : deltaIngredientes.entrySet()) {
+                ListaCompraReferencia contador = contadores.get(delta.getKey());
+                int nuevo = (contador == null ? 0 : contador.getReferencias()) + delta.getValue();
+                if (contador == null && nuevo > 0) {
+                    listaCompraReferenciaRepository.save(new ListaCompraReferencia(null, lista,
+                            ingredienteRepository.getReferenceById(delta.getKey()), nuevo));
+                    altas.add(delta.getKey());
+                } else if (contador != null && nuevo == 0) {
+                    listaCompraReferenciaRepository.delete(contador);
+                    bajas.add(delta.getKey());
+                } else if (contador != null) {
+                    contador.setReferencias(nuevo);
+                }
+            }
+            actualizarItems(lista, altas, bajas);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void recalcularListasConRecetas(Collection<Long> recetaIds) {
+        if (recetaIds.isEmpty()) {
+            return;
+        }
+        List<Long> menuIds = contenidoMenuService.obtenerMenusVinculadosConRecetas(recetaIds);
+        if (menuIds.isEmpty()) {
+            return;
+        }
+
+        // Los contadores se cuentan una vez por menú, aunque tenga varias listas vinculadas
+        Map<Long, Map<Long, Integer>> referenciasPorMenu = new HashMap<>();
+        for (ListaCompra lista : listaCompraRepository.findAllByMenuSemanalIdIn(menuIds)) {
+            reconstruirContadores(lista, referenciasPorMenu.computeIfAbsent(lista.getMenuSemanal().getId(),
+                    contenidoMenuService::contarReferencias));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void desvincularMenu(Long menuId) {
+        menuSemanalRepository.findUsuarioIdById(menuId).ifPresent(cacheLecturas::invalidar);
+        listaCompraReferenciaRepository.deleteByMenuSemanalId(menuId);
+        listaCompraRepository.desvincularMenu(menuId);
+    }
 
-        // Eliminamos por ID
-        List<Ingrediente> items = lista.getItems();
-        items.removeIf(ing -> ingredienteIds.contains(ing.getId()));
-        lista.setItems(items);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public ListaCompraDto addItems(Long listaId, Long usuarioId, List<Long> ingredienteIds) {
+        comprobarPropietario(listaId, usuarioId);
+        escrituraDiferida.olvidar(listaId);
+        huellaCache.olvidarLista(listaId);
+        cacheLecturas.invalidar(usuarioId);
 
+        // Una sola sentencia inserta únicamente los ingredientes que no estuvieran ya
         try {
-            lista = listaCompraRepository.save(lista);
+            listaCompraItemRepository.insertItemsAusentes(listaId, new HashSet<>(ingredienteIds));
+        } catch (Exception e) {
+            throw new ProcesoException("Error al añadir ingredientes.", e);
+        }
+        return mapToDto(listaId, usuarioId, listaCompraItemRepository.findAllByListaCompraId(listaId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public ListaCompraDto removeItems(Long listaId, Long usuarioId, List<Long> ingredienteIds) {
+        comprobarPropietario(listaId, usuarioId);
+        escrituraDiferida.olvidar(listaId);
+        huellaCache.olvidarLista(listaId);
+        cacheLecturas.invalidar(usuarioId);
+
+        // Eliminamos por ID solo las filas afectadas de la tabla intermedia
+        try {
+            listaCompraItemRepository.deleteItems(listaId, new HashSet<>(ingredienteIds));
         } catch (Exception e) {
             throw new ProcesoException("Error al quitar ingredientes.", e);
         }
-        return mapToDto(lista, usuarioId);
+        return mapToDto(listaId, usuarioId, listaCompraItemRepository.findAllByListaCompraId(listaId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void marcarItem(Long listaId, Long usuarioId, Long ingredienteId, Boolean comprado) {
+        // Con la escritura diferida la marca se agrupa en memoria y se vuelca en el siguiente lote;
+        // las lecturas ya la incluyen, así que la versión del usuario cambia igualmente
+        if (escrituraDiferida.isHabilitada()) {
+            escrituraDiferida.marcar(listaId, usuarioId, ingredienteId, comprado);
+            cacheLecturas.invalidar(usuarioId);
+            return;
+        }
+
+        // Sin ella, una única actualización por clave primaria que además comprueba el propietario
+        int actualizados = comprado == null
+                ? listaCompraItemRepository.alternarComprado(listaId, ingredienteId, usuarioId)
+                : listaCompraItemRepository.marcarComprado(listaId, ingredienteId, usuarioId, comprado);
+        if (actualizados == 0) {
+            throw new ProcesoException("Ingrediente " + ingredienteId + " no encontrado en la lista " + listaId
+                    + " o no tienes permiso para modificarla.");
+        }
+        cacheLecturas.invalidar(usuarioId);
     }
 
     /**
@@ -159,6 +377,9 @@ public class ListaCompraServiceImpl implements ListaCompraService {
             throw new ProcesoException("No tienes permiso para eliminar esta lista.");
         }
 
+        escrituraDiferida.olvidar(listaCompraId);
+        huellaCache.olvidarLista(listaCompraId);
+        cacheLecturas.invalidar(usuarioId);
         try {
             listaCompraRepository.delete(lista);
         } catch (Exception e) {
@@ -170,20 +391,208 @@ public class ListaCompraServiceImpl implements ListaCompraService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ListaCompraDto> obtenerListasDelUsuario(Long usuarioId) {
         List<ListaCompra> listas = listaCompraRepository.findAllByUsuarioId(usuarioId);
 
+        // Los ítems de todas las listas se cargan en una sola consulta y se agrupan por lista
+        Map<Long, List<ListaCompraItem>> itemsPorLista = listaCompraItemRepository.findAllByUsuarioId(usuarioId)
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getId().getListaCompraId()));
+
         return listas.stream()
-                .map(lista -> ListaCompraDto.builder()
-                        .id(lista.getId())
-                        .usuarioId(usuarioId)
-                        .items(lista.getItems().stream()
-                                .map(ingredienteSimpleMapper::toDto)
-                                .toList())
-                        .build())
+                .map(lista -> mapToDto(lista.getId(), usuarioId,
+                        itemsPorLista.getOrDefault(lista.getId(), List.of())))
                 .toList();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDto<ListaCompraDto> obtenerPaginaListasDelUsuario(Long usuarioId, Long cursor, int tamano) {
+        // 1. Identificadores de las listas de la página leídos por clave, sin OFFSET
+        PaginaDto<Long> pagina = Paginacion.pagina(
+                listaCompraRepository.findIdsByUsuarioIdAntesDe(usuarioId, Paginacion.desde(cursor),
+                        Paginacion.limite(tamano)),
+                tamano, Function.identity());
+        List<Long> listaIds = pagina.getElementos();
+        if (listaIds.isEmpty()) {
+            return new PaginaDto<>(new ArrayList<>(), null);
+        }
+
+        // 2. Ítems de las listas de la página en una sola consulta
+        Map<Long, List<ListaCompraItem>> itemsPorLista = listaCompraItemRepository.findAllByListaCompraIdIn(listaIds)
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getId().getListaCompraId()));
+
+        return new PaginaDto<>(
+                listaIds.stream()
+                        .map(id -> mapToDto(id, usuarioId, itemsPorLista.getOrDefault(id, List.of())))
+                        .toList(),
+                pagina.getSiguienteCursor());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ListaCompraAgrupadaDto> obtenerListasAgrupadasDelUsuario(Long usuarioId) {
+        return obtenerListasDelUsuario(usuarioId).stream()
+                .map(this::agrupar)
+                .toList();
+    }
+
+    /**
+     * Función auxiliar para obtener un menú semanal comprobando que pertenece al usuario.
+     *
+     * @param menuId     identificador del menú semanal
+     * @param usuarioId  identificador del usuario que realiza la operación
+     * @return entidad MenuSemanal encontrada
+     */
+    private MenuSemanal obtenerMenuDelUsuario(Long menuId, Long usuarioId) {
+        MenuSemanal menu = menuSemanalRepository.findById(menuId)
+                .orElseThrow(() -> new ProcesoException("Menú no encontrado: " + menuId));
+        if (!menu.getUsuario().getId().equals(usuarioId)) {
+            throw new ProcesoException("No tienes permiso para ver este menú.");
+        }
+        return menu;
+    }
+
+    /**
+     * Función auxiliar para recuperar una lista generada anteriormente a partir de la caché de huellas.
+     * Si la lista ya no existe, no pertenece al usuario o ya tiene ingredientes comprados (se está usando
+     * para hacer la compra), se olvida y no se reutiliza.
+     *
+     * @param listaId    identificador de la lista recordada
+     * @param usuarioId  identificador del usuario que realiza la operación
+     * @return DTO de la lista (si puede reutilizarse)
+     */
+    private Optional<ListaCompraDto> reutilizarLista(Long listaId, Long usuarioId) {
+        if (listaCompraRepository.findUsuarioIdById(listaId).filter(usuarioId::equals).isEmpty()) {
+            huellaCache.olvidarLista(listaId);
+            return Optional.empty();
+        }
+        ListaCompraDto lista = mapToDto(listaId, usuarioId, listaCompraItemRepository.findAllByListaCompraId(listaId));
+        if (lista.getItems().stream().anyMatch(ListaCompraItemDto::isComprado)) {
+            huellaCache.olvidarLista(listaId);
+            return Optional.empty();
+        }
+        return Optional.of(lista);
+    }
+
+    /**
+     * Función auxiliar para comprobar si aplicar una variación dejaría algún contador de una lista en negativo.
+     *
+     * @param contadores         contadores afectados de la lista, por identificador de ingrediente
+     * @param deltaIngredientes  variación de referencias por identificador de ingrediente
+     * @return true si algún contador quedaría por debajo de cero
+     */
+    private boolean quedariaNegativo(Map<Long, ListaCompraReferencia> contadores, Map<Long, Integer> deltaIngredientes) {
+        return deltaIngredientes.entrySet().stream().anyMatch(delta -> {
+            ListaCompraReferencia contador = contadores.get(delta.getKey());
+            return (contador == null ? 0 : contador.getReferencias()) + delta.getValue() < 0;
+        });
+    }
+
+    /**
+     * Función auxiliar para sustituir los contadores de una lista vinculada por los calculados a partir del
+     * contenido actual de su menú, añadiendo o quitando los ingredientes que aparecen o desaparecen.
+     *
+     * @param lista       lista de la compra vinculada
+     * @param referencias número de referencias por identificador de ingrediente en el menú
+     */
+    private void reconstruirContadores(ListaCompra lista, Map<Long, Integer> referencias) {
+        Map<Long, Integer> pendientes = new HashMap<>(referencias);
+        Set<Long> bajas = new HashSet<>();
+        for (ListaCompraReferencia contador : listaCompraReferenciaRepository.findByListaCompraId(lista.getId())) {
+            Long ingredienteId = contador.getIngrediente().getId();
+            Integer numero = pendientes.remove(ingredienteId);
+            if (numero == null) {
+                listaCompraReferenciaRepository.delete(contador);
+                bajas.add(ingredienteId);
+            } else {
+                contador.setReferencias(numero);
+            }
+        }
+        pendientes.forEach((ingredienteId, numero) -> listaCompraReferenciaRepository.save(
+                new ListaCompraReferencia(null, lista, ingredienteRepository.getReferenceById(ingredienteId), numero)));
+        actualizarItems(lista, pendientes.keySet(), bajas);
+    }
+
+    /**
+     * Función auxiliar para añadir y quitar de una lista vinculada los ingredientes cuyo contador
+     * ha pasado de cero o ha vuelto a cero.
+     *
+     * @param lista lista de la compra vinculada
+     * @param altas identificadores de los ingredientes que entran en la lista
+     * @param bajas identificadores de los ingredientes que salen de la lista
+     */
+    private void actualizarItems(ListaCompra lista, Set<Long> altas, Set<Long> bajas) {
+        if (altas.isEmpty() && bajas.isEmpty()) {
+            return;
+        }
+        escrituraDiferida.olvidar(lista.getId());
+        cacheLecturas.invalidar(lista.getUsuario().getId());
+        if (!altas.isEmpty()) {
+            listaCompraItemRepository.insertItemsAusentes(lista.getId(), altas);
+        }
+        if (!bajas.isEmpty()) {
+            listaCompraItemRepository.deleteItems(lista.getId(), bajas);
+        }
+    }
+
+    /**
+     * Función auxiliar para comprobar que una lista existe y pertenece al usuario sin cargar sus ingredientes.
+     *
+     * @param listaId    identificador de la lista de compra
+     * @param usuarioId  identificador del usuario que realiza la operación
+     */
+    private void comprobarPropietario(Long listaId, Long usuarioId) {
+        Long propietarioId = listaCompraRepository.findUsuarioIdById(listaId)
+                .orElseThrow(() -> new ProcesoException("Lista no encontrada: " + listaId));
+        if (!propietarioId.equals(usuarioId)) {
+            throw new ProcesoException("No tienes permiso para modificar esta lista.");
+        }
+    }
+
+    /**
+     * Función auxiliar para crear los ítems de una lista nueva, pendientes de comprar y en el orden recibido.
+     *
+     * @param lista        lista de la compra a la que pertenecen los ítems
+     * @param ingredientes ingredientes a incluir
+     * @return ítems de la lista
+     */
+    private List<ListaCompraItem> crearItems(ListaCompra lista, Collection<Ingrediente> ingredientes) {
+        List<ListaCompraItem> items = new ArrayList<>(ingredientes.size());
+        for (Ingrediente ingrediente : ingredientes) {
+            items.add(new ListaCompraItem(lista, ingrediente, items.size()));
+        }
+        return items;
+    }
+
+    /**
+     * Función auxiliar para agrupar por categoría, en una sola pasada, los ingredientes de una lista.
+     * El EnumMap mantiene las categorías en el orden de su identificador y los ingredientes conservan su posición.
+     *
+     * @param lista DTO de la lista de compra con los ingredientes ordenados por posición
+     * @return DTO de la lista agrupada por categoría
+     */
+    private ListaCompraAgrupadaDto agrupar(ListaCompraDto lista) {
+        EnumMap<CategoriaIngrediente, List<ListaCompraItemDto>> categorias = new EnumMap<>(CategoriaIngrediente.class);
+        for (ListaCompraItemDto item : lista.getItems()) {
+            CategoriaIngrediente categoria = item.getCategoria() != null ? item.getCategoria() : CategoriaIngrediente.OTROS;
+            categorias.computeIfAbsent(categoria, k -> new ArrayList<>()).add(item);
+        }
+        return ListaCompraAgrupadaDto.builder()
+                .id(lista.getId())
+                .usuarioId(lista.getUsuarioId())
+                .categorias(categorias)
+                .build();
+    }
+
     /**
      * Función auxiliar para mapear una entidad ListaCompra a su DTO.
      *
@@ -192,13 +601,27 @@ public class ListaCompraServiceImpl implements ListaCompraService {
      * @return DTO de ListaCompra
      */
     private ListaCompraDto mapToDto(ListaCompra lista, Long usuarioId) {
-        return ListaCompraDto.builder()
-                .id(lista.getId())
+        return mapToDto(lista.getId(), usuarioId, lista.getItems());
+    }
+
+    /**
+     * Función auxiliar para construir el DTO de una lista a partir de sus ingredientes ya cargados.
+     *
+     * @param listaId    identificador de la lista de compra
+     * @param usuarioId  identificador del usuario propietario
+     * @param items      ítems de la lista con su ingrediente
+     * @return DTO de ListaCompra
+     */
+    private ListaCompraDto mapToDto(Long listaId, Long usuarioId, List<ListaCompraItem> items) {
+        ListaCompraDto dto = ListaCompraDto.builder()
+                .id(listaId)
                 .usuarioId(usuarioId)
-                .items(lista.getItems()
+                .items(items
                         .stream()
-                        .map(ingredienteSimpleMapper::toDto)
+                        .map(listaCompraItemMapper::toDto)
                         .toList())
                 .build();
+        // Las marcas aún no volcadas prevalecen sobre lo leído de la base de datos
+        return escrituraDiferida.aplicarEstado(dto);
     }
 }
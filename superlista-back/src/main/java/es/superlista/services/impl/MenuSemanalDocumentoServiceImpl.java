@@ -0,0 +1,399 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.*;
+import es.superlista.domain.entity.Usuario;
+import es.superlista.domain.entity.menu_semanal.CuadriculaRecetas;
+import es.superlista.domain.entity.menu_semanal.MenuSemanal;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.projection.DocumentoMenu;
+import es.superlista.domain.projection.NombreReceta;
+import es.superlista.domain.repository.MenuSemanalRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.domain.repository.UsuarioRepository;
+import es.superlista.exception.ProcesoException;
+import es.superlista.services.CacheLecturasService;
+import es.superlista.services.ListaCompraService;
+import es.superlista.services.MenuSemanalService;
+import es.superlista.utils.BBDD;
+import es.superlista.utils.CuadriculaMenu;
+import es.superlista.utils.Paginacion;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación del servicio {@link MenuSemanalService} para el modo de almacenamiento documento
+ * ({@code superlista.menu.almacenamiento=documento}). La cuadrícula de recetas de cada menú se guarda
+ * codificada en una sola columna de MENU_SEMANAL ({@link CuadriculaRecetas}), de modo que leer o escribir
+ * un menú es una operación sobre una única fila; las recetas solo se consultan para validarlas y para
+ * presentar su nombre e ingredientes. Devuelve los mismos DTOs que el modo relacional.
+ * <p>
+ * Al no haber clave foránea hacia RECETA, una receta eliminada puede seguir en la cuadrícula:
+ * se omite al presentar el menú y no aporta ingredientes a las listas.
+ * <p>
+ * Cada edición lee la cuadrícula completa, la modifica y la vuelve a escribir, así que el menú se lee con
+ * bloqueo de escritura: dos ediciones simultáneas del mismo menú se aplican una detrás de otra en lugar de
+ * perder una de ellas (y descuadrar los contadores de las listas vinculadas).
+ */
+@Service
+@Transactional
+@ConditionalOnProperty(name = "superlista.menu.almacenamiento", havingValue = "documento")
+public class MenuSemanalDocumentoServiceImpl implements MenuSemanalService {
+
+    private final MenuSemanalRepository menuSemanalRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final RecetaRepository recetaRepository;
+    private final EnsambladorMenus ensambladorMenus;
+    private final ListaCompraService listaCompraService;
+    private final ReservaIdentificadores reservaIdentificadores;
+    private final CacheLecturasService cacheLecturas;
+
+    /**
+     * Constructor que inyecta los repositorios y servicios necesarios.
+     *
+     * @param menuSemanalRepository  repositorio de menús semanales
+     * @param usuarioRepository      repositorio de usuarios
+     * @param recetaRepository       repositorio de recetas
+     * @param ensambladorMenus       constructor de los DTOs de los menús leídos como tuplas
+     * @param listaCompraService     servicio de listas de compra, para mantener las listas vinculadas
+     * @param reservaIdentificadores reserva de bloques de identificadores para las copias de menús
+     * @param cacheLecturas          caché de lecturas por usuario, que se invalida con cada escritura
+     */
+    public MenuSemanalDocumentoServiceImpl(MenuSemanalRepository menuSemanalRepository,
+                                           UsuarioRepository usuarioRepository,
+                                           RecetaRepository recetaRepository,
+                                           EnsambladorMenus ensambladorMenus,
+                                           ListaCompraService listaCompraService,
+                                           ReservaIdentificadores reservaIdentificadores,
+                                           CacheLecturasService cacheLecturas) {
+        this.menuSemanalRepository = menuSemanalRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.recetaRepository = recetaRepository;
+        this.ensambladorMenus = ensambladorMenus;
+        this.listaCompraService = listaCompraService;
+        this.reservaIdentificadores = reservaIdentificadores;
+        this.cacheLecturas = cacheLecturas;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MenuSemanalDto crearMenuSemanal(MenuSemanalCreateDto request, Long usuarioId) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new ProcesoException("Usuario no encontrado con id: " + usuarioId));
+
+        MenuSemanal menu = new MenuSemanal();
+        menu.setUsuario(usuario);
+        List<CategoriaComida> categorias = request.getCategorias();
+        if (categorias != null && !categorias.isEmpty()) {
+            menu.setCategorias(EnumSet.copyOf(categorias));
+        }
+        cacheLecturas.invalidar(usuarioId);
+        try {
+            menu = menuSemanalRepository.save(menu);
+        } catch (Exception e) {
+            throw new ProcesoException("No se pudo guardar el menú en la base de datos", e);
+        }
+        return ensambladorMenus.menu(menu.getId(), usuarioId, menu.getCategorias(), List.of());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Long clonarMenu(Long menuId, Long usuarioId) {
+        // La cuadrícula viaja con la fila del menú: la copia es una única sentencia INSERT ... SELECT
+        Long nuevoId = reservaIdentificadores.reservar(BBDD.Secuencias.MENU_SEMANAL, 1);
+        if (menuSemanalRepository.clonarMenu(nuevoId, menuId, usuarioId) == 0) {
+            throw new ProcesoException("Menú no encontrado o no tienes permiso para copiarlo");
+        }
+        cacheLecturas.invalidar(usuarioId);
+        return nuevoId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MenuSemanalDto obtenerMenuSemanal(Long menuId, Long usuarioId) {
+        DocumentoMenu menu = menuSemanalRepository.findDocumentoByIdAndUsuarioId(menuId, usuarioId)
+                .orElseThrow(() -> new ProcesoException(
+                        "Menú no encontrado o no tienes permiso para verlo"));
+        return ensamblarMenus(usuarioId, List.of(menu), true).get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public boolean agregarReceta(Long menuId,
+                                 DiaSemana dia,
+                                 CategoriaComida categoria,
+                                 Long recetaId) {
+        MenuSemanal menu = menuSemanalRepository.findByIdParaModificar(menuId)
+                .orElseThrow(() -> new ProcesoException("Menú no encontrado con id: " + menuId));
+        cacheLecturas.invalidar(menu.getUsuario().getId());
+        validarCelda(menu, dia, categoria);
+        if (!recetaRepository.existsById(recetaId)) {
+            throw new ProcesoException("Receta no encontrada con id: " + recetaId);
+        }
+
+        CuadriculaRecetas cuadricula = cuadricula(menu);
+        cuadricula.agregar(dia, categoria, recetaId);
+        menu.setCuadricula(cuadricula);
+
+        listaCompraService.aplicarCambiosMenu(menuId, Map.of(recetaId, 1));
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MenuSemanalDto> obtenerMenusDeUsuario(Long usuarioId, boolean incluirIngredientes) {
+        return ensamblarMenus(usuarioId, menuSemanalRepository.findDocumentosByUsuarioId(usuarioId),
+                incluirIngredientes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDto<MenuSemanalDto> obtenerPaginaMenusDeUsuario(Long usuarioId, Long cursor, int tamano,
+                                                                 boolean incluirIngredientes) {
+        PaginaDto<DocumentoMenu> pagina = Paginacion.pagina(
+                menuSemanalRepository.findDocumentosByUsuarioIdAntesDe(usuarioId, Paginacion.desde(cursor),
+                        Paginacion.limite(tamano)),
+                tamano, DocumentoMenu::getId);
+        return new PaginaDto<>(ensamblarMenus(usuarioId, pagina.getElementos(), incluirIngredientes),
+                pagina.getSiguienteCursor());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void actualizarRecetas(ActualizarRecetasMenuDto dto, Long usuarioId) {
+        Long menuId = dto.getMenuId();
+        MenuSemanal menu = menuSemanalRepository.findByIdAndUsuarioIdParaModificar(menuId, usuarioId)
+                .orElseThrow(() -> new ProcesoException("Menú no encontrado o no tienes permiso para modificarlo"));
+        cacheLecturas.invalidar(usuarioId);
+
+        // 1. Construir la nueva cuadrícula a partir de la solicitada
+        CuadriculaRecetas nueva = new CuadriculaRecetas();
+        if (dto.getDiasComidas() != null) {
+            for (DiaComidaDto diaDto : dto.getDiasComidas()) {
+                if (diaDto.getRecetas() == null || diaDto.getRecetas().isEmpty()) {
+                    continue;
+                }
+                validarCelda(menu, diaDto.getDia(), diaDto.getCategoria());
+                diaDto.getRecetas().forEach(r -> nueva.agregar(diaDto.getDia(), diaDto.getCategoria(), r.getId()));
+            }
+        }
+
+        // 2. Validar todas las recetas con una sola consulta y sustituir la cuadrícula (una fila)
+        validarRecetas(nueva.recetaIds());
+        CuadriculaRecetas anterior = cuadricula(menu);
+        menu.setCuadricula(nueva);
+
+        listaCompraService.aplicarCambiosMenu(menuId, variacion(anterior, nueva));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void modificarMenu(Long menuId, Long usuarioId, List<OperacionMenuDto> operaciones) {
+        MenuSemanal menu = menuSemanalRepository.findByIdAndUsuarioIdParaModificar(menuId, usuarioId)
+                .orElseThrow(() -> new ProcesoException("Menú no encontrado o no tienes permiso para modificarlo"));
+        cacheLecturas.invalidar(usuarioId);
+
+        // 1. Aplicar las operaciones sobre una copia de la cuadrícula
+        CuadriculaRecetas anterior = cuadricula(menu);
+        CuadriculaRecetas nueva = anterior.copia();
+        Set<Long> recetasAgregadas = new HashSet<>();
+        for (OperacionMenuDto operacion : operaciones) {
+            DiaSemana dia = operacion.getDia();
+            CategoriaComida categoria = operacion.getCategoria();
+            switch (operacion.getOp()) {
+                case AGREGAR -> {
+                    Long recetaId = obtenerRecetaId(operacion);
+                    validarCelda(menu, dia, categoria);
+                    nueva.agregar(dia, categoria, recetaId);
+                    recetasAgregadas.add(recetaId);
+                }
+                case QUITAR -> quitarReceta(nueva, dia, categoria, obtenerRecetaId(operacion));
+                case MOVER -> {
+                    Long recetaId = obtenerRecetaId(operacion);
+                    if (operacion.getDiaDestino() == null || operacion.getCategoriaDestino() == null) {
+                        throw new ProcesoException("La celda destino es obligatoria para mover una receta");
+                    }
+                    validarCelda(menu, operacion.getDiaDestino(), operacion.getCategoriaDestino());
+                    quitarReceta(nueva, dia, categoria, recetaId);
+                    nueva.agregar(operacion.getDiaDestino(), operacion.getCategoriaDestino(), recetaId);
+                }
+                case VACIAR -> nueva.vaciar(dia, categoria);
+            }
+        }
+
+        // 2. Validar las recetas añadidas con una sola consulta y guardar la cuadrícula (una fila)
+        validarRecetas(recetasAgregadas);
+        menu.setCuadricula(nueva);
+
+        listaCompraService.aplicarCambiosMenu(menuId, variacion(anterior, nueva));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void eliminarMenu(Long menuId) {
+        menuSemanalRepository.findUsuarioIdById(menuId).ifPresent(cacheLecturas::invalidar);
+        listaCompraService.desvincularMenu(menuId);
+        menuSemanalRepository.deleteById(menuId);
+    }
+
+    /**
+     * Función auxiliar para construir los DTOs de varios menús guardados como documento, resolviendo
+     * el nombre (y opcionalmente los ingredientes) de todas sus recetas en bloque.
+     *
+     * @param usuarioId           identificador del usuario propietario
+     * @param menus               menús leídos con su cuadrícula
+     * @param incluirIngredientes si se deben cargar los ingredientes de cada receta
+     * @return DTOs de los menús, en el orden recibido
+     */
+    private List<MenuSemanalDto> ensamblarMenus(Long usuarioId, List<DocumentoMenu> menus, boolean incluirIngredientes) {
+        // 1. Recetas de todos los menús con una sola consulta
+        Set<Long> recetaIds = new HashSet<>();
+        menus.stream()
+                .filter(menu -> menu.getCuadricula() != null)
+                .forEach(menu -> recetaIds.addAll(menu.getCuadricula().recetaIds()));
+        Map<Long, String> nombres = recetaIds.isEmpty() ? Map.of()
+                : recetaRepository.findNombresByIdIn(recetaIds).stream()
+                .collect(Collectors.toMap(NombreReceta::getId, NombreReceta::getNombre));
+        Map<Long, RecetaDto> recetas = ensambladorMenus.recetas(nombres, incluirIngredientes);
+
+        // 2. Cada celda de la cuadrícula con sus recetas, en el orden guardado
+        return menus.stream()
+                .map(menu -> {
+                    List<DiaComidaDto> celdas = new ArrayList<>();
+                    if (menu.getCuadricula() != null) {
+                        menu.getCuadricula().getCeldas().forEach((dia, categorias) ->
+                                categorias.forEach((categoria, ids) -> {
+                                    DiaComidaDto celda = ensambladorMenus.celda(null, dia, categoria);
+                                    ids.stream()
+                                            .map(recetas::get)
+                                            .filter(Objects::nonNull)
+                                            .forEach(celda.getRecetas()::add);
+                                    celdas.add(celda);
+                                }));
+                    }
+                    return ensambladorMenus.menu(menu.getId(), usuarioId, menu.getCategorias(), celdas);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Función auxiliar para obtener una copia modificable de la cuadrícula de un menú.
+     *
+     * @param menu menú semanal
+     * @return cuadrícula del menú (vacía si no tiene recetas)
+     */
+    private CuadriculaRecetas cuadricula(MenuSemanal menu) {
+        return menu.getCuadricula() == null ? new CuadriculaRecetas() : menu.getCuadricula().copia();
+    }
+
+    /**
+     * Función auxiliar para comprobar que una categoría forma parte del menú.
+     *
+     * @param menu      menú semanal
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     */
+    private void validarCelda(MenuSemanal menu, DiaSemana dia, CategoriaComida categoria) {
+        if (!CuadriculaMenu.incluye(menu.getCategorias(), categoria)) {
+            throw new ProcesoException("No existe celda para día " + dia + " y categoría " + categoria);
+        }
+    }
+
+    /**
+     * Función auxiliar para comprobar con una sola consulta que existen todas las recetas indicadas.
+     *
+     * @param recetaIds identificadores de las recetas
+     */
+    private void validarRecetas(Collection<Long> recetaIds) {
+        if (recetaIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ausentes = new HashSet<>(recetaIds);
+        recetaRepository.findNombresByIdIn(recetaIds).forEach(receta -> ausentes.remove(receta.getId()));
+        if (!ausentes.isEmpty()) {
+            throw new ProcesoException("Receta no encontrada con id: " + ausentes);
+        }
+    }
+
+    /**
+     * Función auxiliar para quitar una aparición de una receta de una celda de la cuadrícula.
+     *
+     * @param cuadricula cuadrícula del menú
+     * @param dia        día de la semana
+     * @param categoria  categoría de comida
+     * @param recetaId   identificador de la receta
+     */
+    private void quitarReceta(CuadriculaRecetas cuadricula, DiaSemana dia, CategoriaComida categoria, Long recetaId) {
+        if (!cuadricula.quitar(dia, categoria, recetaId)) {
+            throw new ProcesoException("La receta " + recetaId + " no está asignada a " + dia + " - " + categoria);
+        }
+    }
+
+    /**
+     * Función auxiliar para obtener la receta de una operación que la requiere.
+     *
+     * @param operacion operación sobre el menú
+     * @return identificador de la receta
+     */
+    private Long obtenerRecetaId(OperacionMenuDto operacion) {
+        if (operacion.getRecetaId() == null) {
+            throw new ProcesoException("La receta es obligatoria para la operación " + operacion.getOp());
+        }
+        return operacion.getRecetaId();
+    }
+
+    /**
+     * Función auxiliar para calcular la variación del número de asignaciones de cada receta entre dos cuadrículas.
+     *
+     * @param anterior cuadrícula anterior
+     * @param nueva    cuadrícula nueva
+     * @return variación por identificador de receta
+     */
+    private Map<Long, Integer> variacion(CuadriculaRecetas anterior, CuadriculaRecetas nueva) {
+        Map<Long, Integer> delta = new HashMap<>();
+        anterior.getCeldas().values().forEach(categorias -> categorias.values()
+                .forEach(ids -> ids.forEach(id -> delta.merge(id, -1, Integer::sum))));
+        nueva.getCeldas().values().forEach(categorias -> categorias.values()
+                .forEach(ids -> ids.forEach(id -> delta.merge(id, 1, Integer::sum))));
+        delta.values().removeIf(v -> v == 0);
+        return delta;
+    }
+}
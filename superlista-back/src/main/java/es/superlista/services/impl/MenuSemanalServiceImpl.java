@@ -8,27 +8,46 @@ import es.superlista.domain.entity.Usuario;
 import es.superlista.domain.enumeration.CategoriaComida;
 import es.superlista.domain.enumeration.DiaSemana;
 import es.superlista.domain.mapper.MenuSemanalMapper;
+import es.superlista.domain.projection.CeldaReceta;
+import es.superlista.domain.projection.MenuBloqueado;
+import es.superlista.domain.projection.ResumenMenu;
 import es.superlista.domain.repository.DiaComidaRepository;
 import es.superlista.domain.repository.MenuSemanalRepository;
 import es.superlista.domain.repository.RecetaRepository;
 import es.superlista.domain.repository.UsuarioRepository;
 import es.superlista.exception.ProcesoException;
+import es.superlista.services.CacheLecturasService;
+import es.superlista.services.ListaCompraService;
 import es.superlista.services.MenuSemanalService;
+import es.superlista.utils.BBDD;
+import es.superlista.utils.CuadriculaMenu;
+import es.superlista.utils.Paginacion;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio {@link MenuSemanalService}.
  * Gestiona las operaciones de negocio relacionadas con los menús semanales,
  * incluyendo su creación, actualización, eliminación, asignación de recetas y consultas.
+ * Es el modo de almacenamiento relacional (por defecto), con las recetas en las tablas DIA_COMIDA y DIA_COMIDA_RECETAS.
  */
 @Service
 @Transactional
+@ConditionalOnProperty(name = "superlista.menu.almacenamiento", havingValue = "relacional", matchIfMissing = true)
 public class MenuSemanalServiceImpl implements MenuSemanalService {
 
     private final MenuSemanalRepository menuSemanalRepository;
@@ -36,25 +55,41 @@ public class MenuSemanalServiceImpl implements MenuSemanalService {
     private final MenuSemanalMapper menuSemanalMapper;
     private final RecetaRepository recetaRepository;
     private final DiaComidaRepository diaComidaRepository;
+    private final EnsambladorMenus ensambladorMenus;
+    private final ListaCompraService listaCompraService;
+    private final ReservaIdentificadores reservaIdentificadores;
+    private final CacheLecturasService cacheLecturas;
 
     /**
      * Constructor que inyecta los repositorios y el mapper necesarios.
      *
-     * @param menuSemanalRepository repositorio de menús semanales
-     * @param usuarioRepository     repositorio de usuarios
-     * @param menuSemanalMapper     mapper para convertir entre entidad y DTO
-     * @param recetaRepository      repositorio de recetas
-     * @param diaComidaRepository   repositorio de celdas DíaComida
+     * @param menuSemanalRepository  repositorio de menús semanales
+     * @param usuarioRepository      repositorio de usuarios
+     * @param menuSemanalMapper      mapper para convertir entre entidad y DTO
+     * @param recetaRepository       repositorio de recetas
+     * @param diaComidaRepository    repositorio de celdas DíaComida
+     * @param ensambladorMenus       constructor de los DTOs de los menús leídos como tuplas
+     * @param listaCompraService     servicio de listas de compra, para mantener las listas vinculadas
+     * @param reservaIdentificadores reserva de bloques de identificadores para las copias de menús
+     * @param cacheLecturas          caché de lecturas por usuario, que se invalida con cada escritura
      */
     public MenuSemanalServiceImpl(MenuSemanalRepository menuSemanalRepository,
                                   UsuarioRepository usuarioRepository,
                                   MenuSemanalMapper menuSemanalMapper,
-                                  RecetaRepository recetaRepository, DiaComidaRepository diaComidaRepository) {
+                                  RecetaRepository recetaRepository, DiaComidaRepository diaComidaRepository,
+                                  EnsambladorMenus ensambladorMenus,
+                                  ListaCompraService listaCompraService,
+                                  ReservaIdentificadores reservaIdentificadores,
+                                  CacheLecturasService cacheLecturas) {
         this.menuSemanalRepository = menuSemanalRepository;
         this.usuarioRepository = usuarioRepository;
         this.menuSemanalMapper = menuSemanalMapper;
         this.recetaRepository = recetaRepository;
         this.diaComidaRepository = diaComidaRepository;
+        this.ensambladorMenus = ensambladorMenus;
+        this.listaCompraService = listaCompraService;
+        this.reservaIdentificadores = reservaIdentificadores;
+        this.cacheLecturas = cacheLecturas;
     }
 
     /**
@@ -65,35 +100,18 @@ public class MenuSemanalServiceImpl implements MenuSemanalService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new ProcesoException("Usuario no encontrado con id: " + usuarioId));
 
-        // 1) Creamos el menú y lo persistimos para obtener su ID
+        // 1) Creamos el menú con las categorías que elige el usuario, o todas (nulo) si no indicó
         MenuSemanal menu = new MenuSemanal();
         menu.setUsuario(usuario);
-        try {
-            menu = menuSemanalRepository.save(menu);
-        } catch (Exception e) {
-            throw new ProcesoException("No se pudo crear el menú semanal", e);
-        }
-
-        // 2) Elegir las categorías que crea el usuario, o todas si no indicó
         List<CategoriaComida> categorias = request.getCategorias();
-        if (categorias == null || categorias.isEmpty()) {
-            categorias = Arrays.asList(CategoriaComida.values());
-        }
-
-        // 3) Generar los días
-        List<DiaComida> dias = new ArrayList<>();
-        for (DiaSemana dia : DiaSemana.values()) {
-            for (CategoriaComida categoria : categorias) {
-                DiaComida celda = new DiaComida();
-                celda.setDia(dia);
-                celda.setCategoria(categoria);
-                celda.setMenuSemanal(menu);
-                celda.setRecetas(new ArrayList<>());
-                dias.add(celda);
-            }
+        if (categorias != null && !categorias.isEmpty()) {
+            menu.setCategorias(EnumSet.copyOf(categorias));
         }
-        // 3) Se lo asignamos al menú y volvemos a guardar
-        menu.setDiasComidas(dias);
+
+        // 2) El menú se guarda disperso: las celdas se crean al asignarles la primera receta,
+        //    y el mapper presenta igualmente la cuadrícula completa
+        menu.setDiasComidas(new ArrayList<>());
+        cacheLecturas.invalidar(usuarioId);
         try {
             return menuSemanalMapper.toDto(menuSemanalRepository.save(menu));
 
@@ -102,6 +120,34 @@ public class MenuSemanalServiceImpl implements MenuSemanalService {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Long clonarMenu(Long menuId, Long usuarioId) {
+        // 1. Copiar el menú con un identificador reservado; si no es del usuario no se inserta nada
+        long celdas = diaComidaRepository.countByMenuSemanalId(menuId);
+        Long nuevoId = reservaIdentificadores.reservar(BBDD.Secuencias.MENU_SEMANAL, 1);
+        if (menuSemanalRepository.clonarMenu(nuevoId, menuId, usuarioId) == 0) {
+            throw new ProcesoException("Menú no encontrado o no tienes permiso para copiarlo");
+        }
+        cacheLecturas.invalidar(usuarioId);
+        if (celdas == 0) {
+            return nuevoId;
+        }
+
+        // 2. Copiar las celdas sobre un bloque de identificadores reservado y después sus recetas,
+        //    todo con sentencias INSERT ... SELECT dentro de la base de datos
+        long primerId = reservaIdentificadores.reservar(BBDD.Secuencias.DIA_COMIDA, (int) celdas);
+        if (diaComidaRepository.clonarCeldas(menuId, nuevoId, primerId) > celdas) {
+            // Se añadieron celdas al menú mientras se copiaba: el bloque reservado no alcanza
+            throw new ProcesoException("El menú ha cambiado durante la copia, inténtalo de nuevo");
+        }
+        diaComidaRepository.clonarRecetas(menuId, nuevoId);
+        return nuevoId;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -124,39 +170,59 @@ public class MenuSemanalServiceImpl implements MenuSemanalService {
                                  DiaSemana dia,
                                  CategoriaComida categoria,
                                  Long recetaId) {
+        // 1. Bloquear el menú leyendo en la misma sentencia lo que la inserción necesita de él
+        MenuBloqueado menu = menuSemanalRepository.bloquearMenu(menuId)
+                .orElseThrow(() -> new ProcesoException("Menú no encontrado con id: " + menuId));
 
-        MenuSemanal menu = menuSemanalRepository.findById(menuId)
-                .orElseThrow(() -> new ProcesoException(
-                        "Menú no encontrado con id: " + menuId));
-
-        DiaComida celda = menu.getDiasComidas().stream()
-                .filter(d -> d.getDia() == dia && d.getCategoria() == categoria)
-                .findFirst()
-                .orElseThrow(() -> new ProcesoException(
-                        "No existe celda para día " + dia +
-                                " y categoría " + categoria));
+        // 2. Insertar la receta en su celda: una sentencia si la celda ya existe
+        insertarReceta(menuId, menu.categorias(), dia, categoria, recetaId);
+        cacheLecturas.invalidar(menu.getUsuarioId());
 
-        Receta receta = recetaRepository.findById(recetaId)
-                .orElseThrow(() -> new ProcesoException(
-                        "Receta no encontrada con id: " + recetaId));
+        // 3. Solo si hay listas vinculadas, reciben la variación de esta receta
+        if (menu.isVinculado()) {
+            listaCompraService.aplicarCambiosMenu(menuId, Map.of(recetaId, 1));
+        }
+        return true;
+    }
 
-        try {
-            celda.getRecetas().add(receta);
-            return true;
-        } catch (Exception e) {
-            throw new ProcesoException("Hubo un error al guardar la receta en el menú", e);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MenuSemanalDto> obtenerMenusDeUsuario(Long usuarioId, boolean incluirIngredientes) {
+        // Los menús y sus asignaciones se leen como tuplas planas, sin hidratar entidades
+        List<ResumenMenu> menus = menuSemanalRepository.findResumenesByUsuarioId(usuarioId);
+        if (menus.isEmpty()) {
+            return new ArrayList<>();
         }
+        return ensamblarMenus(usuarioId, menus,
+                diaComidaRepository.findCeldasRecetaByUsuarioId(usuarioId), incluirIngredientes);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public List<MenuSemanalDto> obtenerMenusDeUsuario(Long usuarioId) {
-        List<MenuSemanal> menus = menuSemanalRepository.findByUsuarioId(usuarioId);
-        return menus.stream()
-                .map(menuSemanalMapper::toDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public PaginaDto<MenuSemanalDto> obtenerPaginaMenusDeUsuario(Long usuarioId, Long cursor, int tamano,
+                                                                 boolean incluirIngredientes) {
+        // 1. Menús de la página leídos por clave, sin OFFSET
+        PaginaDto<ResumenMenu> pagina = Paginacion.pagina(
+                menuSemanalRepository.findResumenesByUsuarioIdAntesDe(usuarioId, Paginacion.desde(cursor),
+                        Paginacion.limite(tamano)),
+                tamano, ResumenMenu::getId);
+        List<ResumenMenu> menus = pagina.getElementos();
+        if (menus.isEmpty()) {
+            return new PaginaDto<>(new ArrayList<>(), null);
+        }
+
+        // 2. Asignaciones restringidas a los menús de la página
+        List<Long> menuIds = menus.stream().map(ResumenMenu::getId).toList();
+        return new PaginaDto<>(
+                ensamblarMenus(usuarioId, menus, diaComidaRepository.findCeldasRecetaByMenuSemanalIdIn(menuIds),
+                        incluirIngredientes),
+                pagina.getSiguienteCursor());
     }
 
     /**
@@ -164,28 +230,134 @@ public class MenuSemanalServiceImpl implements MenuSemanalService {
      */
     @Override
     @Transactional
-    public void actualizarRecetas(ActualizarRecetasMenuDto dto) {
+    public void actualizarRecetas(ActualizarRecetasMenuDto dto, Long usuarioId) {
         Long menuId = dto.getMenuId();
 
-        MenuSemanal menu = menuSemanalRepository.findById(menuId)
-                .orElseThrow(() -> new RuntimeException("Menú no encontrado"));
+        // El menú se bloquea antes de leer su cuadrícula: la diferencia se calcula sobre la cuadrícula vigente
+        // y no pisa las ediciones de otras peticiones (ni descuadra los contadores de las listas vinculadas)
+        MenuSemanal menu = menuSemanalRepository.findByIdAndUsuarioIdParaModificar(menuId, usuarioId)
+                .orElseThrow(() -> new ProcesoException("Menú no encontrado o no tienes permiso para modificarlo"));
+        cacheLecturas.invalidar(usuarioId);
+
+        // 1. Cuadrícula solicitada: identificadores de receta por celda (día, categoría)
+        Map<Celda, List<Long>> solicitadas = new HashMap<>();
+        if (dto.getDiasComidas() != null) {
+            for (DiaComidaDto diaDto : dto.getDiasComidas()) {
+                List<Long> ids = diaDto.getRecetas() == null ? List.of()
+                        : diaDto.getRecetas().stream().map(RecetaDto::getId).toList();
+                solicitadas.computeIfAbsent(new Celda(diaDto.getDia(), diaDto.getCategoria()), k -> new ArrayList<>())
+                        .addAll(ids);
+            }
+        }
+
+        // 2. Resolver todas las recetas referenciadas con una sola consulta
+        Set<Long> recetaIds = solicitadas.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+        Map<Long, Receta> recetas = recetaRepository.findAllById(recetaIds).stream()
+                .collect(Collectors.toMap(Receta::getId, Function.identity()));
+        if (recetas.size() != recetaIds.size()) {
+            recetaIds.removeAll(recetas.keySet());
+            throw new ProcesoException("Receta no encontrada con id: " + recetaIds);
+        }
+
+        // 3. Cuadrícula guardada, con las recetas de cada celda cargadas en la misma consulta
+        Map<Celda, DiaComida> guardadas = diaComidaRepository.findAllConRecetasByMenuSemanalId(menuId).stream()
+                .collect(Collectors.toMap(d -> new Celda(d.getDia(), d.getCategoria()), Function.identity()));
+
+        // 4. Escribir solo las celdas cuyo conjunto de recetas cambia, acumulando la variación
+        Map<Long, Integer> deltaRecetas = new HashMap<>();
+        Set<Celda> celdas = new HashSet<>(guardadas.keySet());
+        celdas.addAll(solicitadas.keySet());
+        for (Celda clave : celdas) {
+            DiaComida celda = guardadas.get(clave);
+            List<Long> actuales = celda == null ? List.of()
+                    : celda.getRecetas().stream().map(Receta::getId).sorted().toList();
+            List<Long> nuevas = solicitadas.getOrDefault(clave, List.of()).stream().sorted().toList();
+            if (actuales.equals(nuevas)) {
+                continue;
+            }
+            actuales.forEach(id -> deltaRecetas.merge(id, -1, Integer::sum));
+            nuevas.forEach(id -> deltaRecetas.merge(id, 1, Integer::sum));
+
+            if (nuevas.isEmpty()) {
+                // La celda queda vacía: el menú se guarda disperso y deja de tener fila
+                diaComidaRepository.delete(celda);
+            } else if (celda == null) {
+                if (!CuadriculaMenu.incluye(menu.getCategorias(), clave.categoria())) {
+                    throw new ProcesoException("No existe celda para día " + clave.dia()
+                            + " y categoría " + clave.categoria());
+                }
+                DiaComida entidad = new DiaComida();
+                entidad.setDia(clave.dia());
+                entidad.setCategoria(clave.categoria());
+                entidad.setMenuSemanal(menu);
+                entidad.setRecetas(nuevas.stream().map(recetas::get).collect(Collectors.toList()));
+                diaComidaRepository.save(entidad);
+            } else {
+                // Solo se reescriben las filas de recetas de esta celda
+                celda.setRecetas(nuevas.stream().map(recetas::get).collect(Collectors.toList()));
+            }
+        }
+
+        // 5. Aplicar solo la diferencia sobre las listas vinculadas
+        deltaRecetas.values().removeIf(v -> v == 0);
+        if (!deltaRecetas.isEmpty()) {
+            listaCompraService.aplicarCambiosMenu(menuId, deltaRecetas);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void modificarMenu(Long menuId, Long usuarioId, List<OperacionMenuDto> operaciones) {
+        MenuSemanal menu = menuSemanalRepository.findByIdAndUsuarioIdParaModificar(menuId, usuarioId)
+                .orElseThrow(() -> new ProcesoException("Menú no encontrado o no tienes permiso para modificarlo"));
+        cacheLecturas.invalidar(usuarioId);
 
-        // 1. Eliminar todas las recetas actuales del menú
-        diaComidaRepository.deleteByMenuSemanal(menu);
+        // 1. Aplicar cada operación sobre su celda, localizada por el índice único (menú, día, categoría)
+        Map<Long, Integer> deltaRecetas = new HashMap<>();
+        for (OperacionMenuDto operacion : operaciones) {
+            DiaSemana dia = operacion.getDia();
+            CategoriaComida categoria = operacion.getCategoria();
+            switch (operacion.getOp()) {
+                case AGREGAR -> {
+                    Long recetaId = obtenerRecetaId(operacion);
+                    insertarReceta(menuId, menu.getCategorias(), dia, categoria, recetaId);
+                    deltaRecetas.merge(recetaId, 1, Integer::sum);
+                }
+                case QUITAR -> {
+                    Long recetaId = obtenerRecetaId(operacion);
+                    quitarReceta(menuId, dia, categoria, recetaId);
+                    deltaRecetas.merge(recetaId, -1, Integer::sum);
+                }
+                case MOVER -> {
+                    // Mover no cambia los ingredientes del menú: no aporta variación a las listas
+                    Long recetaId = obtenerRecetaId(operacion);
+                    if (operacion.getDiaDestino() == null || operacion.getCategoriaDestino() == null) {
+                        throw new ProcesoException("La celda destino es obligatoria para mover una receta");
+                    }
+                    quitarReceta(menuId, dia, categoria, recetaId);
+                    insertarReceta(menuId, menu.getCategorias(), operacion.getDiaDestino(),
+                            operacion.getCategoriaDestino(), recetaId);
+                }
+                case VACIAR -> {
+                    List<Long> recetaIds = diaComidaRepository.findRecetaIdsByCelda(menuId, dia, categoria);
+                    if (!recetaIds.isEmpty()) {
+                        diaComidaRepository.deleteRecetasDeCelda(menuId, dia.name(), categoria.name());
+                        recetaIds.forEach(id -> deltaRecetas.merge(id, -1, Integer::sum));
+                    }
+                    diaComidaRepository.deleteCelda(menuId, dia, categoria);
+                }
+            }
+        }
 
-        // 2. Insertar las nuevas recetas
-        for (DiaComidaDto diaDto : dto.getDiasComidas()) {
-            DiaComida entidad = new DiaComida();
-            entidad.setDia(diaDto.getDia());
-            entidad.setCategoria(diaDto.getCategoria());
-            entidad.setMenuSemanal(menu); // Asignamos el objeto, no el id
-            entidad.setRecetas(
-                    diaDto.getRecetas().stream()
-                            .map(r -> recetaRepository.findById(r.getId())
-                                    .orElseThrow(() -> new RuntimeException("Receta no encontrada")))
-                            .toList()
-            );
-            diaComidaRepository.save(entidad);
+        // 2. Aplicar de una vez la variación agregada sobre las listas vinculadas
+        deltaRecetas.values().removeIf(v -> v == 0);
+        if (!deltaRecetas.isEmpty()) {
+            listaCompraService.aplicarCambiosMenu(menuId, deltaRecetas);
         }
     }
 
@@ -195,7 +367,135 @@ public class MenuSemanalServiceImpl implements MenuSemanalService {
     @Override
     @Transactional
     public void eliminarMenu(Long menuId) {
+        menuSemanalRepository.findUsuarioIdById(menuId).ifPresent(cacheLecturas::invalidar);
+        listaCompraService.desvincularMenu(menuId);
         menuSemanalRepository.deleteById(menuId);
     }
-}
 
+    /**
+     * Función auxiliar para construir en una sola pasada los DTOs de varios menús a partir de las tuplas
+     * leídas, completando la cuadrícula de cada uno.
+     *
+     * @param usuarioId           identificador del usuario propietario
+     * @param menus               datos propios de los menús
+     * @param asignaciones        asignaciones de receta a celda de los menús
+     * @param incluirIngredientes si se deben cargar los ingredientes de cada receta
+     * @return DTOs de los menús, en el orden recibido
+     */
+    private List<MenuSemanalDto> ensamblarMenus(Long usuarioId, List<ResumenMenu> menus,
+                                                List<CeldaReceta> asignaciones, boolean incluirIngredientes) {
+        // 1. Una única instancia por receta, compartida por todas las celdas en las que aparece
+        Map<Long, String> nombres = new HashMap<>();
+        asignaciones.forEach(asignacion -> nombres.putIfAbsent(asignacion.getRecetaId(), asignacion.getRecetaNombre()));
+        Map<Long, RecetaDto> recetas = ensambladorMenus.recetas(nombres, incluirIngredientes);
+
+        // 2. Celdas agrupadas por menú
+        Map<Long, Map<Long, DiaComidaDto>> celdasPorMenu = new HashMap<>();
+        for (CeldaReceta asignacion : asignaciones) {
+            celdasPorMenu.computeIfAbsent(asignacion.getMenuId(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(asignacion.getCeldaId(),
+                            id -> ensambladorMenus.celda(id, asignacion.getDia(), asignacion.getCategoria()))
+                    .getRecetas().add(recetas.get(asignacion.getRecetaId()));
+        }
+
+        // 3. Cada menú presenta su cuadrícula completa
+        return menus.stream()
+                .map(menu -> ensambladorMenus.menu(menu.getId(), usuarioId, menu.getCategorias(),
+                        celdasPorMenu.getOrDefault(menu.getId(), Map.of()).values()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Función auxiliar para añadir una receta a una celda con una única sentencia, creando la celda
+     * si todavía no existe. El llamante debe haber bloqueado el menú: así dos primeras inserciones simultáneas
+     * en la misma celda se ejecutan una detrás de otra y la segunda encuentra la celda ya creada, en lugar de
+     * chocar con el índice único (o de bloquearse mutuamente en el hueco del índice que ambas han leído).
+     *
+     * @param menuId     identificador del menú semanal
+     * @param categorias categorías de comida del menú (si es nulo, todas)
+     * @param dia        día de la semana
+     * @param categoria  categoría de comida
+     * @param recetaId   identificador de la receta
+     */
+    private void insertarReceta(Long menuId, Set<CategoriaComida> categorias, DiaSemana dia,
+                                CategoriaComida categoria, Long recetaId) {
+        // 1. Insertar la receta en la celda localizada por su índice único (menú, día, categoría),
+        //    sin cargar el menú ni sus celdas
+        try {
+            int insertadas = diaComidaRepository.insertRecetaEnCelda(menuId, dia.name(), categoria.name(), recetaId);
+            if (insertadas == 0) {
+                // 2. La celda aún no existe: se crea con la receta la primera vez
+                crearCeldaConReceta(menuId, categorias, dia, categoria, recetaId);
+            }
+        } catch (DuplicateKeyException e) {
+            // Índice único (menú, día, categoría): otra petición ha creado la celda a la vez
+            throw new ProcesoException("La celda " + dia + " - " + categoria
+                    + " se ha modificado a la vez desde otra petición; inténtalo de nuevo.", e);
+        } catch (DataIntegrityViolationException e) {
+            // Clave foránea hacia RECETA
+            throw new ProcesoException("Receta no encontrada con id: " + recetaId, e);
+        }
+    }
+
+    /**
+     * Función auxiliar para quitar una aparición de una receta de una celda. Si era la última, la celda
+     * se elimina, igual que al vaciarla, para que solo existan las celdas con recetas.
+     *
+     * @param menuId    identificador del menú semanal
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @param recetaId  identificador de la receta
+     */
+    private void quitarReceta(Long menuId, DiaSemana dia, CategoriaComida categoria, Long recetaId) {
+        if (diaComidaRepository.deleteRecetaDeCelda(menuId, dia.name(), categoria.name(), recetaId) == 0) {
+            throw new ProcesoException("La receta " + recetaId + " no está asignada a " + dia + " - " + categoria);
+        }
+        diaComidaRepository.deleteCeldaSiVacia(menuId, dia.name(), categoria.name());
+    }
+
+    /**
+     * Función auxiliar para obtener la receta de una operación que la requiere.
+     *
+     * @param operacion operación sobre el menú
+     * @return identificador de la receta
+     */
+    private Long obtenerRecetaId(OperacionMenuDto operacion) {
+        if (operacion.getRecetaId() == null) {
+            throw new ProcesoException("La receta es obligatoria para la operación " + operacion.getOp());
+        }
+        return operacion.getRecetaId();
+    }
+
+    /**
+     * Función auxiliar para crear la celda de un menú ya bloqueado con su primera receta, comprobando que
+     * la categoría forma parte de él. El menú se referencia sin volver a leerlo.
+     *
+     * @param menuId     identificador del menú semanal
+     * @param categorias categorías de comida del menú (si es nulo, todas)
+     * @param dia        día de la semana
+     * @param categoria  categoría de comida
+     * @param recetaId   identificador de la receta
+     */
+    private void crearCeldaConReceta(Long menuId, Set<CategoriaComida> categorias, DiaSemana dia,
+                                     CategoriaComida categoria, Long recetaId) {
+        if (!CuadriculaMenu.incluye(categorias, categoria)) {
+            throw new ProcesoException("No existe celda para día " + dia + " y categoría " + categoria);
+        }
+
+        DiaComida celda = new DiaComida();
+        celda.setDia(dia);
+        celda.setCategoria(categoria);
+        celda.setMenuSemanal(menuSemanalRepository.getReferenceById(menuId));
+        celda.setRecetas(new ArrayList<>(List.of(recetaRepository.getReferenceById(recetaId))));
+        diaComidaRepository.saveAndFlush(celda);
+    }
+
+    /**
+     * Clave de una celda de la cuadrícula del menú.
+     *
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     */
+    private record Celda(DiaSemana dia, CategoriaComida categoria) {
+    }
+}
@@ -0,0 +1,297 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.entity.PuntoControlBatch;
+import es.superlista.domain.projection.AsignacionMenuReceta;
+import es.superlista.domain.projection.AsignacionReceta;
+import es.superlista.domain.projection.RecetaIngrediente;
+import es.superlista.domain.repository.PuntoControlBatchRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.services.ContenidoMenuService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Proceso programado que precalcula los ingredientes de las listas de la compra de todos los menús activos.
+ * <p>
+ * Recorre los menús con alguna receta asignada en bloques ordenados por identificador (paginación por clave),
+ * procesa varios bloques en paralelo, cada uno en su propia transacción de solo lectura, y guarda en
+ * {@link ListaCompraHuellaCache} los ingredientes de cada huella de menú, ampliando antes la capacidad de la caché
+ * con los menús que recorre para no expulsar sus propios resultados. Así, en el pico de generación de los
+ * lunes, la mayoría de las generaciones se resuelven sin recorrer celdas ni recetas; al modificar una receta
+ * solo se pierden las huellas de los menús que la usan.
+ * <p>
+ * Tras cada oleada de bloques se guarda un punto de control con el último menú procesado; si el proceso se
+ * interrumpe, la siguiente ejecución continúa desde ese punto. Al terminar el recorrido el punto vuelve a cero.
+ * Como los resultados solo viven en la caché del proceso, el punto de control solo se respeta si lo guardó
+ * este mismo proceso: tras reiniciar la aplicación el recorrido empieza de cero.
+ */
+@Component
+public class PrecalculoListasBatch {
+
+    /**
+     * Logger para registrar trazas de error y diagnóstico.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PrecalculoListasBatch.class);
+
+    /**
+     * Nombre del proceso en la tabla de puntos de control.
+     */
+    static final String NOMBRE = "PRECALCULO_LISTAS";
+
+    private final ContenidoMenuService contenidoMenuService;
+    private final RecetaRepository recetaRepository;
+    private final PuntoControlBatchRepository puntoControlRepository;
+    private final ListaCompraHuellaCache huellaCache;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transaccionLectura;
+    private final boolean habilitado;
+    private final int tamanoBloque;
+    private final int paralelismo;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private final AtomicLong ultimoIdProcesado = new AtomicLong();
+
+    /**
+     * Indica si el punto de control guardado lo ha guardado este proceso, cuya caché conserva lo calculado
+     * antes de él.
+     */
+    private volatile boolean puntoControlPropio;
+    private final Counter menusProcesados;
+    private final Counter menusPrecalculados;
+    private final Counter bloquesProcesados;
+    private final Counter ejecucionesFallidas;
+    private final Timer duracion;
+
+    /**
+     * Constructor que inyecta los repositorios, la caché, el ejecutor, las métricas y la configuración del proceso.
+     *
+     * @param contenidoMenuService   lectura del contenido de los menús, sea cual sea su almacenamiento
+     * @param recetaRepository       repositorio de recetas
+     * @param puntoControlRepository repositorio de puntos de control
+     * @param huellaCache            caché de ingredientes por huella del menú
+     * @param executor               ejecutor acotado para procesar bloques en paralelo
+     * @param transactionManager     gestor de transacciones
+     * @param meterRegistry          registro de métricas
+     * @param habilitado             indica si el proceso programado está activo
+     * @param tamanoBloque           número de menús por bloque
+     * @param paralelismo            número de bloques procesados a la vez
+     */
+    public PrecalculoListasBatch(ContenidoMenuService contenidoMenuService,
+                                 RecetaRepository recetaRepository,
+                                 PuntoControlBatchRepository puntoControlRepository,
+                                 ListaCompraHuellaCache huellaCache,
+                                 @Qualifier("precalculoListasExecutor") ThreadPoolTaskExecutor executor,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${superlista.batch.precalculo-listas.habilitado:true}") boolean habilitado,
+                                 @Value("${superlista.batch.precalculo-listas.tamano-bloque:500}") int tamanoBloque,
+                                 @Value("${superlista.batch.precalculo-listas.paralelismo:2}") int paralelismo) {
+        this.contenidoMenuService = contenidoMenuService;
+        this.recetaRepository = recetaRepository;
+        this.puntoControlRepository = puntoControlRepository;
+        this.huellaCache = huellaCache;
+        this.executor = executor;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.tamanoBloque = tamanoBloque;
+        this.paralelismo = paralelismo;
+
+        this.menusProcesados = Counter.builder("superlista.batch.precalculo.menus")
+                .description("Menús recorridos por el precálculo de listas")
+                .register(meterRegistry);
+        this.menusPrecalculados = Counter.builder("superlista.batch.precalculo.huellas")
+                .description("Huellas de menú cuyos ingredientes se han precalculado")
+                .register(meterRegistry);
+        this.bloquesProcesados = Counter.builder("superlista.batch.precalculo.bloques")
+                .description("Bloques de menús procesados")
+                .register(meterRegistry);
+        this.ejecucionesFallidas = Counter.builder("superlista.batch.precalculo.fallos")
+                .description("Ejecuciones del precálculo interrumpidas por un error")
+                .register(meterRegistry);
+        this.duracion = Timer.builder("superlista.batch.precalculo.duracion")
+                .description("Duración de cada ejecución del precálculo de listas")
+                .register(meterRegistry);
+        Gauge.builder("superlista.batch.precalculo.ultimo_id", ultimoIdProcesado, AtomicLong::get)
+                .description("Último menú procesado (punto de control)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta el precálculo según la programación configurada (por defecto, los lunes a primera hora).
+     * Si ya hay una ejecución en curso, la nueva se omite.
+     */
+    @Scheduled(cron = "${superlista.batch.precalculo-listas.cron:0 0 5 * * MON}")
+    public void ejecutar() {
+        if (!habilitado || !enCurso.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            duracion.record(this::procesar);
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Función auxiliar que recorre los menús activos por oleadas de bloques desde el último punto de control.
+     */
+    private void procesar() {
+        long ultimoId = puntoControlRepository.findById(NOMBRE).map(PuntoControlBatch::getUltimoId).orElse(0L);
+        if (ultimoId != 0L && !puntoControlPropio) {
+            // Los menús anteriores al punto de control ya no están en la caché (la aplicación se ha reiniciado)
+            logger.info("Se descarta el punto de control del precálculo (menú {}): la caché no conserva lo calculado", ultimoId);
+            ultimoId = 0L;
+        }
+        ultimoIdProcesado.set(ultimoId);
+        logger.info("Precálculo de listas iniciado desde el menú {}", ultimoId);
+
+        int menusRecorridos = 0;
+        boolean quedanMenus = true;
+        while (quedanMenus) {
+            // 1. Leer por clave los bloques de la siguiente oleada
+            List<List<Long>> oleada = new ArrayList<>(paralelismo);
+            long cursor = ultimoId;
+            while (oleada.size() < paralelismo) {
+                List<Long> bloque = siguienteBloque(cursor);
+                if (bloque.isEmpty()) {
+                    quedanMenus = false;
+                    break;
+                }
+                oleada.add(bloque);
+                cursor = bloque.get(bloque.size() - 1);
+                if (bloque.size() < tamanoBloque) {
+                    quedanMenus = false;
+                    break;
+                }
+            }
+            if (oleada.isEmpty()) {
+                break;
+            }
+
+            // 2. Reservar en la caché sitio para las huellas de todos los menús recorridos hasta ahora
+            //    y procesar los bloques en paralelo, cada uno en su propia transacción
+            for (List<Long> bloque : oleada) {
+                menusRecorridos += bloque.size();
+            }
+            huellaCache.reservarIngredientes(menusRecorridos);
+            List<Future<?>> tareas = new ArrayList<>(oleada.size());
+            for (List<Long> bloque : oleada) {
+                tareas.add(executor.submit(() -> procesarBloque(bloque)));
+            }
+            try {
+                for (Future<?> tarea : tareas) {
+                    tarea.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Precálculo de listas interrumpido; se reanudará desde el menú {}", ultimoId);
+                return;
+            } catch (ExecutionException e) {
+                ejecucionesFallidas.increment();
+                logger.error("Error en el precálculo de listas; se reanudará desde el menú {}", ultimoId, e.getCause());
+                return;
+            }
+
+            // 3. Guardar el punto de control tras completar la oleada
+            ultimoId = cursor;
+            puntoControlPropio = true;
+            guardarPuntoControl(ultimoId);
+        }
+
+        // Recorrido completo: la siguiente ejecución empieza desde el principio
+        guardarPuntoControl(0L);
+        logger.info("Precálculo de listas finalizado");
+    }
+
+    /**
+     * Función auxiliar que obtiene el siguiente bloque de menús activos.
+     *
+     * @param ultimoId último identificador ya leído
+     * @return identificadores del bloque, en orden ascendente
+     */
+    private List<Long> siguienteBloque(long ultimoId) {
+        return transaccionLectura.execute(estado ->
+                contenidoMenuService.obtenerIdsActivosDespuesDe(ultimoId, tamanoBloque));
+    }
+
+    /**
+     * Función auxiliar que precalcula los ingredientes de un bloque de menús con dos consultas:
+     * las asignaciones de todos los menús y los ingredientes de todas sus recetas.
+     *
+     * @param menuIds identificadores de los menús del bloque
+     */
+    private void procesarBloque(List<Long> menuIds) {
+        long version = huellaCache.getVersion();
+        Integer precalculados = transaccionLectura.execute(estado -> {
+            // 1. Huella de cada menú, descartando las ya calculadas
+            Map<Long, List<AsignacionMenuReceta>> asignacionesPorMenu = contenidoMenuService
+                    .obtenerAsignaciones(menuIds).stream()
+                    .collect(Collectors.groupingBy(AsignacionMenuReceta::getMenuId));
+            Map<String, Set<Long>> recetasPorHuella = new HashMap<>();
+            for (List<AsignacionMenuReceta> asignaciones : asignacionesPorMenu.values()) {
+                String huella = huellaCache.calcularHuella(asignaciones);
+                if (!huellaCache.contieneIngredientes(huella)) {
+                    recetasPorHuella.computeIfAbsent(huella, k -> asignaciones.stream()
+                            .map(AsignacionReceta::getRecetaId)
+                            .collect(Collectors.toSet()));
+                }
+            }
+            if (recetasPorHuella.isEmpty()) {
+                return 0;
+            }
+
+            // 2. Ingredientes de todas las recetas implicadas en una sola consulta
+            Set<Long> recetaIds = recetasPorHuella.values().stream()
+                    .flatMap(Set::stream)
+                    .collect(Collectors.toSet());
+            Map<Long, List<Long>> ingredientesPorReceta = recetaRepository.findIngredientesByRecetaIdIn(recetaIds).stream()
+                    .collect(Collectors.groupingBy(RecetaIngrediente::getRecetaId,
+                            Collectors.mapping(RecetaIngrediente::getIngredienteId, Collectors.toList())));
+
+            // 3. Registrar el conjunto de ingredientes de cada huella
+            recetasPorHuella.forEach((huella, recetas) -> {
+                Set<Long> ingredientes = new TreeSet<>();
+                recetas.forEach(recetaId -> ingredientes.addAll(ingredientesPorReceta.getOrDefault(recetaId, List.of())));
+                huellaCache.registrarIngredientes(huella, recetas, ingredientes, version);
+            });
+            return recetasPorHuella.size();
+        });
+        menusProcesados.increment(menuIds.size());
+        menusPrecalculados.increment(precalculados != null ? precalculados : 0);
+        bloquesProcesados.increment();
+    }
+
+    /**
+     * Función auxiliar que guarda el punto de control del proceso.
+     *
+     * @param ultimoId último identificador procesado
+     */
+    private void guardarPuntoControl(long ultimoId) {
+        puntoControlRepository.save(new PuntoControlBatch(NOMBRE, ultimoId, null));
+        ultimoIdProcesado.set(ultimoId);
+    }
+}
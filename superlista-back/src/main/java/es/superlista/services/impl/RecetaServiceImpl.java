@@ -2,6 +2,7 @@ package es.superlista.services.impl;
 
 import es.superlista.domain.dto.IngredienteDto;
 import es.superlista.domain.dto.IngredienteSimpleDto;
+import es.superlista.domain.dto.RecetaDisponibleDto;
 import es.superlista.domain.dto.RecetaDto;
 import es.superlista.domain.entity.Ingrediente;
 import es.superlista.domain.entity.Receta;
@@ -11,13 +12,22 @@ import es.superlista.domain.mapper.RecetaMapper;
 import es.superlista.domain.repository.IngredienteRepository;
 import es.superlista.domain.repository.RecetaRepository;
 import es.superlista.exception.ProcesoException;
+import es.superlista.services.CacheLecturasService;
+import es.superlista.services.ListaCompraService;
 import es.superlista.services.RecetaService;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +43,11 @@ public class RecetaServiceImpl implements RecetaService {
     private final RecetaMapper recetaMapper;
     private final IngredienteRepository ingredienteRepository;
     private final IngredienteSimpleMapper ingredienteSimpleMapper;
+    private final ListaCompraHuellaCache huellaCache;
+    private final CacheLecturasService cacheLecturas;
+    private final IndiceRecetas indiceRecetas;
+    private final ApplicationEventPublisher eventos;
+    private final ListaCompraService listaCompraService;
 
     /**
      * Constructor que inyecta los repositorios y mappers necesarios.
@@ -41,12 +56,22 @@ public class RecetaServiceImpl implements RecetaService {
      * @param recetaMapper             mapper de recetas
      * @param ingredienteRepository    repositorio de ingredientes
      * @param ingredienteSimpleMapper  mapper de ingredientes simples
+     * @param huellaCache              caché de listas generadas por huella del menú
+     * @param cacheLecturas            caché de lecturas por usuario, que se invalida al cambiar los datos compartidos
+     * @param indiceRecetas            índice en memoria de los nombres de las recetas
+     * @param eventos                  publicador de los cambios para los índices de recetas y de autocompletado
+     * @param listaCompraService       servicio de listas de compra, para mantener las listas vinculadas
      */
-    public RecetaServiceImpl(RecetaRepository recetaRepository, RecetaMapper recetaMapper, IngredienteRepository ingredienteRepository, IngredienteSimpleMapper ingredienteSimpleMapper) {
+    public RecetaServiceImpl(RecetaRepository recetaRepository, RecetaMapper recetaMapper, IngredienteRepository ingredienteRepository, IngredienteSimpleMapper ingredienteSimpleMapper, ListaCompraHuellaCache huellaCache, CacheLecturasService cacheLecturas, IndiceRecetas indiceRecetas, ApplicationEventPublisher eventos, ListaCompraService listaCompraService) {
         this.recetaRepository = recetaRepository;
         this.recetaMapper = recetaMapper;
         this.ingredienteRepository = ingredienteRepository;
         this.ingredienteSimpleMapper = ingredienteSimpleMapper;
+        this.huellaCache = huellaCache;
+        this.cacheLecturas = cacheLecturas;
+        this.indiceRecetas = indiceRecetas;
+        this.eventos = eventos;
+        this.listaCompraService = listaCompraService;
     }
 
     /**
@@ -57,43 +82,60 @@ public class RecetaServiceImpl implements RecetaService {
     public Boolean altaReceta(RecetaDto recetaDto) {
         // Mapear el DTO a entidad
         Receta receta = recetaMapper.toEntity(recetaDto);
+        List<IngredienteSimpleDto> ingredientesDto = recetaDto.getIngredientes();
 
-        // Lista para almacenar los ingredientes que se asociarán a la receta
-        List<Ingrediente> ingredientesAsociados = new ArrayList<>();
-
-        // Recorrer los ingredientes del DTO
-        for (IngredienteSimpleDto ingDto : recetaDto.getIngredientes()) {
-            Ingrediente ingrediente;
-
-            // Si se ha proporcionado un ID, intentar buscarlo
-            if (ingDto.getId() != null) {
-                ingrediente = ingredienteRepository.findById(ingDto.getId()).orElse(null);
-                if (ingrediente == null) {
-                    // Si el ID no existe, intentamos buscarlo por nombre
-                    ingrediente = ingredienteRepository.findByNombreIgnoreCase(ingDto.getNombre()).orElse(null);
-                    // Si tampoco se encuentra por nombre, se crea uno nuevo
-                    if (ingrediente == null) {
-                        ingrediente = ingredienteSimpleMapper.toEntity(ingDto);
-                        ingrediente = ingredienteRepository.save(ingrediente);
-                    }
-                }
-            } else {
-                // Si no se ha proporcionado el ID, buscar por nombre
-                ingrediente = ingredienteRepository.findByNombreIgnoreCase(ingDto.getNombre()).orElse(null);
-                if (ingrediente == null) {
-                    // Si el ingrediente no existe, crearlo
-                    ingrediente = ingredienteSimpleMapper.toEntity(ingDto);
-                    ingrediente = ingredienteRepository.save(ingrediente);
-                }
+        // 1. Resolver con una sola consulta los ingredientes indicados por ID
+        Set<Long> ids = ingredientesDto.stream()
+                .map(IngredienteSimpleDto::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Ingrediente> porId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            ingredienteRepository.findAllById(ids).forEach(ingrediente -> porId.put(ingrediente.getId(), ingrediente));
+        }
+
+        // 2. Los que no tienen ID, o cuyo ID no existe, se buscan por nombre también con una sola consulta
+        Set<String> nombres = ingredientesDto.stream()
+                .filter(ingDto -> !porId.containsKey(ingDto.getId()))
+                .map(RecetaServiceImpl::normalizarNombre)
+                .collect(Collectors.toSet());
+        Map<String, Ingrediente> porNombre = new HashMap<>();
+        if (!nombres.isEmpty()) {
+            ingredienteRepository.findByNombreMinusculasIn(nombres)
+                    .forEach(ingrediente -> porNombre.put(normalizarNombre(ingrediente.getNombre()), ingrediente));
+        }
+
+        // 3. Crear de una vez, en un mismo lote de inserciones, los que no existen (una vez por nombre)
+        List<Ingrediente> nuevos = new ArrayList<>();
+        for (IngredienteSimpleDto ingDto : ingredientesDto) {
+            if (porId.containsKey(ingDto.getId())) {
+                continue;
             }
-            ingredientesAsociados.add(ingrediente);
+            porNombre.computeIfAbsent(normalizarNombre(ingDto), nombre -> {
+                Ingrediente nuevo = ingredienteSimpleMapper.toEntity(ingDto);
+                nuevo.setId(null);
+                nuevos.add(nuevo);
+                return nuevo;
+            });
         }
+        if (!nuevos.isEmpty()) {
+            ingredienteRepository.saveAll(nuevos);
+            eventos.publishEvent(IngredientesModificadosEvent.guardados(nuevos));
+        }
+
+        // Lista de ingredientes que se asociarán a la receta, en el orden recibido
+        List<Ingrediente> ingredientesAsociados = ingredientesDto.stream()
+                .map(ingDto -> porId.containsKey(ingDto.getId())
+                        ? porId.get(ingDto.getId())
+                        : porNombre.get(normalizarNombre(ingDto)))
+                .collect(Collectors.toList());
 
         // Asignar la lista de ingredientes gestionados a la receta
         receta.setIngredientes(ingredientesAsociados);
 
         // Guardar la receta con ingredientes asociados (que ya están gestionados)
         recetaRepository.save(receta);
+        eventos.publishEvent(RecetasModificadasEvent.guardadas(List.of(recetaMapper.toDto(receta))));
         return true;
     }
 
@@ -103,7 +145,13 @@ public class RecetaServiceImpl implements RecetaService {
     @Override
     @Transactional
     public Boolean actualizarReceta(RecetaDto request) {
-        recetaRepository.save(recetaMapper.toEntity(request));
+        Receta receta = recetaRepository.save(recetaMapper.toEntity(request));
+        eventos.publishEvent(RecetasModificadasEvent.recargar(List.of(receta.getId())));
+        // Los ingredientes de la receta pueden haber cambiado: las listas vinculadas a menús que la usan
+        // se recalculan en esta misma transacción y las listas recordadas dejan de ser válidas
+        listaCompraService.recalcularListasConRecetas(List.of(receta.getId()));
+        huellaCache.olvidarRecetas(List.of(receta.getId()));
+        cacheLecturas.invalidarTodos();
         return true;
     }
 
@@ -115,6 +163,10 @@ public class RecetaServiceImpl implements RecetaService {
         if (recetaRepository.existsById(request.getId())) {
             try {
                 recetaRepository.deleteByIdEquals(request.getId());
+                eventos.publishEvent(RecetasModificadasEvent.eliminada(request.getId()));
+                listaCompraService.recalcularListasConRecetas(List.of(request.getId()));
+                huellaCache.olvidarRecetas(List.of(request.getId()));
+                cacheLecturas.invalidarTodos();
             } catch (Exception e) {
                 throw new ProcesoException("Hubo un error al eliminar la receta.", e);
             }
@@ -128,10 +180,28 @@ public class RecetaServiceImpl implements RecetaService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<RecetaDto> buscarRecetaPorNombre(String nombre) {
+        // Con el índice cargado la búsqueda no abre transacción ni consulta la base de datos
+        if (indiceRecetas.isListo()) {
+            return indiceRecetas.buscar(nombre);
+        }
         return recetaRepository.findByNombreContainsIgnoreCase(nombre).stream().map(recetaMapper::toDto).collect(Collectors.toList());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<RecetaDisponibleDto> buscarRecetasPorDespensa(Set<Long> ingredienteIds, int limite) {
+        // Solo se responde desde el índice invertido: agrupar RECETA_INGREDIENTES en cada consulta no escala
+        if (!indiceRecetas.isListo()) {
+            throw new ProcesoException("El índice de recetas se está cargando, inténtelo de nuevo en unos segundos.");
+        }
+        return indiceRecetas.buscarPorDespensa(ingredienteIds, limite);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -140,6 +210,30 @@ public class RecetaServiceImpl implements RecetaService {
         return recetaRepository.findAll().stream().map(recetaMapper::toDto).collect(Collectors.toList());
     }
 
+    /**
+     * Función auxiliar para obtener el nombre normalizado (en minúsculas) con el que se compara un ingrediente.
+     *
+     * @param ingDto DTO del ingrediente
+     * @return nombre en minúsculas
+     * @throws ProcesoException si el ingrediente no tiene nombre
+     */
+    private static String normalizarNombre(IngredienteSimpleDto ingDto) {
+        if (ingDto.getNombre() == null) {
+            throw new ProcesoException("El ingrediente " + ingDto.getId() + " no existe y no tiene nombre para crearlo.");
+        }
+        return normalizarNombre(ingDto.getNombre());
+    }
+
+    /**
+     * Función auxiliar para pasar un nombre de ingrediente a minúsculas.
+     *
+     * @param nombre nombre del ingrediente
+     * @return nombre en minúsculas
+     */
+    private static String normalizarNombre(String nombre) {
+        return nombre.toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Función auxiliar para actualizar los ingredientes asociados a una receta.
      *
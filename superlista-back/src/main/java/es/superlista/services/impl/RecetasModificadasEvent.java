@@ -0,0 +1,42 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.RecetaDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evento publicado dentro de una transacción que modifica recetas, para que {@link IndiceRecetas} se actualice
+ * cuando la transacción se confirme.
+ *
+ * @param guardadas recetas creadas o actualizadas, ya convertidas a DTO
+ * @param eliminadas identificadores de las recetas eliminadas
+ * @param recargar   identificadores de las recetas que deben leerse de nuevo, por ejemplo porque ha cambiado
+ *                   alguno de sus ingredientes
+ */
+record RecetasModificadasEvent(List<RecetaDto> guardadas, Collection<Long> eliminadas, Collection<Long> recargar) {
+
+    /**
+     * @param recetas recetas creadas o actualizadas
+     * @return evento con las recetas guardadas
+     */
+    static RecetasModificadasEvent guardadas(List<RecetaDto> recetas) {
+        return new RecetasModificadasEvent(recetas, List.of(), List.of());
+    }
+
+    /**
+     * @param recetaId identificador de la receta eliminada
+     * @return evento con la receta eliminada
+     */
+    static RecetasModificadasEvent eliminada(Long recetaId) {
+        return new RecetasModificadasEvent(List.of(), List.of(recetaId), List.of());
+    }
+
+    /**
+     * @param recetaIds identificadores de las recetas a leer de nuevo
+     * @return evento con las recetas a recargar
+     */
+    static RecetasModificadasEvent recargar(Collection<Long> recetaIds) {
+        return new RecetasModificadasEvent(List.of(), List.of(), List.copyOf(recetaIds));
+    }
+}
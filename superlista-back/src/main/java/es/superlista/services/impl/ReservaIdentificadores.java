@@ -0,0 +1,61 @@
+package es.superlista.services.impl;
+
+import es.superlista.exception.ProcesoException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+
+/**
+ * Reserva bloques de identificadores de las secuencias de Hibernate para las inserciones masivas
+ * que se hacen directamente en la base de datos (INSERT ... SELECT), sin pasar entidades por la JVM.
+ * <p>
+ * En MySQL cada secuencia se emula con una tabla de una fila ({@code next_val}). Con el optimizador
+ * {@code pooled-lo} el valor leído es el primer identificador del bloque que Hibernate se asigna, así que
+ * avanzar {@code next_val} en la cantidad reservada deja el bloque fuera del alcance de Hibernate.
+ * La reserva se confirma en su propia transacción, como hace Hibernate, para no bloquear la secuencia
+ * hasta el final de la operación; si esta falla, los identificadores reservados simplemente se pierden.
+ */
+@Component
+public class ReservaIdentificadores {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor que inyecta el acceso JDBC y el gestor de transacciones.
+     *
+     * @param jdbcTemplate       plantilla JDBC para leer y avanzar las secuencias
+     * @param transactionManager gestor de transacciones
+     */
+    public ReservaIdentificadores(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reserva un bloque de identificadores consecutivos de una secuencia.
+     *
+     * @param secuencia nombre de la secuencia (constante de {@code BBDD.Secuencias})
+     * @param cantidad  número de identificadores a reservar
+     * @return primer identificador del bloque; el bloque es {@code [primero, primero + cantidad)}
+     */
+    public long reservar(String secuencia, int cantidad) {
+        // La estrategia de nombres física de Hibernate guarda las tablas en minúsculas
+        String tabla = secuencia.toLowerCase(Locale.ROOT);
+        Long primero = transactionTemplate.execute(status -> {
+            Long siguiente = jdbcTemplate.queryForObject(
+                    "select next_val from " + tabla + " for update", Long.class);
+            jdbcTemplate.update("update " + tabla + " set next_val = next_val + ?", cantidad);
+            return siguiente;
+        });
+        if (primero == null) {
+            throw new ProcesoException("No se pudieron reservar identificadores de la secuencia " + secuencia);
+        }
+        return primero;
+    }
+}
@@ -18,6 +18,23 @@ public class BBDD {
         public static final String MENU_SEMANAL = "MENU_SEMANAL";
         public static final String USUARIO = "USUARIO";
         public static final String LISTACOMPRA = "LISTA_COMPRA";
+        public static final String LISTA_COMPRA_INGREDIENTES = "LISTA_COMPRA_INGREDIENTES";
+        public static final String LISTA_COMPRA_REFERENCIAS = "LISTA_COMPRA_REFERENCIAS";
+        public static final String PUNTO_CONTROL_BATCH = "PUNTO_CONTROL_BATCH";
+    }
+
+    /**
+     * Clase interna que define los nombres de las secuencias de generación de identificadores.
+     * En MySQL, Hibernate las emula con una tabla de una fila por secuencia.
+     */
+    public class Secuencias {
+        public static final String INGREDIENTE = "INGREDIENTE_SEQ";
+        public static final String RECETA = "RECETA_SEQ";
+        public static final String DIA_COMIDA = "DIA_COMIDA_SEQ";
+        public static final String MENU_SEMANAL = "MENU_SEMANAL_SEQ";
+        public static final String USUARIO = "USUARIO_SEQ";
+        public static final String LISTA_COMPRA = "LISTA_COMPRA_SEQ";
+        public static final String LISTA_COMPRA_REFERENCIAS = "LISTA_COMPRA_REFERENCIAS_SEQ";
     }
 
     /**
@@ -26,6 +43,8 @@ public class BBDD {
     public class Columnas {
         public static final String NOMBRE = "NOMBRE";
         public static final String CATEGORIA = "CATEGORIA";
+        public static final String CATEGORIAS = "CATEGORIAS";
+        public static final String CUADRICULA = "CUADRICULA";
         public static final String ID = "ID";
 
         public static final String ID_RECETA = "ID_RECETA";
@@ -37,5 +56,10 @@ public class BBDD {
         public static final String APELLIDO = "APELLIDO";
         public static final String FECHA_CREACION = "FECHA_CREACION";
         public static final String EMAIL = "EMAIL";
+        public static final String REFERENCIAS = "REFERENCIAS";
+        public static final String COMPRADO = "COMPRADO";
+        public static final String POSICION = "POSICION";
+        public static final String ULTIMO_ID = "ULTIMO_ID";
+        public static final String FECHA_ACTUALIZACION = "FECHA_ACTUALIZACION";
     }
 }
@@ -0,0 +1,89 @@
+package es.superlista.utils;
+
+import es.superlista.domain.dto.DiaComidaDto;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Clase de utilidades para presentar un menú semanal como cuadrícula completa.
+ * Los menús se guardan de forma dispersa (solo las celdas con alguna receta), pero los clientes
+ * reciben siempre una celda por cada día de la semana y categoría de comida del menú.
+ */
+public class CuadriculaMenu {
+
+    private static final Comparator<DiaComidaDto> ORDEN_CELDAS = Comparator
+            .comparing((DiaComidaDto c) -> c.getDia().ordinal())
+            .thenComparing(c -> c.getCategoria().ordinal());
+
+    private CuadriculaMenu() {
+        //Constructor
+    }
+
+    /**
+     * Completa las celdas de un menú con celdas vacías para los pares día–categoría que no estén guardados,
+     * y las devuelve ordenadas por día y categoría.
+     *
+     * @param celdas     celdas guardadas del menú
+     * @param categorias categorías de comida del menú (si es nulo, todas)
+     * @return cuadrícula completa de celdas
+     */
+    public static List<DiaComidaDto> completar(List<DiaComidaDto> celdas, Set<CategoriaComida> categorias) {
+        Set<CategoriaComida> categoriasMenu = categorias == null || categorias.isEmpty()
+                ? EnumSet.allOf(CategoriaComida.class)
+                : categorias;
+
+        Map<DiaSemana, Set<CategoriaComida>> ocupadas = new EnumMap<>(DiaSemana.class);
+        List<DiaComidaDto> cuadricula = new ArrayList<>(DiaSemana.values().length * categoriasMenu.size());
+        if (celdas != null) {
+            for (DiaComidaDto celda : celdas) {
+                ocupadas.computeIfAbsent(celda.getDia(), k -> EnumSet.noneOf(CategoriaComida.class))
+                        .add(celda.getCategoria());
+                cuadricula.add(celda);
+            }
+        }
+        for (DiaSemana dia : DiaSemana.values()) {
+            Set<CategoriaComida> ocupadasDia = ocupadas.getOrDefault(dia, Set.of());
+            for (CategoriaComida categoria : categoriasMenu) {
+                if (!ocupadasDia.contains(categoria)) {
+                    cuadricula.add(celdaVacia(dia, categoria));
+                }
+            }
+        }
+        cuadricula.sort(ORDEN_CELDAS);
+        return cuadricula;
+    }
+
+    /**
+     * Indica si una categoría de comida forma parte de un menú.
+     *
+     * @param categorias categorías de comida del menú (si es nulo, todas)
+     * @param categoria  categoría a comprobar
+     * @return true si la categoría forma parte del menú
+     */
+    public static boolean incluye(Set<CategoriaComida> categorias, CategoriaComida categoria) {
+        return categorias == null || categorias.isEmpty() || categorias.contains(categoria);
+    }
+
+    /**
+     * Función auxiliar para crear una celda vacía, sin identificador porque no está guardada.
+     *
+     * @param dia       día de la semana
+     * @param categoria categoría de comida
+     * @return celda vacía
+     */
+    private static DiaComidaDto celdaVacia(DiaSemana dia, CategoriaComida categoria) {
+        DiaComidaDto celda = new DiaComidaDto();
+        celda.setDia(dia);
+        celda.setCategoria(categoria);
+        celda.setRecetas(new ArrayList<>());
+        return celda;
+    }
+}
@@ -0,0 +1,70 @@
+package es.superlista.utils;
+
+import es.superlista.domain.dto.PaginaDto;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Clase de utilidades para la paginación por clave (keyset) de los historiales del usuario.
+ * Cada página se lee con {@code id < cursor order by id desc limit tamano + 1}: la fila adicional
+ * solo indica si existe página siguiente, y el coste no depende de la profundidad del historial.
+ */
+public class Paginacion {
+
+    private Paginacion() {
+        //Constructor
+    }
+
+    /**
+     * Ajusta el tamaño de página solicitado a los límites configurados.
+     *
+     * @param solicitado tamaño pedido por el cliente (puede ser nulo)
+     * @param defecto    tamaño a usar si no se indica
+     * @param maximo     tamaño máximo permitido
+     * @return tamaño de página efectivo
+     */
+    public static int tamano(Integer solicitado, int defecto, int maximo) {
+        int tamano = solicitado == null ? defecto : Math.max(solicitado, 1);
+        return Math.min(tamano, maximo);
+    }
+
+    /**
+     * Devuelve el límite superior (exclusivo) de identificadores para la consulta de una página.
+     *
+     * @param cursor cursor recibido (nulo para la primera página)
+     * @return identificador a partir del cual se lee, sin incluirlo
+     */
+    public static Long desde(Long cursor) {
+        return cursor == null ? Long.MAX_VALUE : cursor;
+    }
+
+    /**
+     * Devuelve el límite de filas a leer: una más que el tamaño de página.
+     *
+     * @param tamano tamaño de página
+     * @return paginable sobre la primera página con una fila adicional
+     */
+    public static Pageable limite(int tamano) {
+        return PageRequest.of(0, tamano + 1);
+    }
+
+    /**
+     * Construye una página a partir de las filas leídas con {@link #limite(int)}.
+     *
+     * @param filas  filas leídas, como máximo {@code tamano + 1}
+     * @param tamano tamaño de página
+     * @param id     función que obtiene el identificador de una fila
+     * @param <T>    tipo de las filas
+     * @return página con sus elementos y el cursor de la siguiente
+     */
+    public static <T> PaginaDto<T> pagina(List<T> filas, int tamano, Function<T, Long> id) {
+        if (filas.size() <= tamano) {
+            return new PaginaDto<>(filas, null);
+        }
+        List<T> elementos = filas.subList(0, tamano);
+        return new PaginaDto<>(elementos, id.apply(elementos.get(tamano - 1)));
+    }
+}
@@ -0,0 +1,36 @@
+package es.superlista.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Clase de utilidades para comparar textos escritos por el usuario con los nombres guardados,
+ * sin distinguir mayúsculas ni tildes ("Salmón" y "salmon" se pliegan igual).
+ */
+public class Textos {
+
+    /**
+     * Marcas diacríticas que quedan separadas de su letra al descomponer el texto.
+     */
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private Textos() {
+        //Constructor
+    }
+
+    /**
+     * Pliega un texto para compararlo: lo descompone en forma NFD, quita las marcas diacríticas
+     * (tildes, diéresis y la virgulilla de la ñ) y lo pasa a minúsculas.
+     *
+     * @param texto texto a plegar (puede ser nulo)
+     * @return texto plegado, o cadena vacía si es nulo
+     */
+    public static String plegar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,33 @@
+package es.superlista.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Clase de utilidades para coordinar el estado en memoria con las transacciones de base de datos.
+ */
+public class Transacciones {
+
+    private Transacciones() {
+        //Constructor
+    }
+
+    /**
+     * Ejecuta una acción al confirmar la transacción en curso, o inmediatamente si no hay ninguna.
+     * Si la transacción se deshace la acción no se ejecuta.
+     *
+     * @param accion acción a ejecutar
+     */
+    public static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -1,8 +1,8 @@
 -- 1) Usuarios
-INSERT INTO usuario (username, password, nombre, apellido, email, rol, fecha_creacion) VALUES
-  ('juanp',   '$2b$12$QDDnMK5a9./eBm0xHut1EOPmoeKyrOxiLXN5i7LAB0bXy2UaLodJu', 'Juan',  'Pérez', 'juan.perez@example.com',  'USER',  '2025-04-16 10:00:00'),
-  ('mariaa',  '$2b$12$QDDnMK5a9./eBm0xHut1EOPmoeKyrOxiLXN5i7LAB0bXy2UaLodJu', 'María', 'García','maria.garcia@example.com','USER',  '2025-04-16 10:05:00'),
-  ('admin01', '$2b$12$QDDnMK5a9./eBm0xHut1EOPmoeKyrOxiLXN5i7LAB0bXy2UaLodJu', 'Admin', 'Root',  'admin@superlista.com', 'ADMIN', '2025-04-16 10:10:00');
+INSERT INTO usuario (id, username, password, nombre, apellido, email, rol, fecha_creacion) VALUES
+  (1, 'juanp',   '$2b$12$QDDnMK5a9./eBm0xHut1EOPmoeKyrOxiLXN5i7LAB0bXy2UaLodJu', 'Juan',  'Pérez', 'juan.perez@example.com',  'USER',  '2025-04-16 10:00:00'),
+  (2, 'mariaa',  '$2b$12$QDDnMK5a9./eBm0xHut1EOPmoeKyrOxiLXN5i7LAB0bXy2UaLodJu', 'María', 'García','maria.garcia@example.com','USER',  '2025-04-16 10:05:00'),
+  (3, 'admin01', '$2b$12$QDDnMK5a9./eBm0xHut1EOPmoeKyrOxiLXN5i7LAB0bXy2UaLodJu', 'Admin', 'Root',  'admin@superlista.com', 'ADMIN', '2025-04-16 10:10:00');
 
 
 -- 2) Ingredientes
@@ -130,19 +130,19 @@ INSERT INTO receta_ingredientes (id_receta, id_ingrediente) VALUES
 
 
 -- 5) Menús semanales
-INSERT INTO menu_semanal (usuario_id) VALUES
-  (1), -- para Juan
-  (2)  -- para María
+INSERT INTO menu_semanal (id, usuario_id) VALUES
+  (1, 1), -- para Juan
+  (2, 2)  -- para María
 ;
 
 -- 6) Días de comida: un ejemplo abreviado para el menú 1
-INSERT INTO dia_comida (dia, categoria, menu_semanal_id) VALUES
-  ('LUNES',   'DESAYUNO', 1),
-  ('LUNES',   'COMIDA',    1),
-  ('LUNES',   'CENA',      1),
-  ('MARTES',  'DESAYUNO',  1),
-  ('MARTES',  'COMIDA',    1),
-  ('MARTES',  'CENA',      1)
+INSERT INTO dia_comida (id, dia, categoria, menu_semanal_id) VALUES
+  (1, 'LUNES',   'DESAYUNO', 1),
+  (2, 'LUNES',   'COMIDA',    1),
+  (3, 'LUNES',   'CENA',      1),
+  (4, 'MARTES',  'DESAYUNO',  1),
+  (5, 'MARTES',  'COMIDA',    1),
+  (6, 'MARTES',  'CENA',      1)
 ;
 
 -- 7) Relación DíaComida ↔ Receta
@@ -156,16 +156,25 @@ INSERT INTO dia_comida_recetas (dia_comida_id, receta_id) VALUES
 ;
 
 -- 8) Listas de la compra
-INSERT INTO lista_compra (usuario_id) VALUES
-  (1), -- lista de Juan
-  (2)  -- lista de María
+INSERT INTO lista_compra (id, usuario_id) VALUES
+  (1, 1), -- lista de Juan
+  (2, 2)  -- lista de María
 ;
 
 -- 9) Relación ListaCompra ↔ Ingrediente
-INSERT INTO lista_compra_ingredientes (lista_compra_id, ingrediente_id) VALUES
-  (1, 1), -- Juan necesita Tomate
-  (1, 2), -- Juan necesita Lechuga
-  (1, 4), -- Juan necesita Pollo
-  (2, 3), -- María necesita Manzana
-  (2, 6)  -- María necesita Lentejas
+INSERT INTO lista_compra_ingredientes (lista_compra_id, ingrediente_id, comprado, posicion) VALUES
+  (1, 1, false, 0), -- Juan necesita Tomate
+  (1, 2, false, 1), -- Juan necesita Lechuga
+  (1, 4, false, 2), -- Juan necesita Pollo
+  (2, 3, false, 0), -- María necesita Manzana
+  (2, 6, false, 1)  -- María necesita Lentejas
 ;
+
+-- 10) Secuencias de identificadores: los datos anteriores usan IDs explícitos, así que las secuencias
+--     se adelantan para que los nuevos registros no colisionen con ellos
+UPDATE usuario_seq SET next_val = 1000;
+UPDATE ingrediente_seq SET next_val = 1000;
+UPDATE receta_seq SET next_val = 1000;
+UPDATE menu_semanal_seq SET next_val = 1000;
+UPDATE dia_comida_seq SET next_val = 1000;
+UPDATE lista_compra_seq SET next_val = 1000;
@@ -0,0 +1,75 @@
+package es.superlista.resources;
+
+import es.superlista.domain.dto.MenuSemanalCreateDto;
+import es.superlista.domain.repository.UsuarioRepository;
+import es.superlista.security.CustomUserDetails;
+import es.superlista.services.MenuSemanalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sin @Transactional: la versión de las lecturas del usuario cambia al confirmarse la escritura.
+@SpringBootTest
+@AutoConfigureMockMvc
+class MenuSemanalResourceTest {
+
+	// Menú 1 de data.sql, de Juan (usuario 1); el menú 2 es de María
+	private static final Long USUARIO = 1L;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MenuSemanalService menuSemanalService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Test
+	void obtenerMenuResponde304MientrasNoCambianLosDatosDelUsuario() throws Exception {
+		String etag = mockMvc.perform(get("/menu/1").with(juan()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.estado").value("exito"))
+				.andExpect(jsonPath("$.data.id").value(1))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(etag);
+
+		mockMvc.perform(get("/menu/1").with(juan()).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		// Cualquier escritura del usuario cambia la versión y el ETag anterior deja de valer
+		Long nuevoMenuId = menuSemanalService.crearMenuSemanal(new MenuSemanalCreateDto(), USUARIO).getId();
+		try {
+			String nuevoEtag = mockMvc.perform(get("/menu/1").with(juan()).header(HttpHeaders.IF_NONE_MATCH, etag))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.data.id").value(1))
+					.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+			assertNotNull(nuevoEtag);
+			assertNotEquals(etag, nuevoEtag);
+		} finally {
+			menuSemanalService.eliminarMenu(nuevoMenuId);
+		}
+	}
+
+	@Test
+	void obtenerMenuRechazaElMenuDeOtroUsuario() throws Exception {
+		mockMvc.perform(get("/menu/2").with(juan()))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.estado").value("error"));
+	}
+
+	private RequestPostProcessor juan() {
+		return user(new CustomUserDetails(usuarioRepository.findById(USUARIO).orElseThrow()));
+	}
+}
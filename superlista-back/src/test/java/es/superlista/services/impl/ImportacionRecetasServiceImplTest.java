@@ -0,0 +1,55 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.ResultadoImportacionDto;
+import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.services.ImportacionRecetasService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "superlista.importacion.recetas.tamano-lote=2")
+@Transactional
+class ImportacionRecetasServiceImplTest {
+
+	@Autowired
+	private ImportacionRecetasService importacionRecetasService;
+
+	@Autowired
+	private RecetaRepository recetaRepository;
+
+	@Autowired
+	private IngredienteRepository ingredienteRepository;
+
+	@Test
+	void importarInformaErroresYNoRepiteIngredientesEntreLotes() {
+		String ndjson = String.join("\n",
+				"{\"nombre\":\"importada-1\",\"ingredientes\":[{\"nombre\":\"nuevo-importado\",\"categoria\":\"VERDURAS\"}]}",
+				"esto no es json",
+				"",
+				"{\"nombre\":\"importada-2\",\"ingredientes\":[{\"nombre\":\"NUEVO-IMPORTADO\",\"categoria\":\"VERDURAS\"}]}",
+				"{\"ingredientes\":[]}",
+				"{\"nombre\":\"importada-3\",\"ingredientes\":[{\"nombre\":\"Nuevo-Importado\",\"categoria\":\"VERDURAS\"}]}",
+				"{\"nombre\":\"IMPORTADA-1\",\"ingredientes\":[]}");
+
+		ResultadoImportacionDto resultado = importacionRecetasService.importar(
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(6, resultado.getLeidos());
+		assertEquals(3, resultado.getImportadas());
+		assertEquals(3, resultado.getFallidos());
+		assertEquals(List.of(2L, 5L, 7L), resultado.getErrores().stream().map(e -> e.getLinea()).sorted().toList());
+		assertEquals(1, resultado.getIngredientesCreados());
+		assertEquals(1, ingredienteRepository.findByNombreMinusculasIn(List.of("nuevo-importado")).size());
+		assertEquals(3, recetaRepository.findNombresMinusculasIn(List.of("importada-1", "importada-2", "importada-3")).size());
+		assertTrue(resultado.getRegistrosPorSegundo() > 0);
+	}
+}
@@ -0,0 +1,61 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.IngredienteDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.dto.SugerenciaDto;
+import es.superlista.domain.enumeration.CategoriaIngrediente;
+import es.superlista.domain.enumeration.TipoSugerencia;
+import es.superlista.services.AutocompletadoService;
+import es.superlista.services.IngredienteService;
+import es.superlista.services.RecetaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sin @Transactional: los índices se actualizan al confirmarse cada transacción
+@SpringBootTest
+class IndiceAutocompletadoTest {
+
+	@Autowired
+	private AutocompletadoService autocompletadoService;
+
+	@Autowired
+	private RecetaService recetaService;
+
+	@Autowired
+	private IngredienteService ingredienteService;
+
+	@Test
+	void sugerirSinDistinguirTildesNiMayusculas() {
+		IngredienteDto ingrediente = new IngredienteDto();
+		ingrediente.setNombre("Qzxálamo ahumado");
+		ingrediente.setCategoria(CategoriaIngrediente.PESCADO);
+		ingredienteService.altaIngrediente(ingrediente);
+		RecetaDto receta = new RecetaDto();
+		receta.setNombre("Tartar de qzxálamo");
+		receta.setIngredientes(new ArrayList<>());
+		recetaService.altaReceta(receta);
+
+		List<SugerenciaDto> sugerencias = autocompletadoService.sugerir("QZXALA", 10);
+		assertEquals(List.of("Qzxálamo ahumado", "Tartar de qzxálamo"),
+				sugerencias.stream().map(SugerenciaDto::getNombre).toList());
+		assertEquals(List.of(TipoSugerencia.INGREDIENTE, TipoSugerencia.RECETA),
+				sugerencias.stream().map(SugerenciaDto::getTipo).toList());
+		assertEquals(1, autocompletadoService.sugerir("qzxá", 1).size());
+		assertEquals(1, recetaService.buscarRecetaPorNombre("qzxalamo").size());
+
+		RecetaDto eliminada = new RecetaDto();
+		eliminada.setId(sugerencias.get(1).getId());
+		recetaService.eliminarReceta(eliminada);
+		IngredienteDto eliminado = new IngredienteDto();
+		eliminado.setId(sugerencias.get(0).getId());
+		ingredienteService.eliminarIngrediente(eliminado);
+		assertTrue(autocompletadoService.sugerir("qzx", 10).isEmpty());
+	}
+}
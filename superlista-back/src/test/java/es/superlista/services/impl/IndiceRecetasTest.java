@@ -0,0 +1,90 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.IngredienteSimpleDto;
+import es.superlista.domain.dto.RecetaDisponibleDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.enumeration.CategoriaIngrediente;
+import es.superlista.services.RecetaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sin @Transactional: el índice se actualiza al confirmarse cada transacción
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class IndiceRecetasTest {
+
+	@Autowired
+	private RecetaService recetaService;
+
+	@Autowired
+	private IndiceRecetas indiceRecetas;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void buscarOrdenaPorCalidadSinConsultarLaBaseDeDatos() {
+		List<String> nombres = List.of("aqzvb", "sopa qzv", "qzv de patata", "qzv");
+		nombres.forEach(this::alta);
+		assertTrue(indiceRecetas.isListo());
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+		List<RecetaDto> encontradas = recetaService.buscarRecetaPorNombre("QZV");
+		List<RecetaDto> cortas = recetaService.buscarRecetaPorNombre("qz");
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+
+		assertEquals(List.of("qzv", "qzv de patata", "sopa qzv", "aqzvb"),
+				encontradas.stream().map(RecetaDto::getNombre).toList());
+		assertEquals(4, cortas.size());
+
+		for (RecetaDto receta : encontradas) {
+			recetaService.eliminarReceta(receta);
+		}
+		assertTrue(recetaService.buscarRecetaPorNombre("qzv").isEmpty());
+	}
+
+	@Test
+	void buscarPorDespensaOrdenaPorIngredientesQueFaltan() {
+		alta("despensa qzw b", "qzw-1", "qzw-2", "qzw-3");
+		alta("despensa qzw a", "qzw-2", "qzw-1");
+		alta("despensa qzw c", "qzw-3", "qzw-4");
+		Set<Long> despensa = Set.copyOf(recetaService.buscarRecetaPorNombre("despensa qzw a").get(0)
+				.getIngredientes().stream().map(IngredienteSimpleDto::getId).toList());
+
+		List<RecetaDisponibleDto> disponibles = recetaService.buscarRecetasPorDespensa(despensa, 10);
+
+		assertEquals(List.of("despensa qzw a", "despensa qzw b"),
+				disponibles.stream().map(d -> d.getReceta().getNombre()).toList());
+		assertEquals(List.of(0, 1), disponibles.stream().map(RecetaDisponibleDto::getFaltan).toList());
+		assertEquals("qzw-3", disponibles.get(1).getFaltantes().get(0).getNombre());
+
+		for (RecetaDto receta : recetaService.buscarRecetaPorNombre("despensa qzw")) {
+			recetaService.eliminarReceta(receta);
+		}
+		assertTrue(recetaService.buscarRecetasPorDespensa(despensa, 10).isEmpty());
+	}
+
+	private void alta(String nombre, String... ingredientes) {
+		RecetaDto receta = new RecetaDto();
+		receta.setNombre(nombre);
+		receta.setIngredientes(new ArrayList<>());
+		for (String ingrediente : ingredientes) {
+			IngredienteSimpleDto ingDto = new IngredienteSimpleDto();
+			ingDto.setNombre(ingrediente);
+			ingDto.setCategoria(CategoriaIngrediente.VERDURAS);
+			receta.getIngredientes().add(ingDto);
+		}
+		recetaService.altaReceta(receta);
+	}
+}
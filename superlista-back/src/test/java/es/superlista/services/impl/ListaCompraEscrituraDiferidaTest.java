@@ -0,0 +1,102 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.ListaCompraDto;
+import es.superlista.domain.dto.ListaCompraItemDto;
+import es.superlista.exception.ProcesoException;
+import es.superlista.services.ListaCompraService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sin @Transactional: los volcados se hacen en una transacción propia y deben ver los datos confirmados.
+// La ventana es de una hora para que solo se vuelque cuando la prueba lo pide.
+@SpringBootTest(properties = "superlista.listacompra.escritura-diferida.ventana-ms=3600000")
+class ListaCompraEscrituraDiferidaTest {
+
+	// Lista 1 de data.sql, de Juan (usuario 1), con Tomate (1), Lechuga (2) y Pollo (4) sin comprar
+	private static final Long LISTA = 1L;
+	private static final Long USUARIO = 1L;
+
+	@Autowired
+	private ListaCompraService listaCompraService;
+
+	@Autowired
+	private ListaCompraEscrituraDiferida escrituraDiferida;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void restaurar() {
+		escrituraDiferida.olvidar(LISTA);
+		jdbcTemplate.update("update lista_compra_ingredientes set comprado = false where lista_compra_id = ?", LISTA);
+	}
+
+	@Test
+	void lasMarcasSeLeenAlMomentoYSeVuelcanEnElSiguienteLote() {
+		listaCompraService.marcarItem(LISTA, USUARIO, 1L, true);
+		listaCompraService.marcarItem(LISTA, USUARIO, 2L, true);
+		listaCompraService.marcarItem(LISTA, USUARIO, 2L, null);
+
+		// Todavía no se han escrito, pero las lecturas del usuario ya las ven
+		assertFalse(comprado(1L));
+		ListaCompraDto leida = listaCompraService.obtenerListasDelUsuario(USUARIO).stream()
+				.filter(lista -> lista.getId().equals(LISTA))
+				.findFirst()
+				.orElseThrow();
+		assertTrue(estado(leida, 1L));
+		assertFalse(estado(leida, 2L));
+		assertFalse(estado(leida, 4L));
+
+		// El lote escribe el último estado de cada ingrediente
+		escrituraDiferida.volcarPendientes();
+		assertTrue(comprado(1L));
+		assertFalse(comprado(2L));
+		assertFalse(comprado(4L));
+	}
+
+	@Test
+	void olvidarVuelcaLasMarcasPendientesDeLaLista() {
+		listaCompraService.marcarItem(LISTA, USUARIO, 4L, true);
+		assertFalse(comprado(4L));
+
+		escrituraDiferida.olvidar(LISTA);
+		assertTrue(comprado(4L));
+
+		// La lista ya no está en memoria: lo leído es lo guardado
+		escrituraDiferida.volcarPendientes();
+		assertTrue(comprado(4L));
+	}
+
+	@Test
+	void marcarRechazaAOtroUsuarioYAIngredientesAjenosALaLista() {
+		assertThrows(ProcesoException.class, () -> listaCompraService.marcarItem(LISTA, 2L, 1L, true));
+		assertThrows(ProcesoException.class, () -> listaCompraService.marcarItem(LISTA, USUARIO, 3L, true));
+
+		escrituraDiferida.volcarPendientes();
+		assertEquals(0, jdbcTemplate.queryForObject(
+				"select count(*) from lista_compra_ingredientes where lista_compra_id = ? and comprado = true",
+				Integer.class, LISTA));
+	}
+
+	private boolean comprado(Long ingredienteId) {
+		return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+				"select comprado from lista_compra_ingredientes where lista_compra_id = ? and ingrediente_id = ?",
+				Boolean.class, LISTA, ingredienteId));
+	}
+
+	private boolean estado(ListaCompraDto lista, Long ingredienteId) {
+		return lista.getItems().stream()
+				.filter(item -> item.getId().equals(ingredienteId))
+				.findFirst()
+				.map(ListaCompraItemDto::isComprado)
+				.orElseThrow();
+	}
+}
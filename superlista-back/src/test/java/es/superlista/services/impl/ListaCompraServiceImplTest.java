@@ -0,0 +1,292 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.ListaCompraDto;
+import es.superlista.domain.dto.ListaCompraItemDto;
+import es.superlista.domain.dto.MenuSemanalCreateDto;
+import es.superlista.domain.dto.OperacionMenuDto;
+import es.superlista.domain.dto.PaginaDto;
+import es.superlista.domain.entity.ListaCompraReferencia;
+import es.superlista.domain.entity.Receta;
+import es.superlista.domain.entity.Usuario;
+import es.superlista.domain.entity.menu_semanal.DiaComida;
+import es.superlista.domain.entity.menu_semanal.MenuSemanal;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.enumeration.TipoOperacionMenu;
+import es.superlista.domain.repository.ListaCompraItemRepository;
+import es.superlista.domain.repository.ListaCompraReferenciaRepository;
+import es.superlista.domain.repository.MenuSemanalRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.domain.repository.UsuarioRepository;
+import es.superlista.services.ListaCompraService;
+import es.superlista.services.MenuSemanalService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sin escritura diferida: las marcas se escriben en la transacción de la prueba (ver ListaCompraEscrituraDiferidaTest)
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"superlista.listacompra.escritura-diferida.habilitada=false"
+})
+@Transactional
+class ListaCompraServiceImplTest {
+
+	@Autowired
+	private ListaCompraService listaCompraService;
+
+	@Autowired
+	private MenuSemanalService menuSemanalService;
+
+	@Autowired
+	private MenuSemanalRepository menuSemanalRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private RecetaRepository recetaRepository;
+
+	@Autowired
+	private ListaCompraReferenciaRepository listaCompraReferenciaRepository;
+
+	@Autowired
+	private ListaCompraItemRepository listaCompraItemRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void generarListaCompraNoDependeDelTamanoDelMenu() {
+		Statistics pequeno = generarYMedir(crearMenu(1, 1));
+		long consultasPequeno = pequeno.getQueryExecutionCount();
+		long cargasPequeno = pequeno.getEntityFetchCount();
+		long coleccionesPequeno = pequeno.getCollectionFetchCount();
+
+		int celdas = DiaSemana.values().length * CategoriaComida.values().length;
+		Statistics completo = generarYMedir(crearMenu(celdas, 3));
+
+		assertEquals(0, coleccionesPequeno);
+		assertEquals(0, completo.getCollectionFetchCount());
+		assertEquals(consultasPequeno, completo.getQueryExecutionCount());
+		assertEquals(cargasPequeno, completo.getEntityFetchCount());
+	}
+
+	@Test
+	void laListaVinculadaSigueLosCambiosDelMenu() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = nuevoMenu(usuarioId);
+		// Pollo al horno: 4, 10, 20 y 21
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 2L);
+		sincronizar();
+		Long listaId = listaCompraService.generarListaVinculada(menuId, usuarioId).getId();
+		sincronizar();
+		assertEquals(Map.of(4L, 1, 10L, 1, 20L, 1, 21L, 1), contadores(listaId));
+		assertEquals(Set.of(4L, 10L, 20L, 21L), ingredientes(listaId));
+
+		// Tortilla de patata: 8, 20 y 21; los compartidos suman referencias sin repetir el ingrediente
+		menuSemanalService.agregarReceta(menuId, DiaSemana.MARTES, CategoriaComida.CENA, 5L);
+		sincronizar();
+		assertEquals(Map.of(4L, 1, 10L, 1, 20L, 2, 21L, 2, 8L, 1), contadores(listaId));
+		assertEquals(Set.of(4L, 8L, 10L, 20L, 21L), ingredientes(listaId));
+
+		// Al quitar el pollo solo salen los ingredientes que ya no aparecen en ninguna receta
+		menuSemanalService.modificarMenu(menuId, usuarioId,
+				List.of(operacion(TipoOperacionMenu.QUITAR, DiaSemana.LUNES, CategoriaComida.COMIDA, 2L)));
+		sincronizar();
+		assertEquals(Map.of(8L, 1, 20L, 1, 21L, 1), contadores(listaId));
+		assertEquals(Set.of(8L, 20L, 21L), ingredientes(listaId));
+	}
+
+	@Test
+	void unContadorDesviadoSeReconstruyeDesdeElMenu() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = nuevoMenu(usuarioId);
+		// Pollo al horno, tortilla de patata y curry de garbanzos: el 21 (cebolla) aparece en las tres
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 2L);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.MARTES, CategoriaComida.CENA, 5L);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.MIERCOLES, CategoriaComida.CENA, 10L);
+		sincronizar();
+		Long listaId = listaCompraService.generarListaVinculada(menuId, usuarioId).getId();
+		sincronizar();
+		assertEquals(3, contadores(listaId).get(21L));
+
+		// Se desvía el contador de la cebolla por debajo de lo que el menú referencia
+		listaCompraReferenciaRepository.findByListaCompraId(listaId).stream()
+				.filter(contador -> contador.getIngrediente().getId().equals(21L))
+				.forEach(contador -> contador.setReferencias(1));
+		sincronizar();
+
+		// Quitar dos recetas con cebolla lo dejaría en -1: en lugar de recortarlo a cero (y sacar la cebolla,
+		// que el curry sigue usando) se reconstruyen los contadores a partir del menú
+		menuSemanalService.modificarMenu(menuId, usuarioId, List.of(
+				operacion(TipoOperacionMenu.QUITAR, DiaSemana.LUNES, CategoriaComida.COMIDA, 2L),
+				operacion(TipoOperacionMenu.QUITAR, DiaSemana.MARTES, CategoriaComida.CENA, 5L)));
+		sincronizar();
+		assertEquals(Map.of(16L, 1, 21L, 1, 22L, 1, 30L, 1), contadores(listaId));
+		assertEquals(Set.of(16L, 21L, 22L, 30L), ingredientes(listaId));
+	}
+
+	@Test
+	void generarListaCompraReutilizaLaListaMientrasNoCambieNada() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = nuevoMenu(usuarioId);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 2L);
+		sincronizar();
+
+		ListaCompraDto primera = listaCompraService.generarListaCompra(menuId, usuarioId);
+		sincronizar();
+		ListaCompraDto repetida = listaCompraService.generarListaCompra(menuId, usuarioId);
+		sincronizar();
+		assertEquals(primera.getId(), repetida.getId());
+		assertEquals(Set.of(4L, 10L, 20L, 21L), idsItems(repetida));
+
+		// Una lista con ingredientes comprados ya se está usando: se genera otra, sin marcas
+		listaCompraService.marcarItem(primera.getId(), usuarioId, 4L, true);
+		sincronizar();
+		ListaCompraDto trasComprar = listaCompraService.generarListaCompra(menuId, usuarioId);
+		sincronizar();
+		assertNotEquals(primera.getId(), trasComprar.getId());
+		assertEquals(Set.of(4L, 10L, 20L, 21L), idsItems(trasComprar));
+		assertTrue(trasComprar.getItems().stream().noneMatch(ListaCompraItemDto::isComprado));
+
+		// Si cambia el menú tampoco se reutiliza
+		menuSemanalService.agregarReceta(menuId, DiaSemana.MARTES, CategoriaComida.CENA, 19L);
+		sincronizar();
+		ListaCompraDto trasCambiar = listaCompraService.generarListaCompra(menuId, usuarioId);
+		assertNotEquals(trasComprar.getId(), trasCambiar.getId());
+		assertEquals(Set.of(4L, 10L, 20L, 21L, 27L, 48L), idsItems(trasCambiar));
+	}
+
+	@Test
+	void obtenerPaginaListasDelUsuarioRecorreElHistorialPorCursor() {
+		Long usuarioId = usuarioRepository.findAll().get(1).getId();
+		Long menuId = nuevoMenu(usuarioId);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 3L);
+		sincronizar();
+		for (int i = 0; i < 3; i++) {
+			listaCompraService.generarListaMultiple(Set.of(menuId), usuarioId);
+		}
+		sincronizar();
+		List<Long> esperadas = listaCompraService.obtenerListasDelUsuario(usuarioId).stream()
+				.map(ListaCompraDto::getId)
+				.sorted(Comparator.reverseOrder())
+				.toList();
+
+		// Páginas de dos en dos, de la más reciente a la más antigua, hasta que no hay cursor
+		List<Long> recorridas = new ArrayList<>();
+		Long cursor = null;
+		do {
+			PaginaDto<ListaCompraDto> pagina = listaCompraService.obtenerPaginaListasDelUsuario(usuarioId, cursor, 2);
+			pagina.getElementos().forEach(lista -> recorridas.add(lista.getId()));
+			cursor = pagina.getSiguienteCursor();
+			if (cursor != null) {
+				assertEquals(2, pagina.getElementos().size());
+				assertEquals(recorridas.get(recorridas.size() - 1), cursor);
+			}
+		} while (cursor != null);
+
+		assertEquals(esperadas, recorridas);
+		assertFalse(recorridas.isEmpty());
+	}
+
+	private Statistics generarYMedir(MenuSemanal menu) {
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+		listaCompraService.generarListaCompra(menu.getId(), menu.getUsuario().getId());
+		entityManager.flush();
+		return estadisticas;
+	}
+
+	private MenuSemanal crearMenu(int numeroCeldas, int recetasPorCelda) {
+		Usuario usuario = usuarioRepository.findAll().get(0);
+		List<Receta> recetas = recetaRepository.findAll();
+
+		MenuSemanal menu = new MenuSemanal();
+		menu.setUsuario(usuario);
+		List<DiaComida> celdas = new ArrayList<>();
+		int siguienteReceta = 0;
+		for (int i = 0; i < numeroCeldas; i++) {
+			DiaComida celda = new DiaComida();
+			celda.setDia(DiaSemana.values()[i / CategoriaComida.values().length]);
+			celda.setCategoria(CategoriaComida.values()[i % CategoriaComida.values().length]);
+			celda.setMenuSemanal(menu);
+			List<Receta> recetasCelda = new ArrayList<>();
+			for (int j = 0; j < recetasPorCelda; j++) {
+				recetasCelda.add(recetas.get(siguienteReceta++ % recetas.size()));
+			}
+			celda.setRecetas(recetasCelda);
+			celdas.add(celda);
+		}
+		menu.setDiasComidas(celdas);
+		return menuSemanalRepository.save(menu);
+	}
+
+	private Long nuevoMenu(Long usuarioId) {
+		Long menuId = menuSemanalService.crearMenuSemanal(new MenuSemanalCreateDto(), usuarioId).getId();
+		sincronizar();
+		return menuId;
+	}
+
+	private OperacionMenuDto operacion(TipoOperacionMenu tipo, DiaSemana dia, CategoriaComida categoria, Long recetaId) {
+		OperacionMenuDto operacion = new OperacionMenuDto();
+		operacion.setOp(tipo);
+		operacion.setDia(dia);
+		operacion.setCategoria(categoria);
+		operacion.setRecetaId(recetaId);
+		return operacion;
+	}
+
+	/**
+	 * Contadores de referencias guardados para la lista, por identificador de ingrediente.
+	 */
+	private Map<Long, Integer> contadores(Long listaId) {
+		Map<Long, Integer> contadores = new HashMap<>();
+		for (ListaCompraReferencia contador : listaCompraReferenciaRepository.findByListaCompraId(listaId)) {
+			contadores.put(contador.getIngrediente().getId(), contador.getReferencias());
+		}
+		return contadores;
+	}
+
+	/**
+	 * Identificadores de los ingredientes guardados en la lista.
+	 */
+	private Set<Long> ingredientes(Long listaId) {
+		return listaCompraItemRepository.findAllByListaCompraId(listaId).stream()
+				.map(item -> item.getIngrediente().getId())
+				.collect(Collectors.toSet());
+	}
+
+	private Set<Long> idsItems(ListaCompraDto lista) {
+		return lista.getItems().stream().map(ListaCompraItemDto::getId).collect(Collectors.toSet());
+	}
+
+	private void sincronizar() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
@@ -0,0 +1,176 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.ActualizarRecetasMenuDto;
+import es.superlista.domain.dto.DiaComidaDto;
+import es.superlista.domain.dto.MenuSemanalCreateDto;
+import es.superlista.domain.dto.MenuSemanalDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.entity.Receta;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.repository.MenuSemanalRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.domain.repository.UsuarioRepository;
+import es.superlista.exception.ProcesoException;
+import es.superlista.services.CacheLecturasService;
+import es.superlista.services.ListaCompraService;
+import es.superlista.services.MenuSemanalService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=es.superlista.services.impl.RegistroSentencias")
+@Transactional
+class MenuSemanalAlmacenamientoTest {
+
+	private static final int RECETAS_POR_CELDA = 2;
+
+	@Autowired
+	private MenuSemanalService menuSemanalService;
+
+	@Autowired
+	private MenuSemanalRepository menuSemanalRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private RecetaRepository recetaRepository;
+
+	@Autowired
+	private EnsambladorMenus ensambladorMenus;
+
+	@Autowired
+	private ListaCompraService listaCompraService;
+
+	@Autowired
+	private ReservaIdentificadores reservaIdentificadores;
+
+	@Autowired
+	private CacheLecturasService cacheLecturas;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private MenuSemanalService documento;
+
+	@BeforeEach
+	void crearServicioDocumento() {
+		// El contexto arranca en modo relacional; el modo documento se construye sobre los mismos repositorios
+		documento = new MenuSemanalDocumentoServiceImpl(menuSemanalRepository, usuarioRepository,
+				recetaRepository, ensambladorMenus, listaCompraService, reservaIdentificadores, cacheLecturas);
+	}
+
+	@Test
+	void ambosModosGuardanYLeenLaMismaCuadricula() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		List<Receta> recetas = recetaRepository.findAll();
+
+		for (MenuSemanalService servicio : List.of(menuSemanalService, documento)) {
+			Long menuId = servicio.crearMenuSemanal(new MenuSemanalCreateDto(), usuarioId).getId();
+			sincronizar();
+
+			// Se escribe una versión y después otra en la que cambian todas las celdas
+			servicio.actualizarRecetas(cuadricula(menuId, recetas, 0), usuarioId);
+			sincronizar();
+			servicio.actualizarRecetas(cuadricula(menuId, recetas, 1), usuarioId);
+			sincronizar();
+
+			assertEquals(recetasPorCelda(cuadricula(menuId, recetas, 1).getDiasComidas()),
+					recetasPorCelda(servicio.obtenerMenuSemanal(menuId, usuarioId).getDiasComidas()));
+		}
+	}
+
+	@Test
+	void elModoDocumentoEscribeYLeeSoloLaFilaDelMenu() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		List<Receta> recetas = recetaRepository.findAll();
+		Long menuId = documento.crearMenuSemanal(new MenuSemanalCreateDto(), usuarioId).getId();
+		sincronizar();
+
+		List<String> sentencias = RegistroSentencias.iniciar();
+		MenuSemanalDto leido;
+		try {
+			documento.actualizarRecetas(cuadricula(menuId, recetas, 0), usuarioId);
+			sincronizar();
+			documento.actualizarRecetas(cuadricula(menuId, recetas, 1), usuarioId);
+			sincronizar();
+			leido = documento.obtenerMenuSemanal(menuId, usuarioId);
+		} finally {
+			RegistroSentencias.detener();
+		}
+
+		// Cada escritura de la cuadrícula completa es una única actualización de la fila del menú
+		assertEquals(0, RegistroSentencias.contarConTexto(sentencias, "dia_comida"));
+		assertEquals(2, RegistroSentencias.contar(sentencias, "update menu_semanal "));
+		assertEquals(DiaSemana.values().length * CategoriaComida.values().length * RECETAS_POR_CELDA,
+				leido.getDiasComidas().stream().mapToInt(c -> c.getRecetas().size()).sum());
+	}
+
+	@Test
+	void elModoDocumentoRechazaElMenuDeOtroUsuario() {
+		Long propietarioId = usuarioRepository.findAll().get(0).getId();
+		Long otroUsuarioId = usuarioRepository.findAll().get(1).getId();
+		List<Receta> recetas = recetaRepository.findAll();
+		Long menuId = documento.crearMenuSemanal(new MenuSemanalCreateDto(), propietarioId).getId();
+		sincronizar();
+
+		ActualizarRecetasMenuDto dto = cuadricula(menuId, recetas, 0);
+		assertThrows(ProcesoException.class, () -> documento.actualizarRecetas(dto, otroUsuarioId));
+		assertThrows(ProcesoException.class, () -> documento.obtenerMenuSemanal(menuId, otroUsuarioId));
+		sincronizar();
+
+		assertEquals(Map.of(), recetasPorCelda(documento.obtenerMenuSemanal(menuId, propietarioId).getDiasComidas()));
+	}
+
+	private ActualizarRecetasMenuDto cuadricula(Long menuId, List<Receta> recetas, int desplazamiento) {
+		List<DiaComidaDto> celdas = new ArrayList<>();
+		int siguiente = desplazamiento;
+		for (DiaSemana dia : DiaSemana.values()) {
+			for (CategoriaComida categoria : CategoriaComida.values()) {
+				DiaComidaDto celda = new DiaComidaDto();
+				celda.setDia(dia);
+				celda.setCategoria(categoria);
+				List<RecetaDto> recetasCelda = new ArrayList<>();
+				for (int j = 0; j < RECETAS_POR_CELDA; j++) {
+					RecetaDto receta = new RecetaDto();
+					receta.setId(recetas.get(siguiente++ % recetas.size()).getId());
+					recetasCelda.add(receta);
+				}
+				celda.setRecetas(recetasCelda);
+				celdas.add(celda);
+			}
+		}
+		return new ActualizarRecetasMenuDto(menuId, celdas);
+	}
+
+	/**
+	 * Recetas de cada celda con alguna receta, ordenadas, por "DIA-CATEGORIA".
+	 */
+	private Map<String, List<Long>> recetasPorCelda(List<DiaComidaDto> celdas) {
+		Map<String, List<Long>> recetas = new HashMap<>();
+		for (DiaComidaDto celda : celdas) {
+			if (celda.getRecetas() != null && !celda.getRecetas().isEmpty()) {
+				recetas.put(celda.getDia() + "-" + celda.getCategoria(),
+						celda.getRecetas().stream().map(RecetaDto::getId).sorted().toList());
+			}
+		}
+		return recetas;
+	}
+
+	private void sincronizar() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
@@ -0,0 +1,335 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.ActualizarRecetasMenuDto;
+import es.superlista.domain.dto.DiaComidaDto;
+import es.superlista.domain.dto.MenuSemanalCreateDto;
+import es.superlista.domain.dto.MenuSemanalDto;
+import es.superlista.domain.dto.OperacionMenuDto;
+import es.superlista.domain.dto.PaginaDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.entity.Receta;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.enumeration.TipoOperacionMenu;
+import es.superlista.domain.repository.DiaComidaRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.domain.repository.UsuarioRepository;
+import es.superlista.exception.ProcesoException;
+import es.superlista.services.MenuSemanalService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=es.superlista.services.impl.RegistroSentencias"
+})
+@Transactional
+class MenuSemanalServiceImplTest {
+
+	@Autowired
+	private MenuSemanalService menuSemanalService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private RecetaRepository recetaRepository;
+
+	@Autowired
+	private DiaComidaRepository diaComidaRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void actualizarRecetasInsertaLasCeldasEnLotes() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		List<Receta> recetas = recetaRepository.findAll();
+		Long menuId = nuevoMenu(usuarioId);
+
+		// Una receta por celda: las filas de celdas y de recetas caben cada una en un único lote
+		int celdas = DiaSemana.values().length * CategoriaComida.values().length;
+		Map<String, List<Long>> esperadas = new HashMap<>();
+		List<DiaComidaDto> cuadricula = new ArrayList<>();
+		for (DiaSemana dia : DiaSemana.values()) {
+			for (CategoriaComida categoria : CategoriaComida.values()) {
+				Long recetaId = recetas.get(cuadricula.size() % recetas.size()).getId();
+				cuadricula.add(celda(dia, categoria, recetaId));
+				esperadas.put(dia + "-" + categoria, List.of(recetaId));
+			}
+		}
+
+		Statistics estadisticas = estadisticas();
+		List<String> sentencias = RegistroSentencias.iniciar();
+		try {
+			menuSemanalService.actualizarRecetas(new ActualizarRecetasMenuDto(menuId, cuadricula), usuarioId);
+			entityManager.flush();
+		} finally {
+			RegistroSentencias.detener();
+		}
+
+		// Cada celda es una fila nueva, pero todas se escriben con la misma sentencia preparada
+		assertEquals(celdas, estadisticas.getEntityInsertCount());
+		assertEquals(celdas, estadisticas.getCollectionRecreateCount());
+		assertEquals(1, RegistroSentencias.contar(sentencias, "insert into dia_comida ("));
+		assertEquals(1, RegistroSentencias.contar(sentencias, "insert into dia_comida_recetas ("));
+
+		entityManager.clear();
+		assertEquals(esperadas, recetasPorCelda(menuSemanalService.obtenerMenuSemanal(menuId, usuarioId)));
+	}
+
+	@Test
+	void actualizarRecetasSoloEscribeLasCeldasQueCambian() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = nuevoMenu(usuarioId);
+		menuSemanalService.actualizarRecetas(new ActualizarRecetasMenuDto(menuId, List.of(
+				celda(DiaSemana.LUNES, CategoriaComida.COMIDA, 1L),
+				celda(DiaSemana.LUNES, CategoriaComida.CENA, 2L),
+				celda(DiaSemana.MARTES, CategoriaComida.COMIDA, 3L))), usuarioId);
+		sincronizar();
+		Map<String, Long> celdasIniciales = idsPorCelda(menuSemanalService.obtenerMenuSemanal(menuId, usuarioId));
+
+		// Una celda igual, otra con otra receta y la tercera vacía (ya no se envía)
+		Statistics estadisticas = estadisticas();
+		menuSemanalService.actualizarRecetas(new ActualizarRecetasMenuDto(menuId, List.of(
+				celda(DiaSemana.LUNES, CategoriaComida.COMIDA, 1L),
+				celda(DiaSemana.LUNES, CategoriaComida.CENA, 4L))), usuarioId);
+		sincronizar();
+
+		assertEquals(0, estadisticas.getEntityInsertCount());
+		assertEquals(1, estadisticas.getEntityDeleteCount());
+		assertEquals(2, diaComidaRepository.countByMenuSemanalId(menuId));
+
+		MenuSemanalDto leido = menuSemanalService.obtenerMenuSemanal(menuId, usuarioId);
+		assertEquals(Map.of("LUNES-COMIDA", List.of(1L), "LUNES-CENA", List.of(4L)), recetasPorCelda(leido));
+		// Las celdas que siguen teniendo recetas conservan su fila
+		Map<String, Long> celdasFinales = idsPorCelda(leido);
+		assertEquals(celdasIniciales.get("LUNES-COMIDA"), celdasFinales.get("LUNES-COMIDA"));
+		assertEquals(celdasIniciales.get("LUNES-CENA"), celdasFinales.get("LUNES-CENA"));
+	}
+
+	@Test
+	void actualizarRecetasRechazaElMenuDeOtroUsuario() {
+		Long propietarioId = usuarioRepository.findAll().get(0).getId();
+		Long otroUsuarioId = usuarioRepository.findAll().get(1).getId();
+		Long menuId = nuevoMenu(propietarioId);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 1L);
+		sincronizar();
+
+		ActualizarRecetasMenuDto dto = new ActualizarRecetasMenuDto(menuId,
+				List.of(celda(DiaSemana.MARTES, CategoriaComida.CENA, 2L)));
+		assertThrows(ProcesoException.class, () -> menuSemanalService.actualizarRecetas(dto, otroUsuarioId));
+		sincronizar();
+
+		assertEquals(Map.of("LUNES-COMIDA", List.of(1L)),
+				recetasPorCelda(menuSemanalService.obtenerMenuSemanal(menuId, propietarioId)));
+	}
+
+	@Test
+	void agregarRecetaCreaLaCeldaSoloConLaPrimeraReceta() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = nuevoMenu(usuarioId);
+
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 1L);
+		sincronizar();
+		assertEquals(1, diaComidaRepository.countByMenuSemanalId(menuId));
+
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 2L);
+		sincronizar();
+		assertEquals(1, diaComidaRepository.countByMenuSemanalId(menuId));
+		assertEquals(List.of(1L, 2L), recetasDeCelda(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA));
+	}
+
+	@Test
+	void agregarRecetaRechazaUnaCategoriaAjenaAlMenu() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		MenuSemanalCreateDto soloComidas = new MenuSemanalCreateDto();
+		soloComidas.setCategorias(List.of(CategoriaComida.COMIDA));
+		Long menuId = menuSemanalService.crearMenuSemanal(soloComidas, usuarioId).getId();
+		sincronizar();
+
+		assertThrows(ProcesoException.class,
+				() -> menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.CENA, 1L));
+		assertEquals(0, diaComidaRepository.countByMenuSemanalId(menuId));
+	}
+
+	@Test
+	void quitarYMoverLaUltimaRecetaEliminanLaCelda() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = nuevoMenu(usuarioId);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 1L);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.MARTES, CategoriaComida.CENA, 2L);
+		sincronizar();
+
+		menuSemanalService.modificarMenu(menuId, usuarioId,
+				List.of(operacion(TipoOperacionMenu.QUITAR, DiaSemana.LUNES, CategoriaComida.COMIDA, 1L)));
+		sincronizar();
+		assertEquals(1, diaComidaRepository.countByMenuSemanalId(menuId));
+		assertTrue(recetasDeCelda(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA).isEmpty());
+
+		OperacionMenuDto mover = operacion(TipoOperacionMenu.MOVER, DiaSemana.MARTES, CategoriaComida.CENA, 2L);
+		mover.setDiaDestino(DiaSemana.MIERCOLES);
+		mover.setCategoriaDestino(CategoriaComida.COMIDA);
+		menuSemanalService.modificarMenu(menuId, usuarioId, List.of(mover));
+		sincronizar();
+		assertEquals(1, diaComidaRepository.countByMenuSemanalId(menuId));
+		assertEquals(List.of(2L), recetasDeCelda(menuId, DiaSemana.MIERCOLES, CategoriaComida.COMIDA));
+		assertEquals(Map.of("MIERCOLES-COMIDA", List.of(2L)),
+				recetasPorCelda(menuSemanalService.obtenerMenuSemanal(menuId, usuarioId)));
+	}
+
+	@Test
+	void obtenerPaginaMenusDeUsuarioRecorreElHistorialPorCursor() {
+		Long usuarioId = usuarioRepository.findAll().get(1).getId();
+		for (int i = 0; i < 3; i++) {
+			Long menuId = nuevoMenu(usuarioId);
+			menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, (long) i + 1);
+		}
+		sincronizar();
+		List<Long> esperados = menuSemanalService.obtenerMenusDeUsuario(usuarioId, false).stream()
+				.map(MenuSemanalDto::getId)
+				.sorted(Comparator.reverseOrder())
+				.toList();
+
+		// Páginas de dos en dos, del más reciente al más antiguo, hasta que no hay cursor
+		List<Long> recorridos = new ArrayList<>();
+		Long cursor = null;
+		do {
+			PaginaDto<MenuSemanalDto> pagina = menuSemanalService.obtenerPaginaMenusDeUsuario(usuarioId, cursor, 2, false);
+			pagina.getElementos().forEach(menu -> recorridos.add(menu.getId()));
+			cursor = pagina.getSiguienteCursor();
+			if (cursor != null) {
+				assertEquals(2, pagina.getElementos().size());
+				assertEquals(recorridos.get(recorridos.size() - 1), cursor);
+			}
+		} while (cursor != null);
+
+		assertEquals(esperados, recorridos);
+		assertTrue(menuSemanalService.obtenerPaginaMenusDeUsuario(usuarioId, esperados.get(esperados.size() - 1), 2, false)
+				.getElementos().isEmpty());
+	}
+
+	@Test
+	void clonarMenuCopiaLasCeldasConSusRecetas() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = nuevoMenu(usuarioId);
+		menuSemanalService.actualizarRecetas(new ActualizarRecetasMenuDto(menuId, List.of(
+				celda(DiaSemana.LUNES, CategoriaComida.COMIDA, 1L, 2L),
+				celda(DiaSemana.JUEVES, CategoriaComida.CENA, 3L))), usuarioId);
+		sincronizar();
+
+		Long copiaId = menuSemanalService.clonarMenu(menuId, usuarioId);
+		sincronizar();
+
+		assertNotEquals(menuId, copiaId);
+		assertEquals(2, diaComidaRepository.countByMenuSemanalId(copiaId));
+		Map<String, List<Long>> esperadas = Map.of("LUNES-COMIDA", List.of(1L, 2L), "JUEVES-CENA", List.of(3L));
+		assertEquals(esperadas, recetasPorCelda(menuSemanalService.obtenerMenuSemanal(copiaId, usuarioId)));
+		assertEquals(esperadas, recetasPorCelda(menuSemanalService.obtenerMenuSemanal(menuId, usuarioId)));
+	}
+
+	@Test
+	void clonarMenuRechazaElMenuDeOtroUsuario() {
+		Long propietarioId = usuarioRepository.findAll().get(0).getId();
+		Long otroUsuarioId = usuarioRepository.findAll().get(1).getId();
+		Long menuId = nuevoMenu(propietarioId);
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.COMIDA, 1L);
+		sincronizar();
+		int menusDelOtro = menuSemanalService.obtenerMenusDeUsuario(otroUsuarioId, false).size();
+
+		assertThrows(ProcesoException.class, () -> menuSemanalService.clonarMenu(menuId, otroUsuarioId));
+		sincronizar();
+		assertEquals(menusDelOtro, menuSemanalService.obtenerMenusDeUsuario(otroUsuarioId, false).size());
+	}
+
+	private Long nuevoMenu(Long usuarioId) {
+		Long menuId = menuSemanalService.crearMenuSemanal(new MenuSemanalCreateDto(), usuarioId).getId();
+		sincronizar();
+		return menuId;
+	}
+
+	private Statistics estadisticas() {
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+		return estadisticas;
+	}
+
+	private List<Long> recetasDeCelda(Long menuId, DiaSemana dia, CategoriaComida categoria) {
+		return diaComidaRepository.findRecetaIdsByCelda(menuId, dia, categoria).stream().sorted().toList();
+	}
+
+	private DiaComidaDto celda(DiaSemana dia, CategoriaComida categoria, Long... recetaIds) {
+		List<RecetaDto> recetas = new ArrayList<>();
+		for (Long recetaId : recetaIds) {
+			RecetaDto receta = new RecetaDto();
+			receta.setId(recetaId);
+			recetas.add(receta);
+		}
+		DiaComidaDto celda = new DiaComidaDto();
+		celda.setDia(dia);
+		celda.setCategoria(categoria);
+		celda.setRecetas(recetas);
+		return celda;
+	}
+
+	private OperacionMenuDto operacion(TipoOperacionMenu tipo, DiaSemana dia, CategoriaComida categoria, Long recetaId) {
+		OperacionMenuDto operacion = new OperacionMenuDto();
+		operacion.setOp(tipo);
+		operacion.setDia(dia);
+		operacion.setCategoria(categoria);
+		operacion.setRecetaId(recetaId);
+		return operacion;
+	}
+
+	/**
+	 * Recetas de cada celda con alguna receta, ordenadas, por "DIA-CATEGORIA".
+	 */
+	private Map<String, List<Long>> recetasPorCelda(MenuSemanalDto menu) {
+		Map<String, List<Long>> recetas = new HashMap<>();
+		for (DiaComidaDto celda : menu.getDiasComidas()) {
+			if (!celda.getRecetas().isEmpty()) {
+				recetas.put(celda.getDia() + "-" + celda.getCategoria(),
+						celda.getRecetas().stream().map(RecetaDto::getId).sorted().toList());
+			}
+		}
+		return recetas;
+	}
+
+	/**
+	 * Identificador de la fila de cada celda guardada, por "DIA-CATEGORIA".
+	 */
+	private Map<String, Long> idsPorCelda(MenuSemanalDto menu) {
+		Map<String, Long> ids = new HashMap<>();
+		for (DiaComidaDto celda : menu.getDiasComidas()) {
+			if (celda.getId() != null) {
+				ids.put(celda.getDia() + "-" + celda.getCategoria(), celda.getId());
+			}
+		}
+		return ids;
+	}
+
+	private void sincronizar() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
@@ -0,0 +1,186 @@
+package es.superlista.services.impl;
+
+import es.superlista.domain.dto.IngredienteSimpleDto;
+import es.superlista.domain.dto.MenuSemanalCreateDto;
+import es.superlista.domain.dto.RecetaDto;
+import es.superlista.domain.entity.Ingrediente;
+import es.superlista.domain.entity.ListaCompraReferencia;
+import es.superlista.domain.entity.Receta;
+import es.superlista.domain.enumeration.CategoriaComida;
+import es.superlista.domain.enumeration.CategoriaIngrediente;
+import es.superlista.domain.enumeration.DiaSemana;
+import es.superlista.domain.repository.IngredienteRepository;
+import es.superlista.domain.repository.ListaCompraItemRepository;
+import es.superlista.domain.repository.ListaCompraReferenciaRepository;
+import es.superlista.domain.repository.RecetaRepository;
+import es.superlista.domain.repository.UsuarioRepository;
+import es.superlista.services.ListaCompraService;
+import es.superlista.services.MenuSemanalService;
+import es.superlista.services.RecetaService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=es.superlista.services.impl.RegistroSentencias"
+})
+@Transactional
+class RecetaServiceImplTest {
+
+	private static final int INGREDIENTES = 15;
+
+	private static final int EXISTENTES = 3;
+
+	@Autowired
+	private RecetaService recetaService;
+
+	@Autowired
+	private MenuSemanalService menuSemanalService;
+
+	@Autowired
+	private ListaCompraService listaCompraService;
+
+	@Autowired
+	private IngredienteRepository ingredienteRepository;
+
+	@Autowired
+	private RecetaRepository recetaRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private ListaCompraReferenciaRepository listaCompraReferenciaRepository;
+
+	@Autowired
+	private ListaCompraItemRepository listaCompraItemRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void altaRecetaReutilizaLosIngredientesExistentesYCreaElRestoEnUnLote() {
+		List<Ingrediente> existentes = ingredienteRepository.findAll().subList(0, EXISTENTES);
+
+		Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+		List<String> sentencias = RegistroSentencias.iniciar();
+		try {
+			alta("qzx", existentes);
+		} finally {
+			RegistroSentencias.detener();
+		}
+
+		// Los ingredientes nuevos y la receta, cada uno una fila, con una sentencia preparada por tabla
+		int nuevos = INGREDIENTES - EXISTENTES;
+		assertEquals(nuevos + 1, estadisticas.getEntityInsertCount());
+		assertEquals(1, RegistroSentencias.contar(sentencias, "insert into ingrediente ("));
+		assertEquals(1, RegistroSentencias.contar(sentencias, "insert into receta ("));
+		assertEquals(1, RegistroSentencias.contar(sentencias, "insert into receta_ingredientes ("));
+
+		List<Receta> guardadas = recetaRepository.findByNombreContainsIgnoreCase("receta-qzx");
+		assertEquals(1, guardadas.size());
+		List<Long> ingredientes = guardadas.get(0).getIngredientes().stream().map(Ingrediente::getId).toList();
+		assertEquals(INGREDIENTES, Set.copyOf(ingredientes).size());
+		assertTrue(ingredientes.containsAll(existentes.stream().map(Ingrediente::getId).toList()));
+		// El existente indicado por nombre con otras mayúsculas no se ha duplicado
+		assertEquals(1, ingredienteRepository.findByNombreMinusculasIn(
+				Set.of(existentes.get(1).getNombre().toLowerCase(Locale.ROOT))).size());
+	}
+
+	@Test
+	void actualizarRecetaRecalculaLasListasVinculadas() {
+		Long usuarioId = usuarioRepository.findAll().get(0).getId();
+		Long menuId = menuSemanalService.crearMenuSemanal(new MenuSemanalCreateDto(), usuarioId).getId();
+		sincronizar();
+		// Leche con avena: Leche (27) y Mijo (48)
+		menuSemanalService.agregarReceta(menuId, DiaSemana.LUNES, CategoriaComida.DESAYUNO, 19L);
+		sincronizar();
+		Long listaId = listaCompraService.generarListaVinculada(menuId, usuarioId).getId();
+		sincronizar();
+		assertEquals(Map.of(27L, 1, 48L, 1), contadores(listaId));
+
+		// La receta cambia el mijo por tomate (1)
+		RecetaDto receta = new RecetaDto();
+		receta.setId(19L);
+		receta.setNombre("Leche con avena");
+		receta.setIngredientes(ingredienteRepository.findAllById(List.of(27L, 1L)).stream()
+				.map(this::ingrediente)
+				.toList());
+		recetaService.actualizarReceta(receta);
+		sincronizar();
+
+		assertEquals(Map.of(1L, 1, 27L, 1), contadores(listaId));
+		assertEquals(Set.of(1L, 27L), listaCompraItemRepository.findAllByListaCompraId(listaId).stream()
+				.map(item -> item.getIngrediente().getId())
+				.collect(Collectors.toSet()));
+	}
+
+	private void alta(String prefijo, List<Ingrediente> existentes) {
+		// Tres ingredientes existentes (por ID, por nombre con otras mayúsculas y por nombre tras un ID
+		// inexistente) y el resto nuevos
+		List<IngredienteSimpleDto> ingredientes = new ArrayList<>();
+		ingredientes.add(ingrediente(existentes.get(0).getId(), null));
+		ingredientes.add(ingrediente(null, existentes.get(1).getNombre().toUpperCase()));
+		ingredientes.add(ingrediente(Long.MAX_VALUE, existentes.get(2).getNombre()));
+		for (int i = ingredientes.size(); i < INGREDIENTES; i++) {
+			ingredientes.add(ingrediente(null, prefijo + "-" + i));
+		}
+
+		RecetaDto receta = new RecetaDto();
+		receta.setNombre("receta-" + prefijo);
+		receta.setIngredientes(ingredientes);
+		recetaService.altaReceta(receta);
+		sincronizar();
+	}
+
+	/**
+	 * Contadores de referencias guardados para la lista, por identificador de ingrediente.
+	 */
+	private Map<Long, Integer> contadores(Long listaId) {
+		Map<Long, Integer> contadores = new HashMap<>();
+		for (ListaCompraReferencia contador : listaCompraReferenciaRepository.findByListaCompraId(listaId)) {
+			contadores.put(contador.getIngrediente().getId(), contador.getReferencias());
+		}
+		return contadores;
+	}
+
+	private IngredienteSimpleDto ingrediente(Ingrediente ingrediente) {
+		IngredienteSimpleDto dto = ingrediente(ingrediente.getId(), ingrediente.getNombre());
+		dto.setCategoria(ingrediente.getCategoria());
+		return dto;
+	}
+
+	private IngredienteSimpleDto ingrediente(Long id, String nombre) {
+		IngredienteSimpleDto dto = new IngredienteSimpleDto();
+		dto.setId(id);
+		dto.setNombre(nombre);
+		dto.setCategoria(CategoriaIngrediente.VERDURAS);
+		return dto;
+	}
+
+	private void sincronizar() {
+		entityManager.flush();
+		entityManager.clear();
+	}
+}
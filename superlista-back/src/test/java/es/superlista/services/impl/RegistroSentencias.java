@@ -0,0 +1,72 @@
+package es.superlista.services.impl;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Inspector de sentencias de Hibernate para las pruebas: registra el SQL de cada sentencia que se prepara
+ * en el hilo de la prueba mientras el registro está activo. Una escritura por lotes prepara su sentencia
+ * una sola vez por lote, de modo que contar las sentencias preparadas permite comprobar el agrupamiento.
+ */
+public class RegistroSentencias implements StatementInspector {
+
+	private static final ThreadLocal<List<String>> SENTENCIAS = new ThreadLocal<>();
+
+	/**
+	 * Empieza a registrar las sentencias preparadas por el hilo actual.
+	 *
+	 * @return lista en la que se van acumulando las sentencias
+	 */
+	static List<String> iniciar() {
+		List<String> sentencias = new ArrayList<>();
+		SENTENCIAS.set(sentencias);
+		return sentencias;
+	}
+
+	/**
+	 * Deja de registrar las sentencias del hilo actual.
+	 */
+	static void detener() {
+		SENTENCIAS.remove();
+	}
+
+	/**
+	 * Cuenta las sentencias registradas que empiezan por el prefijo indicado, sin distinguir mayúsculas.
+	 *
+	 * @param sentencias sentencias registradas
+	 * @param prefijo    comienzo de la sentencia, por ejemplo {@code "insert into dia_comida ("}
+	 * @return número de sentencias que empiezan por el prefijo
+	 */
+	static long contar(List<String> sentencias, String prefijo) {
+		String buscado = prefijo.toLowerCase(Locale.ROOT);
+		return sentencias.stream()
+				.filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith(buscado))
+				.count();
+	}
+
+	/**
+	 * Cuenta las sentencias registradas que mencionan el texto indicado, sin distinguir mayúsculas.
+	 *
+	 * @param sentencias sentencias registradas
+	 * @param texto      texto buscado, por ejemplo el nombre de una tabla
+	 * @return número de sentencias que lo contienen
+	 */
+	static long contarConTexto(List<String> sentencias, String texto) {
+		String buscado = texto.toLowerCase(Locale.ROOT);
+		return sentencias.stream()
+				.filter(sql -> sql.toLowerCase(Locale.ROOT).contains(buscado))
+				.count();
+	}
+
+	@Override
+	public String inspect(String sql) {
+		List<String> sentencias = SENTENCIAS.get();
+		if (sentencias != null) {
+			sentencias.add(sql);
+		}
+		return sql;
+	}
+}